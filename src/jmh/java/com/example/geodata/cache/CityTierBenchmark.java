@@ -0,0 +1,106 @@
+package com.example.geodata.cache;
+
+import com.example.geodata.cache.impl.ConcurrentLRUCache;
+import com.example.geodata.cache.impl.ExpiringCache;
+import com.example.geodata.dto.CityView;
+import java.lang.management.ManagementFactory;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Heap footprint and GC cost of holding every city on the heap against
+ * the {@link OffHeapCityTier}. Setup prints the heap retained by the
+ * filled cache. {@link #readMostly} under {@code -prof gc} gives the
+ * allocation rate and the young collections a read/update mix causes
+ * ({@code gc.time / gc.count} is their mean pause); {@link #fullGcPause}
+ * times a full collection with the filled cache resident:
+ * {@code gradle jmh -PjmhIncludes=CityTierBenchmark -PjmhProfilers=gc}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"-Xmx2g"})
+public class CityTierBenchmark {
+
+    private static final int COUNTRIES = 200;
+
+    @Param({"1000000"})
+    private int entries;
+
+    @Param({"onHeap", "offHeap"})
+    private String tier;
+
+    private Cache<Integer, ExpiringCache.Entry<CityView>> cache;
+
+    private final SplittableRandom random = new SplittableRandom(42);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        long before = usedHeap();
+        cache = "onHeap".equals(tier)
+                ? new ConcurrentLRUCache<>(entries, 16)
+                : new OffHeapCityTier(entries);
+        for (int i = 0; i < entries; i++) {
+            cache.put(i, city(i));
+        }
+        System.out.printf("%n%s: %d cities retain %d MB of heap%n", tier, entries,
+                (usedHeap() - before) >> 20);
+    }
+
+    @Benchmark
+    public Optional<ExpiringCache.Entry<CityView>> readMostly() {
+        int key = random.nextInt(entries);
+        if (random.nextInt(10) == 0) {
+            cache.put(key, city(key));
+            return Optional.empty();
+        }
+        return cache.get(key);
+    }
+
+    /**
+     * A full collection has to mark everything reachable, so its pause
+     * grows with the objects the cache keeps on the heap.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.SingleShotTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    @Warmup(iterations = 2)
+    @Measurement(iterations = 10)
+    public int fullGcPause() {
+        System.gc();
+        return cache.size();
+    }
+
+    private ExpiringCache.Entry<CityView> city(final int id) {
+        return new ExpiringCache.Entry<>(CityView.builder()
+                .id(id)
+                .name("City number " + id)
+                .latitude(random.nextDouble(-90, 90))
+                .longitude(random.nextDouble(-180, 180))
+                .countryId(id % COUNTRIES)
+                .build(), System.nanoTime());
+    }
+
+    private static long usedHeap() {
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+}
@@ -0,0 +1,84 @@
+package com.example.geodata.cache;
+
+import com.example.geodata.config.CacheProperties;
+import com.example.geodata.dto.CityView;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hit cost of the {@link LRUCacheCity} bean as the services use it: TTL
+ * wrapper, country index and striped store, with each segment built by
+ * the configured policy. Ids are boxed once up front, as they arrive from
+ * the controllers. Read {@code gc.alloc.rate.norm} for bytes allocated per
+ * hit:
+ * {@code gradle jmh -PjmhIncludes=EntityCacheHitBenchmark -PjmhProfilers=gc}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class EntityCacheHitBenchmark {
+
+    private static final int KEYS_MASK = (1 << 16) - 1;
+
+    private static final int FIRST_ID = 1_000;
+
+    @Param({"100000"})
+    private int size;
+
+    @Param({"LRU", "INT_LRU"})
+    private CachePolicy policy;
+
+    private LRUCacheCity cache;
+
+    private Integer[] keys;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        CacheProperties properties = new CacheProperties();
+        properties.getCity().setPolicy(policy);
+        properties.getCity().setTtl(Duration.ofHours(1));
+        cache = new LRUCacheCity(size, 16, properties, null, Runnable::run);
+        for (int i = 0; i < size; i++) {
+            cache.put(FIRST_ID + i, CityView.builder()
+                    .id(FIRST_ID + i)
+                    .name("city" + i)
+                    .countryId(i % 200)
+                    .build());
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        keys = new Integer[KEYS_MASK + 1];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = FIRST_ID + random.nextInt(size);
+        }
+    }
+
+    @Benchmark
+    public CityView getIfPresent() {
+        return cache.getIfPresent(keys[cursor++ & KEYS_MASK]);
+    }
+
+    @Benchmark
+    public Optional<CityView> getOrLoad() {
+        return cache.getOrLoad(keys[cursor++ & KEYS_MASK], id -> Optional.empty());
+    }
+
+}
@@ -0,0 +1,121 @@
+package com.example.geodata.cache;
+
+import com.example.geodata.GeodataApplication;
+import com.example.geodata.entity.City;
+import com.example.geodata.exceptions.ResourceNotFoundException;
+import com.example.geodata.repository.CityRepository;
+import com.example.geodata.service.CityService;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.springframework.boot.SpringApplication;
+import org.springframework.context.ConfigurableApplicationContext;
+
+/**
+ * Restart benchmark for the cache snapshot. For each mode it starts the
+ * application, serves a Zipf-distributed warm-up load, shuts down (which
+ * writes the snapshot when enabled), starts again and records the
+ * latency of {@link CityService#findById} over the first minute.
+ * Needs the Postgres database configured in {@code application.properties}:
+ * {@code java -cp build/libs/project-0.0.1-SNAPSHOT-jmh.jar
+ * com.example.geodata.cache.RestartLatencyHarness [seconds]}.
+ */
+public final class RestartLatencyHarness {
+
+    private static final double ZIPF_SKEW = 1.0;
+
+    private static final int WARM_UP_REQUESTS = 200_000;
+
+    private RestartLatencyHarness() {
+    }
+
+    public static void main(final String[] args) throws Exception {
+        long seconds = args.length > 0 ? Long.parseLong(args[0]) : 60;
+        for (boolean snapshot : new boolean[] {false, true}) {
+            Path directory = Files.createTempDirectory("cache-snapshot");
+            String[] properties = {
+                "--server.port=0",
+                "--geodata.cache.snapshot.enabled=" + snapshot,
+                "--geodata.cache.snapshot.directory=" + directory};
+            int[] ids;
+            try (ConfigurableApplicationContext context =
+                         SpringApplication.run(GeodataApplication.class, properties)) {
+                ids = context.getBean(CityRepository.class).findAll().stream()
+                        .mapToInt(City::getId).toArray();
+                drive(context.getBean(CityService.class), ids,
+                        new ZipfSampler(ids.length, new SplittableRandom(1)),
+                        WARM_UP_REQUESTS, Long.MAX_VALUE);
+            }
+            try (ConfigurableApplicationContext context =
+                         SpringApplication.run(GeodataApplication.class, properties)) {
+                long[] latencies = drive(context.getBean(CityService.class), ids,
+                        new ZipfSampler(ids.length, new SplittableRandom(2)),
+                        Integer.MAX_VALUE, TimeUnit.SECONDS.toNanos(seconds));
+                report(snapshot ? "with snapshot" : "cold start", latencies);
+            }
+        }
+    }
+
+    private static long[] drive(final CityService service, final int[] ids,
+                                final ZipfSampler sampler, final int requests,
+                                final long durationNanos)
+            throws ResourceNotFoundException {
+        long[] latencies = new long[1 << 16];
+        int count = 0;
+        long end = durationNanos == Long.MAX_VALUE
+                ? Long.MAX_VALUE : System.nanoTime() + durationNanos;
+        while (count < requests && System.nanoTime() < end) {
+            int id = ids[sampler.next()];
+            long start = System.nanoTime();
+            service.findById(id);
+            if (count == latencies.length) {
+                latencies = Arrays.copyOf(latencies, count * 2);
+            }
+            latencies[count++] = System.nanoTime() - start;
+        }
+        return Arrays.copyOf(latencies, count);
+    }
+
+    private static void report(final String mode, final long[] latencies) {
+        Arrays.sort(latencies);
+        System.out.printf("%-14s requests=%d p50=%dus p99=%dus max=%dus%n", mode,
+                latencies.length, percentile(latencies, 0.50) / 1_000,
+                percentile(latencies, 0.99) / 1_000,
+                latencies[latencies.length - 1] / 1_000);
+    }
+
+    private static long percentile(final long[] sorted, final double percentile) {
+        return sorted[(int) Math.min(sorted.length - 1,
+                Math.ceil(percentile * sorted.length) - 1)];
+    }
+
+    private static final class ZipfSampler {
+
+        private final double[] cumulative;
+
+        private final SplittableRandom random;
+
+        private ZipfSampler(final int size, final SplittableRandom random) {
+            this.random = random;
+            cumulative = new double[size];
+            double sum = 0;
+            for (int i = 0; i < size; i++) {
+                sum += 1 / Math.pow(i + 1, ZIPF_SKEW);
+                cumulative[i] = sum;
+            }
+            for (int i = 0; i < size; i++) {
+                cumulative[i] /= sum;
+            }
+        }
+
+        private int next() {
+            int index = Arrays.binarySearch(cumulative, random.nextDouble());
+            return Math.min(cumulative.length - 1,
+                    index >= 0 ? index : -index - 1);
+        }
+
+    }
+
+}
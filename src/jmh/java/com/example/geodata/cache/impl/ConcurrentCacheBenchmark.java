@@ -0,0 +1,109 @@
+package com.example.geodata.cache.impl;
+
+import com.example.geodata.cache.Cache;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Read-mostly throughput of a globally locked {@link LRUCache} against
+ * the striped {@link ConcurrentLRUCache} at 1, 8 and 32 threads.
+ * Run with {@code gradle jmh -PjmhIncludes=ConcurrentCacheBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ConcurrentCacheBenchmark {
+
+    private static final int CAPACITY = 100_000;
+
+    @Param({"globalLock", "striped"})
+    private String engine;
+
+    private Cache<Integer, Integer> cache;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = "globalLock".equals(engine)
+                ? new SynchronizedCache<>(new LRUCache<>(CAPACITY))
+                : new ConcurrentLRUCache<>(CAPACITY, 64);
+        for (int i = 0; i < CAPACITY; i++) {
+            cache.put(i, i);
+        }
+    }
+
+    @Benchmark
+    @Threads(1)
+    public Optional<Integer> threads01() {
+        return operation();
+    }
+
+    @Benchmark
+    @Threads(8)
+    public Optional<Integer> threads08() {
+        return operation();
+    }
+
+    @Benchmark
+    @Threads(32)
+    public Optional<Integer> threads32() {
+        return operation();
+    }
+
+    private Optional<Integer> operation() {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        int key = random.nextInt(CAPACITY * 2);
+        if (random.nextInt(10) == 0) {
+            cache.put(key, key);
+            return Optional.empty();
+        }
+        return cache.get(key);
+    }
+
+    private record SynchronizedCache<K, V>(Cache<K, V> delegate)
+            implements Cache<K, V> {
+
+        @Override
+        public synchronized Optional<V> get(final K key) {
+            return delegate.get(key);
+        }
+
+        @Override
+        public synchronized int size() {
+            return delegate.size();
+        }
+
+        @Override
+        public synchronized void put(final K key, final V value) {
+            delegate.put(key, value);
+        }
+
+        @Override
+        public synchronized boolean containsKey(final K key) {
+            return delegate.containsKey(key);
+        }
+
+        @Override
+        public synchronized void remove(final K key) {
+            delegate.remove(key);
+        }
+
+    }
+
+}
@@ -0,0 +1,129 @@
+package com.example.geodata.cache.impl;
+
+import com.example.geodata.cache.Cache;
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hit ratio of LRU against W-TinyLFU on the traces the unit tests replay:
+ * a Zipfian key stream and the same stream broken by scans of twice the
+ * capacity. Each invocation replays the whole trace into a fresh cache and
+ * reports {@code hitRatio} as a secondary result next to the replay time:
+ * {@code gradle jmh -PjmhIncludes=HitRatioBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 1)
+@Fork(1)
+public class HitRatioBenchmark {
+
+    private static final int CAPACITY = 1_000;
+
+    private static final int KEY_SPACE = 100_000;
+
+    private static final int TRACE_LENGTH = 1_000_000;
+
+    @Param({"zipf", "scanMixed"})
+    private String trace;
+
+    @Param({"LRU", "TINY_LFU"})
+    private String policy;
+
+    private Integer[] keys;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        keys = "zipf".equals(trace) ? zipf(1) : scanMixed(2);
+    }
+
+    @Benchmark
+    public void replay(final Ratio ratio) {
+        Cache<Integer, Integer> cache = "LRU".equals(policy)
+                ? new LRUCache<>(CAPACITY)
+                : new TinyLfuCache<>(CAPACITY);
+        int hits = 0;
+        for (Integer key : keys) {
+            if (cache.get(key).isPresent()) {
+                hits++;
+            } else {
+                cache.put(key, key);
+            }
+        }
+        ratio.hitRatio = (double) hits / TRACE_LENGTH;
+    }
+
+    /**
+     * Holds the ratio of the last replay. JMH sums event counters over the
+     * measured iterations, so there is exactly one: the trace is fixed and
+     * every replay yields the same ratio.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.EVENTS)
+    public static class Ratio {
+
+        public double hitRatio;
+
+        @Setup(Level.Iteration)
+        public void clean() {
+            hitRatio = 0;
+        }
+
+    }
+
+    private static Integer[] zipf(final long seed) {
+        double[] cdf = new double[KEY_SPACE];
+        double sum = 0;
+        for (int i = 0; i < KEY_SPACE; i++) {
+            sum += 1.0 / (i + 1);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < KEY_SPACE; i++) {
+            cdf[i] /= sum;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        Integer[] keys = new Integer[TRACE_LENGTH];
+        for (int i = 0; i < TRACE_LENGTH; i++) {
+            int index = Arrays.binarySearch(cdf, random.nextDouble());
+            keys[i] = index >= 0 ? index : Math.min(-index - 1, KEY_SPACE - 1);
+        }
+        return keys;
+    }
+
+    private static Integer[] scanMixed(final long seed) {
+        Integer[] zipf = zipf(seed);
+        SplittableRandom random = new SplittableRandom(seed);
+        Integer[] keys = new Integer[TRACE_LENGTH];
+        int scanKey = KEY_SPACE;
+        int scanRemaining = 0;
+        int next = 0;
+        for (int i = 0; i < TRACE_LENGTH; i++) {
+            if (scanRemaining == 0 && random.nextInt(5_000) == 0) {
+                scanRemaining = CAPACITY * 2;
+            }
+            if (scanRemaining > 0) {
+                scanRemaining--;
+                keys[i] = scanKey++;
+            } else {
+                keys[i] = zipf[next++];
+            }
+        }
+        return keys;
+    }
+
+}
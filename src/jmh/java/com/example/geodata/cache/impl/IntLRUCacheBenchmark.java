@@ -0,0 +1,79 @@
+package com.example.geodata.cache.impl;
+
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Hit cost of {@link LRUCache}, which boxes every id, against
+ * {@link IntLRUCache} through its primitive and its {@code Optional}
+ * lookup. Ids start above the {@code Integer} cache, as real ids do. Read
+ * {@code gc.alloc.rate.norm} for bytes allocated per lookup:
+ * {@code gradle jmh -PjmhIncludes=IntLRUCacheBenchmark -PjmhProfilers=gc}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class IntLRUCacheBenchmark {
+
+    private static final int KEYS_MASK = (1 << 16) - 1;
+
+    private static final int FIRST_ID = 1_000;
+
+    @Param({"1000", "100000"})
+    private int size;
+
+    private LRUCache<Integer, String> boxed;
+
+    private IntLRUCache<String> primitive;
+
+    private int[] keys;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        boxed = new LRUCache<>(size);
+        primitive = new IntLRUCache<>(size);
+        for (int i = 0; i < size; i++) {
+            boxed.put(FIRST_ID + i, "city" + i);
+            primitive.put(FIRST_ID + i, "city" + i);
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        keys = new int[KEYS_MASK + 1];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = FIRST_ID + random.nextInt(size);
+        }
+    }
+
+    @Benchmark
+    public Optional<String> boxedGetHit() {
+        return boxed.get(keys[cursor++ & KEYS_MASK]);
+    }
+
+    @Benchmark
+    public String primitiveGetHit() {
+        return primitive.getIfPresent(keys[cursor++ & KEYS_MASK]);
+    }
+
+    @Benchmark
+    public Optional<String> primitiveGetOptional() {
+        return primitive.get(keys[cursor++ & KEYS_MASK]);
+    }
+
+}
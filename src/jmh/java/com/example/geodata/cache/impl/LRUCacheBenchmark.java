@@ -0,0 +1,80 @@
+package com.example.geodata.cache.impl;
+
+import com.example.geodata.cache.Cache;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Before/after comparison of the LRU engine: the old
+ * {@code LinkedList}-backed cache against the intrusive list in
+ * {@link LRUCache}. Run with
+ * {@code gradle jmh -PjmhIncludes=LRUCacheBenchmark}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LRUCacheBenchmark {
+
+    private static final int KEYS_MASK = (1 << 16) - 1;
+
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    @Param({"linkedList", "intrusive"})
+    private String engine;
+
+    private Cache<Integer, Integer> cache;
+
+    private Integer[] keys;
+
+    private int cursor;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        cache = "linkedList".equals(engine)
+                ? new LinkedListLRUCache<>(size)
+                : new LRUCache<>(size);
+        for (int i = 0; i < size; i++) {
+            cache.put(i, i);
+        }
+        SplittableRandom random = new SplittableRandom(42);
+        keys = new Integer[KEYS_MASK + 1];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = random.nextInt(size);
+        }
+    }
+
+    @Benchmark
+    public Optional<Integer> getHit() {
+        return cache.get(keys[cursor++ & KEYS_MASK]);
+    }
+
+    @Benchmark
+    public void putExisting() {
+        Integer key = keys[cursor++ & KEYS_MASK];
+        cache.put(key, key);
+    }
+
+    @Benchmark
+    public void putEvicting() {
+        int key = size + cursor++;
+        cache.put(key, key);
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.example.geodata.cache.impl;
+
+import com.example.geodata.cache.Cache;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.Optional;
+
+/**
+ * The previous {@link LRUCache} engine, kept as the benchmark baseline.
+ * Every hit walks the {@link LinkedList} to unlink the node.
+ */
+public class LinkedListLRUCache<K, V> implements Cache<K, V> {
+
+    private final int capacity;
+
+    private final HashMap<K, Node<K, V>> hashMap;
+
+    private final LinkedList<Node<K, V>> linkedList;
+
+    public LinkedListLRUCache(final int maxSize) {
+        this.capacity = maxSize;
+        hashMap = new HashMap<>();
+        linkedList = new LinkedList<>();
+    }
+
+    @Override
+    public Optional<V> get(final K key) {
+        Optional<V> result = Optional.empty();
+        if (containsKey(key)) {
+            final Node<K, V> node = hashMap.get(key);
+            result = Optional.of(node.value);
+            linkedList.remove(node);
+            linkedList.addFirst(node);
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return linkedList.size();
+    }
+
+    @Override
+    public void put(final K key, final V value) {
+        if (containsKey(key)) {
+            linkedList.remove(hashMap.get(key));
+        } else if (size() == capacity) {
+            final Node<K, V> executeNode = linkedList.removeLast();
+            hashMap.remove(executeNode.key);
+        }
+        final Node<K, V> newNode = new Node<>(key, value);
+        hashMap.put(key, newNode);
+        linkedList.addFirst(newNode);
+    }
+
+    @Override
+    public boolean containsKey(final K key) {
+        return hashMap.containsKey(key);
+    }
+
+    @Override
+    public void remove(final K key) {
+        if (containsKey(key)) {
+            linkedList.remove(hashMap.get(key));
+            hashMap.remove(key);
+        }
+    }
+
+    private record Node<K, V>(K key, V value) { }
+
+}
@@ -0,0 +1,101 @@
+package com.example.geodata.service.ingest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Time to insert city rows with each {@link IngestEngine}, one transaction
+ * per run as in the services. Rows go to a scratch copy of the
+ * {@code cities} table, emptied before every run. Needs the Postgres
+ * database configured in {@code application.properties}, or
+ * {@code -Dgeodata.bench.url}, {@code .user} and {@code .password}:
+ * {@code gradle jmh -PjmhIncludes=BulkInsertBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(1)
+public class BulkInsertBenchmark {
+
+    private static final BulkTable TABLE =
+            new BulkTable("bulk_insert_benchmark", BulkTable.CITIES.columns());
+
+    @Param({"10000", "100000", "1000000"})
+    private int rows;
+
+    @Param({"BATCH", "REWRITTEN", "COPY"})
+    private IngestEngine engine;
+
+    private SingleConnectionDataSource dataSource;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private TransactionTemplate transactionTemplate;
+
+    private BulkInserter bulkInserter;
+
+    private List<Object[]> cities;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource();
+        dataSource.setDriverClassName("org.postgresql.Driver");
+        dataSource.setUrl(System.getProperty("geodata.bench.url",
+                "jdbc:postgresql://localhost:5432/Cities"));
+        dataSource.setUsername(System.getProperty("geodata.bench.user", "postgres"));
+        dataSource.setPassword(System.getProperty("geodata.bench.password", "admin"));
+        dataSource.setSuppressClose(true);
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(
+                new DataSourceTransactionManager(dataSource));
+        bulkInserter = new BulkInserter(jdbcTemplate);
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE.name());
+        jdbcTemplate.execute("CREATE TABLE " + TABLE.name()
+                + " (LIKE cities INCLUDING DEFAULTS INCLUDING IDENTITY)");
+        SplittableRandom random = new SplittableRandom(42);
+        cities = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            cities.add(new Object[] {"City " + i, 1 + random.nextInt(200),
+                    random.nextDouble(-90, 90), random.nextDouble(-180, 180)});
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void truncate() {
+        jdbcTemplate.execute("TRUNCATE " + TABLE.name());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE.name());
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public void insert() {
+        transactionTemplate.executeWithoutResult(
+                status -> bulkInserter.insert(engine, TABLE, cities));
+    }
+
+}
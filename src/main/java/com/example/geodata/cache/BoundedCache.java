@@ -0,0 +1,16 @@
+package com.example.geodata.cache;
+
+/**
+ * A cache holding at most {@link #maximumWeight()} in total entry weight,
+ * which can be changed while it runs.
+ */
+public interface BoundedCache<K, V> extends Cache<K, V> {
+
+    long maximumWeight();
+
+    /**
+     * Evicts right away when the cache holds more than the new maximum.
+     */
+    void setMaximumWeight(long maximumWeight);
+
+}
@@ -1,16 +1,103 @@
 package com.example.geodata.cache;
 
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
 
 
 public interface Cache<K, V> {
 
     Optional<V> get(K key);
 
+    /**
+     * The cached value of {@code key}, or null. Caches on the read path
+     * override it so that a hit allocates nothing, not even the
+     * {@code Optional} of {@link #get}.
+     */
+    default V getIfPresent(final K key) {
+        return get(key).orElse(null);
+    }
+
     int size();
 
     void put(K key, V value);
 
     boolean containsKey(K key);
 
+    void remove(K key);
+
+    /**
+     * Returns the cached value of {@code key}, loading and caching it on
+     * a miss.
+     */
+    default Optional<V> getOrLoad(final K key,
+                                  final Function<K, Optional<V>> loader) {
+        Optional<V> value = get(key);
+        if (value.isEmpty()) {
+            value = loader.apply(key);
+            value.ifPresent(found -> put(key, found));
+        }
+        return value;
+    }
+
+    /**
+     * Cached values of {@code keys}, in the order the keys are given.
+     */
+    default Map<K, V> getAll(final Collection<K> keys) {
+        Map<K, V> found = new LinkedHashMap<>();
+        for (K key : keys) {
+            get(key).ifPresent(value -> found.put(key, value));
+        }
+        return found;
+    }
+
+    default void putAll(final Map<K, V> entries) {
+        entries.forEach(this::put);
+    }
+
+    /**
+     * Like {@link #getAll(Collection)}, but all misses are fetched with a
+     * single call to {@code loader} and cached. Keys the loader does not
+     * return are left out of the result.
+     */
+    default Map<K, V> getAll(final Collection<K> keys,
+                             final Function<Set<K>, Map<K, V>> loader) {
+        Map<K, V> found = getAll(keys);
+        Set<K> missing = new LinkedHashSet<>(keys);
+        missing.removeAll(found.keySet());
+        if (missing.isEmpty()) {
+            return found;
+        }
+        Map<K, V> loaded = loader.apply(missing);
+        putAll(loaded);
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = found.containsKey(key) ? found.get(key) : loaded.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    default long weightedSize() {
+        return size();
+    }
+
+    default CacheStats stats() {
+        return CacheStats.EMPTY;
+    }
+
+    /**
+     * Up to {@code limit} keys, most recently used first.
+     */
+    default List<K> hotKeys(int limit) {
+        return List.of();
+    }
+
 }
@@ -0,0 +1,213 @@
+package com.example.geodata.cache;
+
+import com.example.geodata.entity.City;
+import com.example.geodata.entity.Country;
+import com.example.geodata.entity.Language;
+import com.example.geodata.service.utility.TransactionUtility;
+import java.util.Collection;
+import lombok.AllArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Single place that knows how the cached entities reference each other.
+ * A country holds its cities and languages, and a language holds its
+ * countries, so a write to one entity drops the cached entries that
+ * embed it, along with the countries-by-language results it changes.
+ * The services still refresh or drop the entry of the entity they wrote
+ * themselves. Writes that bypass Hibernate also evict the second-level
+ * cache regions they change. Deletes and bulk writes evict only once
+ * their transaction commits, so a read in between cannot cache the old
+ * rows again.
+ */
+@Component
+@AllArgsConstructor
+public class CacheInvalidator {
+
+    private final LRUCacheCity cityCache;
+
+    private final LRUCacheCountry countryCache;
+
+    private final LRUCacheLanguage languageCache;
+
+    private final NegativeCacheCity missingCities;
+
+    private final NegativeCacheLanguage missingLanguages;
+
+    private final CountriesByLanguageCache countriesByLanguage;
+
+    private final SecondLevelCache secondLevelCache;
+
+    public void cityCreated(final Integer cityId, final Integer countryId) {
+        missingCities.invalidate(cityId);
+        evictCountry(countryId);
+    }
+
+    /**
+     * A city was edited or moved from {@code previousCountryId} to
+     * {@code countryId}; both countries list it.
+     */
+    public void cityUpdated(final Integer previousCountryId,
+                            final Integer countryId) {
+        evictCountry(previousCountryId);
+        evictCountry(countryId);
+    }
+
+    public void cityDeleted(final Integer cityId, final Integer countryId) {
+        TransactionUtility.afterCommit(() -> {
+            cityCache.remove(cityId);
+            evictCountry(countryId);
+        });
+    }
+
+    public void citiesInserted(final Collection<Integer> countryIds) {
+        TransactionUtility.afterCommit(() -> {
+            missingCities.invalidateAll();
+            countryIds.forEach(this::evictCountry);
+            secondLevelCache.evictCities(countryIds);
+        });
+    }
+
+    /**
+     * Cities were inserted or rewritten in bulk, in {@code countryIds}.
+     */
+    public void citiesUpserted(final Collection<Integer> insertedIds,
+                               final Collection<Integer> updatedIds,
+                               final Collection<Integer> countryIds) {
+        TransactionUtility.afterCommit(() -> {
+            insertedIds.forEach(missingCities::invalidate);
+            updatedIds.forEach(cityCache::remove);
+            countryIds.forEach(this::evictCountry);
+            secondLevelCache.evictEntities(City.class, updatedIds);
+            secondLevelCache.evictCities(countryIds);
+        });
+    }
+
+    /**
+     * Countries rewritten in bulk. No other cached entry embeds a country,
+     * and lookups by name go through the name index.
+     */
+    public void countriesUpdated(final Collection<Integer> countryIds) {
+        TransactionUtility.afterCommit(() -> {
+            countryIds.forEach(this::evictCountry);
+            secondLevelCache.evictEntities(Country.class, countryIds);
+        });
+    }
+
+    public void citiesDeleted(final Collection<Integer> cityIds,
+                              final Collection<Integer> countryIds) {
+        TransactionUtility.afterCommit(() -> {
+            cityIds.forEach(cityCache::remove);
+            countryIds.forEach(this::evictCountry);
+            secondLevelCache.evictEntities(City.class, cityIds);
+            secondLevelCache.evictCities(countryIds);
+        });
+    }
+
+    public void countryLanguagesChanged(final Collection<Language> languages) {
+        languages.forEach(this::evictLanguage);
+    }
+
+    /**
+     * Countries deleted in bulk along with {@code cityIds}, their cities,
+     * and their links to {@code languageIds}, which were called
+     * {@code languageNames}.
+     */
+    public void countriesDeleted(final Collection<Integer> countryIds,
+                                 final Collection<Integer> cityIds,
+                                 final Collection<Integer> languageIds,
+                                 final Collection<String> languageNames) {
+        TransactionUtility.afterCommit(() -> {
+            countryIds.forEach(countryCache::remove);
+            countryIds.forEach(cityCache::removeByCountry);
+            languageIds.forEach(languageCache::remove);
+            languageNames.forEach(this::evictResult);
+            secondLevelCache.evictEntities(Country.class, countryIds);
+            secondLevelCache.evictEntities(City.class, cityIds);
+            secondLevelCache.evictCountries(languageIds);
+        });
+    }
+
+    public void languageCreated(final Integer languageId) {
+        missingLanguages.invalidate(languageId);
+    }
+
+    /**
+     * A language was edited; when renamed, lookups by either name change.
+     */
+    public void languageUpdated(final String previousName, final String name,
+                                final Collection<Integer> countryIds) {
+        evictResult(previousName);
+        evictResult(name);
+        countryIds.forEach(this::evictCountry);
+    }
+
+    public void languageDeleted(final Integer languageId, final String name,
+                                final Collection<Integer> countryIds) {
+        TransactionUtility.afterCommit(() -> {
+            languageCache.remove(languageId);
+            evictResult(name);
+            countryIds.forEach(this::evictCountry);
+            secondLevelCache.evictLanguages(countryIds);
+            secondLevelCache.evictQueries();
+        });
+    }
+
+    public void languagesDeleted(final Collection<Integer> languageIds,
+                                 final Collection<String> names,
+                                 final Collection<Integer> countryIds) {
+        TransactionUtility.afterCommit(() -> {
+            languageIds.forEach(languageCache::remove);
+            names.forEach(this::evictResult);
+            countryIds.forEach(this::evictCountry);
+            secondLevelCache.evictEntities(Language.class, languageIds);
+            secondLevelCache.evictLanguages(countryIds);
+            secondLevelCache.evictQueries();
+        });
+    }
+
+    public void languagesInserted() {
+        TransactionUtility.afterCommit(() -> {
+            missingLanguages.invalidateAll();
+            secondLevelCache.evictQueries();
+        });
+    }
+
+    /**
+     * Languages inserted or rewritten in bulk. {@code names} holds the
+     * previous and current names of the rewritten ones, and
+     * {@code countryIds} the countries that speak them.
+     */
+    public void languagesUpserted(final Collection<Integer> insertedIds,
+                                  final Collection<Integer> updatedIds,
+                                  final Collection<String> names,
+                                  final Collection<Integer> countryIds) {
+        TransactionUtility.afterCommit(() -> {
+            insertedIds.forEach(missingLanguages::invalidate);
+            updatedIds.forEach(languageCache::remove);
+            names.forEach(this::evictResult);
+            countryIds.forEach(this::evictCountry);
+            secondLevelCache.evictEntities(Language.class, updatedIds);
+            secondLevelCache.evictQueries();
+        });
+    }
+
+    private void evictCountry(final Integer countryId) {
+        if (countryId != null) {
+            countryCache.remove(countryId);
+        }
+    }
+
+    private void evictLanguage(final Language language) {
+        if (language.getId() != null) {
+            languageCache.remove(language.getId());
+        }
+        evictResult(language.getName());
+    }
+
+    private void evictResult(final String languageName) {
+        if (languageName != null) {
+            countriesByLanguage.remove(languageName);
+        }
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.example.geodata.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import org.springframework.stereotype.Component;
+
+/**
+ * Publishes the entity cache counters to Micrometer, tagged with the
+ * cache name. Every meter reads {@link Cache#stats()} on scrape.
+ */
+@Component
+public class CacheMetrics implements MeterBinder {
+
+    private static final String CACHE_TAG = "cache";
+
+    private final Map<String, Cache<?, ?>> caches = new LinkedHashMap<>();
+
+    public CacheMetrics(final LRUCacheCity cityCache,
+                        final LRUCacheCountry countryCache,
+                        final LRUCacheLanguage languageCache,
+                        final CountriesByLanguageCache countriesByLanguage) {
+        caches.put("city", cityCache);
+        caches.put("country", countryCache);
+        caches.put("language", languageCache);
+        caches.put("countriesByLanguage", countriesByLanguage);
+    }
+
+    @Override
+    public void bindTo(final MeterRegistry registry) {
+        caches.forEach((name, cache) -> {
+            Gauge.builder("cache.size", cache, Cache::size)
+                    .tag(CACHE_TAG, name)
+                    .description("Number of entries in the cache")
+                    .register(registry);
+            Gauge.builder("cache.hit.ratio", cache, c -> c.stats().hitRate())
+                    .tag(CACHE_TAG, name)
+                    .description("Hits divided by requests since startup")
+                    .register(registry);
+            counter("cache.gets", name, cache,
+                    c -> c.stats().hitCount()).tag("result", "hit").register(registry);
+            counter("cache.gets", name, cache,
+                    c -> c.stats().missCount()).tag("result", "miss").register(registry);
+            counter("cache.evictions", name, cache,
+                    c -> c.stats().evictionCount()).register(registry);
+            counter("cache.invalidations", name, cache,
+                    c -> c.stats().invalidationCount()).register(registry);
+            FunctionTimer.builder("cache.loads", cache,
+                            c -> c.stats().loadCount(),
+                            c -> c.stats().totalLoadTime(), TimeUnit.NANOSECONDS)
+                    .tag(CACHE_TAG, name)
+                    .description("Loads performed by the cache")
+                    .register(registry);
+        });
+    }
+
+    private static FunctionCounter.Builder<Cache<?, ?>> counter(
+            final String meter, final String name, final Cache<?, ?> cache,
+            final ToDoubleFunction<Cache<?, ?>> count) {
+        return FunctionCounter.builder(meter, cache, count).tag(CACHE_TAG, name);
+    }
+
+}
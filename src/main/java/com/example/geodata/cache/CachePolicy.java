@@ -0,0 +1,43 @@
+package com.example.geodata.cache;
+
+import com.example.geodata.cache.impl.IntLRUCache;
+import com.example.geodata.cache.impl.LRUCache;
+import com.example.geodata.cache.impl.TinyLfuCache;
+
+/**
+ * Eviction policy of an entity cache segment. Entity caches are keyed by
+ * id, so every policy builds an {@code Integer}-keyed cache.
+ */
+public enum CachePolicy {
+
+    LRU {
+        @Override
+        public <V> BoundedCache<Integer, V> create(final long maximumWeight,
+                                                   final Weigher<Integer, V> weigher) {
+            return new LRUCache<>(maximumWeight, weigher);
+        }
+    },
+
+    TINY_LFU {
+        @Override
+        public <V> BoundedCache<Integer, V> create(final long maximumWeight,
+                                                   final Weigher<Integer, V> weigher) {
+            return new TinyLfuCache<>(maximumWeight, weigher);
+        }
+    },
+
+    /**
+     * LRU over primitive arrays.
+     */
+    INT_LRU {
+        @Override
+        public <V> BoundedCache<Integer, V> create(final long maximumWeight,
+                                                   final Weigher<Integer, V> weigher) {
+            return new IntLRUCache<>(maximumWeight, weigher);
+        }
+    };
+
+    public abstract <V> BoundedCache<Integer, V> create(long maximumWeight,
+                                                        Weigher<Integer, V> weigher);
+
+}
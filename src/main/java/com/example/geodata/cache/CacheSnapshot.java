@@ -0,0 +1,192 @@
+package com.example.geodata.cache;
+
+import com.example.geodata.config.CacheProperties;
+import com.example.geodata.dto.CityView;
+import com.example.geodata.dto.CountryView;
+import com.example.geodata.dto.LanguageView;
+import com.example.geodata.repository.CityRepository;
+import com.example.geodata.repository.CountryRepository;
+import com.example.geodata.repository.LanguageRepository;
+import com.example.geodata.service.utility.ViewUtility;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+/**
+ * Keeps the entity caches warm across restarts. On shutdown the hot ids
+ * of every cache are written, most recent first, to a memory-mapped
+ * {@code <name>.snapshot} file; on startup each file is read back and
+ * its ids are loaded with a single query. Runs before the
+ * web server starts and after it stops. Warming is best-effort: a
+ * snapshot that cannot be read or loaded leaves its cache cold.
+ */
+@Slf4j
+@Component
+public class CacheSnapshot implements SmartLifecycle {
+
+    private static final int MAGIC = 0x47444353;
+
+    private static final int VERSION = 1;
+
+    private static final int HEADER_BYTES = 3 * Integer.BYTES;
+
+    private final CacheProperties.Snapshot properties;
+
+    private final List<Target<?>> targets = new ArrayList<>();
+
+    private volatile boolean running;
+
+    public CacheSnapshot(final CacheProperties properties,
+                         final LRUCacheCity cityCache,
+                         final LRUCacheCountry countryCache,
+                         final LRUCacheLanguage languageCache,
+                         final CityRepository cityRepository,
+                         final CountryRepository countryRepository,
+                         final LanguageRepository languageRepository) {
+        this.properties = properties.getSnapshot();
+        targets.add(new Target<>("city", cityCache,
+                ids -> cityRepository.findAllById(ids).stream()
+                        .map(ViewUtility::toView)
+                        .toList(),
+                CityView::id));
+        targets.add(new Target<>("country", countryCache,
+                ids -> countryRepository.findWithCitiesAndLanguagesByIdIn(ids)
+                        .stream()
+                        .map(ViewUtility::toView)
+                        .toList(),
+                CountryView::id));
+        targets.add(new Target<>("language", languageCache,
+                ids -> languageRepository.findAllById(ids).stream()
+                        .map(ViewUtility::toView)
+                        .toList(),
+                LanguageView::id));
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        if (properties.isEnabled()) {
+            targets.forEach(this::restore);
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (properties.isEnabled()) {
+            targets.forEach(this::save);
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private <E> void restore(final Target<E> target) {
+        Path file = fileOf(target);
+        if (!Files.exists(file)) {
+            return;
+        }
+        long start = System.nanoTime();
+        List<Integer> ids;
+        try {
+            ids = read(file);
+        } catch (IOException | IllegalStateException e) {
+            log.warn("Ignoring cache snapshot {}: {}", file, e.getMessage());
+            return;
+        }
+        Map<Integer, E> loaded = new HashMap<>();
+        try {
+            for (E entity : target.loader().apply(ids)) {
+                loaded.put(target.id().apply(entity), entity);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Starting {} cache cold, loading its snapshot failed",
+                    target.name(), e);
+            return;
+        }
+        for (int i = ids.size() - 1; i >= 0; i--) {
+            E entity = loaded.get(ids.get(i));
+            if (entity != null) {
+                target.cache().put(ids.get(i), entity);
+            }
+        }
+        log.info("Warmed {} cache with {} entries in {} ms", target.name(),
+                loaded.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void save(final Target<?> target) {
+        List<Integer> ids = target.cache().hotKeys(properties.getMaxEntries());
+        Path file = fileOf(target);
+        try {
+            write(file, ids);
+        } catch (IOException e) {
+            log.warn("Failed to write cache snapshot {}: {}", file, e.getMessage());
+        }
+    }
+
+    static List<Integer> read(final Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_BYTES) {
+                throw new IllegalStateException("truncated header");
+            }
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY,
+                    0, channel.size());
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION) {
+                throw new IllegalStateException("unknown format");
+            }
+            int count = buffer.getInt();
+            if (count < 0 || buffer.remaining() < (long) count * Integer.BYTES) {
+                throw new IllegalStateException("truncated body");
+            }
+            List<Integer> ids = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                ids.add(buffer.getInt());
+            }
+            return ids;
+        }
+    }
+
+    static void write(final Path file, final List<Integer> ids) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        Path temporary = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE,
+                    0, HEADER_BYTES + (long) ids.size() * Integer.BYTES);
+            buffer.putInt(MAGIC).putInt(VERSION).putInt(ids.size());
+            ids.forEach(buffer::putInt);
+            buffer.force();
+        }
+        Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private Path fileOf(final Target<?> target) {
+        return Path.of(properties.getDirectory(), target.name() + ".snapshot");
+    }
+
+    private record Target<E>(String name, Cache<Integer, E> cache,
+                             Function<List<Integer>, List<E>> loader,
+                             Function<E, Integer> id) { }
+
+}
@@ -0,0 +1,37 @@
+package com.example.geodata.cache;
+
+import lombok.Builder;
+
+/**
+ * Point-in-time copy of a cache's counters. Load time is in nanoseconds.
+ */
+@Builder(toBuilder = true)
+public record CacheStats(long hitCount, long missCount, long loadCount,
+                         long totalLoadTime, long evictionCount,
+                         long invalidationCount) {
+
+    public static final CacheStats EMPTY = new CacheStats(0, 0, 0, 0, 0, 0);
+
+    public long requestCount() {
+        return hitCount + missCount;
+    }
+
+    public double hitRate() {
+        long requests = requestCount();
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    public double averageLoadPenalty() {
+        return loadCount == 0 ? 0.0 : (double) totalLoadTime / loadCount;
+    }
+
+    public CacheStats plus(final CacheStats other) {
+        return new CacheStats(hitCount + other.hitCount,
+                missCount + other.missCount,
+                loadCount + other.loadCount,
+                totalLoadTime + other.totalLoadTime,
+                evictionCount + other.evictionCount,
+                invalidationCount + other.invalidationCount);
+    }
+
+}
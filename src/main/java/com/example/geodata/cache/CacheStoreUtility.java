@@ -0,0 +1,34 @@
+package com.example.geodata.cache;
+
+import com.example.geodata.cache.impl.ConcurrentLRUCache;
+import com.example.geodata.cache.impl.ExpiringCache;
+import com.example.geodata.config.CacheProperties;
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class CacheStoreUtility {
+
+    /**
+     * Builds the striped store behind an entity cache. With
+     * {@code max-bytes} set, entries are weighed by {@code weigher} and
+     * the budget is in bytes; otherwise it is an entry count taken from
+     * {@code capacity}, falling back to {@code defaultCapacity}.
+     */
+    public <V> BoundedCache<Integer, ExpiringCache.Entry<V>> buildStore(
+            final CacheProperties.Spec spec, final int defaultCapacity,
+            final int concurrencyLevel, final Weigher<Integer, V> weigher) {
+        long maximumWeight;
+        Weigher<Integer, ExpiringCache.Entry<V>> entryWeigher;
+        if (spec.getMaxBytes() != null) {
+            maximumWeight = spec.getMaxBytes().toBytes();
+            entryWeigher = (key, entry) -> weigher.weigh(key, entry.value());
+        } else {
+            maximumWeight = spec.getCapacity() != null
+                    ? spec.getCapacity() : defaultCapacity;
+            entryWeigher = Weigher.singleton();
+        }
+        return new ConcurrentLRUCache<>(maximumWeight, concurrencyLevel,
+                weight -> spec.getPolicy().create(weight, entryWeigher));
+    }
+
+}
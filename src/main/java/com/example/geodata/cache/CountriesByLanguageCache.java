@@ -0,0 +1,29 @@
+package com.example.geodata.cache;
+
+import com.example.geodata.cache.impl.ConcurrentLRUCache;
+import com.example.geodata.cache.impl.ExpiringCache;
+import com.example.geodata.config.CacheProperties;
+import java.util.List;
+import java.util.Optional;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Ids of the countries speaking a language, keyed by language name. Only
+ * the ids are kept so the countries themselves stay as fresh as the
+ * country cache. Entries are dropped by {@link CacheInvalidator} whenever
+ * a language is linked to or unlinked from a country, renamed or deleted.
+ */
+@Component
+public class CountriesByLanguageCache extends ExpiringCache<String, List<Integer>> {
+
+    public CountriesByLanguageCache(@Value("${LRUCache.concurrencyLevel:16}")
+                                    final int concurrencyLevel,
+                                    final CacheProperties properties) {
+        super(new ConcurrentLRUCache<>(properties.getQuery().getCapacity(),
+                        concurrencyLevel),
+                properties.getQuery().getTtl(), 0,
+                key -> Optional.empty(), Runnable::run);
+    }
+
+}
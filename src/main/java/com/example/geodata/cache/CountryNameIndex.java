@@ -0,0 +1,29 @@
+package com.example.geodata.cache;
+
+import com.example.geodata.repository.CountryRepository;
+import com.example.geodata.repository.IdAndName;
+import java.util.Collection;
+import java.util.List;
+import org.springframework.stereotype.Component;
+
+@Component
+public class CountryNameIndex extends NameIndex {
+
+    private final CountryRepository repository;
+
+    public CountryNameIndex(final CountryRepository repository) {
+        super("country");
+        this.repository = repository;
+    }
+
+    @Override
+    protected List<IdAndName> loadAll() {
+        return repository.findAllIdsAndNames();
+    }
+
+    @Override
+    protected List<IdAndName> loadByNames(final Collection<String> names) {
+        return repository.findIdsAndNamesByNames(names);
+    }
+
+}
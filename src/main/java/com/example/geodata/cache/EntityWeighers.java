@@ -0,0 +1,62 @@
+package com.example.geodata.cache;
+
+import com.example.geodata.dto.CityView;
+import com.example.geodata.dto.CountryView;
+import com.example.geodata.dto.LanguageView;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Rough retained-size estimates, in bytes, for the cached views.
+ */
+@UtilityClass
+public class EntityWeighers {
+
+    private static final int ENTRY_OVERHEAD = 104;
+
+    private static final int OBJECT_HEADER = 16;
+
+    private static final int REFERENCE = 4;
+
+    private static final int BOXED_DOUBLE = 16;
+
+    private static final int LIST_OVERHEAD = 24;
+
+    private static final int STRING_OVERHEAD = 40;
+
+    public int city(final Integer id, final CityView city) {
+        return ENTRY_OVERHEAD + cityWeight(city);
+    }
+
+    public int country(final Integer id, final CountryView country) {
+        long weight = ENTRY_OVERHEAD + OBJECT_HEADER + 7 * REFERENCE
+                + stringWeight(country.name())
+                + stringWeight(country.nationality())
+                + 2 * BOXED_DOUBLE + 2 * LIST_OVERHEAD;
+        for (CityView city : country.cities()) {
+            weight += REFERENCE + cityWeight(city);
+        }
+        for (LanguageView language : country.languages()) {
+            weight += REFERENCE + languageWeight(language);
+        }
+        return (int) Math.min(Integer.MAX_VALUE, weight);
+    }
+
+    public int language(final Integer id, final LanguageView language) {
+        return ENTRY_OVERHEAD + languageWeight(language);
+    }
+
+    private int cityWeight(final CityView city) {
+        return OBJECT_HEADER + 5 * REFERENCE + stringWeight(city.name())
+                + 2 * BOXED_DOUBLE;
+    }
+
+    private int languageWeight(final LanguageView language) {
+        return OBJECT_HEADER + 3 * REFERENCE + stringWeight(language.name())
+                + stringWeight(language.code());
+    }
+
+    private int stringWeight(final String value) {
+        return value == null ? 0 : STRING_OVERHEAD + value.length();
+    }
+
+}
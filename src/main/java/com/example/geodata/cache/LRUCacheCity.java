@@ -1,15 +1,67 @@
 package com.example.geodata.cache;
 
-import com.example.geodata.cache.impl.LRUCache;
-import com.example.geodata.entity.City;
+import com.example.geodata.cache.impl.ExpiringCache;
+import com.example.geodata.cache.impl.IndexedCache;
+import com.example.geodata.cache.impl.TieredCache;
+import com.example.geodata.config.CacheProperties;
+import com.example.geodata.dto.CityView;
+import com.example.geodata.repository.CityRepository;
+import com.example.geodata.service.utility.ViewUtility;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
-public class LRUCacheCity extends LRUCache<Integer, City> {
+public class LRUCacheCity extends ExpiringCache<Integer, CityView> {
 
-    public LRUCacheCity(@Value("${LRUCache.capacity}") final int capacity) {
-        super(capacity);
+    private final IndexedCache<Integer, Entry<CityView>, Integer> citiesByCountry;
+
+    @Autowired
+    public LRUCacheCity(@Value("${LRUCache.capacity}") final int capacity,
+                        @Value("${LRUCache.concurrencyLevel:16}")
+                        final int concurrencyLevel,
+                        final CacheProperties properties,
+                        final CityRepository repository,
+                        @Qualifier("cacheRefreshExecutor") final Executor executor) {
+        this(new IndexedCache<>(withOffHeapTier(CacheStoreUtility.buildStore(
+                        properties.getCity(), capacity, concurrencyLevel,
+                        EntityWeighers::city),
+                        properties.getCity().getOffHeapEntries()),
+                        entry -> entry.value().countryId()),
+                properties.getCity().getTtl(),
+                properties.getCity().getRefreshAheadRatio(),
+                id -> repository.findById(id).map(ViewUtility::toView), executor);
+    }
+
+    private LRUCacheCity(final IndexedCache<Integer, Entry<CityView>, Integer> store,
+                         final Duration ttl, final double refreshAheadRatio,
+                         final Function<Integer, Optional<CityView>> loader,
+                         final Executor executor) {
+        super(store, ttl, refreshAheadRatio, loader, executor);
+        this.citiesByCountry = store;
+    }
+
+    /**
+     * Evicts every cached city of the country without loading the
+     * country's cities from the database.
+     */
+    public void removeByCountry(final Integer countryId) {
+        for (Integer cityId : citiesByCountry.keysOf(countryId)) {
+            remove(cityId);
+        }
+    }
+
+    private static BoundedCache<Integer, Entry<CityView>> withOffHeapTier(
+            final BoundedCache<Integer, Entry<CityView>> store,
+            final int offHeapEntries) {
+        return offHeapEntries > 0
+                ? new TieredCache<>(store, new OffHeapCityTier(offHeapEntries))
+                : store;
     }
 
 }
@@ -1,15 +1,30 @@
 package com.example.geodata.cache;
 
-import com.example.geodata.cache.impl.LRUCache;
-import com.example.geodata.entity.Country;
+import com.example.geodata.cache.impl.ExpiringCache;
+import com.example.geodata.config.CacheProperties;
+import com.example.geodata.dto.CountryView;
+import com.example.geodata.repository.CountryRepository;
+import com.example.geodata.service.utility.ViewUtility;
+import java.util.concurrent.Executor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
-public class LRUCacheCountry extends LRUCache<Integer, Country> {
+public class LRUCacheCountry extends ExpiringCache<Integer, CountryView> {
 
-    public LRUCacheCountry(@Value("${LRUCache.capacity}") final int capacity) {
-        super(capacity);
+    public LRUCacheCountry(@Value("${LRUCache.capacity}") final int capacity,
+                           @Value("${LRUCache.concurrencyLevel:16}")
+                           final int concurrencyLevel,
+                           final CacheProperties properties,
+                           final CountryRepository repository,
+                           @Qualifier("cacheRefreshExecutor") final Executor executor) {
+        super(CacheStoreUtility.buildStore(properties.getCountry(), capacity,
+                        concurrencyLevel, EntityWeighers::country),
+                properties.getCountry().getTtl(),
+                properties.getCountry().getRefreshAheadRatio(),
+                id -> repository.findWithCitiesAndLanguagesById(id)
+                        .map(ViewUtility::toView), executor);
     }
 
 }
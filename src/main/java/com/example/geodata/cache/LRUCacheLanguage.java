@@ -1,15 +1,29 @@
 package com.example.geodata.cache;
 
-import com.example.geodata.cache.impl.LRUCache;
-import com.example.geodata.entity.Language;
+import com.example.geodata.cache.impl.ExpiringCache;
+import com.example.geodata.config.CacheProperties;
+import com.example.geodata.dto.LanguageView;
+import com.example.geodata.repository.LanguageRepository;
+import com.example.geodata.service.utility.ViewUtility;
+import java.util.concurrent.Executor;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
 @Component
-public class LRUCacheLanguage extends LRUCache<Integer, Language> {
+public class LRUCacheLanguage extends ExpiringCache<Integer, LanguageView> {
 
-    public LRUCacheLanguage(@Value("${LRUCache.capacity}") final int capacity) {
-        super(capacity);
+    public LRUCacheLanguage(@Value("${LRUCache.capacity}") final int capacity,
+                            @Value("${LRUCache.concurrencyLevel:16}")
+                            final int concurrencyLevel,
+                            final CacheProperties properties,
+                            final LanguageRepository repository,
+                            @Qualifier("cacheRefreshExecutor") final Executor executor) {
+        super(CacheStoreUtility.buildStore(properties.getLanguage(), capacity,
+                        concurrencyLevel, EntityWeighers::language),
+                properties.getLanguage().getTtl(),
+                properties.getLanguage().getRefreshAheadRatio(),
+                id -> repository.findById(id).map(ViewUtility::toView), executor);
     }
 
 }
@@ -0,0 +1,204 @@
+package com.example.geodata.cache;
+
+import com.example.geodata.repository.IdAndName;
+import com.example.geodata.service.utility.TransactionUtility;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+
+/**
+ * In-memory name to id index of one entity, loaded with a single query
+ * before the web server starts and kept current by the services on every
+ * write, so resolving a name is a hash lookup. Names need not be unique:
+ * a name maps to every id carrying it and resolves to the lowest one.
+ * Rows inserted over JDBC, whose ids are not returned, are picked up with
+ * {@link #refresh}. Changes made inside a transaction only reach the index
+ * once it commits.
+ */
+@Slf4j
+public abstract class NameIndex implements SmartLifecycle {
+
+    private static final int REFRESH_CHUNK = 1_000;
+
+    private final String name;
+
+    private final Map<String, List<Integer>> idsByName = new ConcurrentHashMap<>();
+
+    private final Map<Integer, String> namesById = new ConcurrentHashMap<>();
+
+    private volatile boolean running;
+
+    protected NameIndex(final String name) {
+        this.name = name;
+    }
+
+    protected abstract List<IdAndName> loadAll();
+
+    protected abstract List<IdAndName> loadByNames(Collection<String> names);
+
+    public Optional<Integer> idOf(final String entityName) {
+        if (entityName == null) {
+            return Optional.empty();
+        }
+        List<Integer> ids = idsByName.get(entityName);
+        return ids == null ? Optional.empty() : Optional.of(ids.get(0));
+    }
+
+    public Optional<String> nameOf(final Integer id) {
+        return id == null ? Optional.empty()
+                : Optional.ofNullable(namesById.get(id));
+    }
+
+    public boolean contains(final String entityName) {
+        return idOf(entityName).isPresent();
+    }
+
+    /**
+     * Like {@link #idOf}, but a name missing from the index is looked up
+     * in the database, so rows written by another instance are found too.
+     */
+    public Optional<Integer> find(final String entityName) {
+        return Optional.ofNullable(findAll(Collections.singleton(entityName))
+                .get(entityName));
+    }
+
+    /**
+     * {@link #find} for many names, with one query per chunk of names
+     * missing from the index. Names that do not exist are left out.
+     */
+    public Map<String, Integer> findAll(final Collection<String> names) {
+        Map<String, Integer> ids = new HashMap<>();
+        List<String> missing = new ArrayList<>();
+        for (String entityName : distinct(names)) {
+            idOf(entityName).ifPresentOrElse(id -> ids.put(entityName, id),
+                    () -> missing.add(entityName));
+        }
+        List<IdAndName> rows = load(missing);
+        rows.forEach(row -> ids.merge(row.getName(), row.getId(), Math::min));
+        if (!rows.isEmpty()) {
+            TransactionUtility.afterCommit(() -> rows.forEach(this::apply));
+        }
+        return ids;
+    }
+
+    /**
+     * Records that {@code id} is now called {@code entityName}, dropping
+     * the name it had before.
+     */
+    public void put(final Integer id, final String entityName) {
+        if (id != null) {
+            TransactionUtility.afterCommit(() -> apply(id, entityName));
+        }
+    }
+
+    public void remove(final Integer id) {
+        if (id != null) {
+            TransactionUtility.afterCommit(() -> detach(id));
+        }
+    }
+
+    /**
+     * Reads the ids of {@code names} back from the database.
+     */
+    public void refresh(final Collection<String> names) {
+        List<String> distinct = distinct(names);
+        TransactionUtility.afterCommit(() -> load(distinct).forEach(this::apply));
+    }
+
+    public int size() {
+        return namesById.size();
+    }
+
+    @Override
+    public void start() {
+        long start = System.nanoTime();
+        loadAll().forEach(this::apply);
+        running = true;
+        log.info("Loaded {} name index with {} entries in {} ms", name, size(),
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    @Override
+    public int getPhase() {
+        return 0;
+    }
+
+    private void apply(final IdAndName row) {
+        apply(row.getId(), row.getName());
+    }
+
+    private void apply(final Integer id, final String entityName) {
+        String previous = entityName == null
+                ? namesById.remove(id) : namesById.put(id, entityName);
+        if (previous != null && !previous.equals(entityName)) {
+            detach(previous, id);
+        }
+        if (entityName != null) {
+            idsByName.compute(entityName, (key, ids) -> with(ids, id));
+        }
+    }
+
+    private void detach(final Integer id) {
+        String entityName = namesById.remove(id);
+        if (entityName != null) {
+            detach(entityName, id);
+        }
+    }
+
+    private void detach(final String entityName, final Integer id) {
+        idsByName.computeIfPresent(entityName, (key, ids) -> {
+            List<Integer> rest = ids.stream()
+                    .filter(other -> !other.equals(id))
+                    .toList();
+            return rest.isEmpty() ? null : rest;
+        });
+    }
+
+    private List<IdAndName> load(final List<String> names) {
+        List<IdAndName> rows = new ArrayList<>();
+        for (int from = 0; from < names.size(); from += REFRESH_CHUNK) {
+            rows.addAll(loadByNames(names.subList(from,
+                    Math.min(names.size(), from + REFRESH_CHUNK))));
+        }
+        return rows;
+    }
+
+    private static List<String> distinct(final Collection<String> names) {
+        return names.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toList();
+    }
+
+    private static List<Integer> with(final List<Integer> ids, final Integer id) {
+        if (ids == null) {
+            return List.of(id);
+        }
+        if (ids.contains(id)) {
+            return ids;
+        }
+        List<Integer> result = new ArrayList<>(ids);
+        result.add(id);
+        result.sort(null);
+        return List.copyOf(result);
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.example.geodata.cache;
+
+import com.example.geodata.cache.impl.ConcurrentLRUCache;
+import com.example.geodata.cache.impl.ExpiringCache;
+import com.example.geodata.exceptions.ResourceNotFoundException;
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded, short-lived record of ids known to be absent from the
+ * database. Each entry keeps the stackless exception created on the
+ * first miss, so a repeated miss rethrows it without a query.
+ * {@link #invalidateAll()} is O(1): it starts a new generation and
+ * entries of older generations are ignored. A miss is only recorded if
+ * nothing was invalidated since the {@link #stamp} taken before the
+ * database was asked, so a lookup that raced an insert cannot hide the
+ * new row.
+ */
+public class NegativeCache<K> {
+
+    private final Cache<K, Absence> absent;
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public NegativeCache(final int capacity, final int concurrencyLevel,
+                         final Duration ttl) {
+        absent = new ExpiringCache<>(
+                new ConcurrentLRUCache<>(capacity, concurrencyLevel), ttl, 0,
+                key -> Optional.empty(), Runnable::run);
+    }
+
+    public boolean isAbsent(final K key) {
+        return current(key).isPresent();
+    }
+
+    /**
+     * To be taken before querying the database and passed to
+     * {@link #markAbsent}.
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * Records {@code key} as absent and returns the exception to throw,
+     * reusing the one already recorded for it. Nothing is recorded when an
+     * invalidation happened since {@code stamp}; the check is repeated
+     * after the write, since one may land in between.
+     */
+    public ResourceNotFoundException markAbsent(final K key, final String message,
+                                                final long stamp) {
+        Optional<Absence> absence = current(key);
+        if (absence.isPresent()) {
+            return absence.get().exception();
+        }
+        ResourceNotFoundException exception =
+                ResourceNotFoundException.stackless(message);
+        if (invalidations.get() == stamp) {
+            absent.put(key, new Absence(exception, generation.get()));
+            if (invalidations.get() != stamp) {
+                absent.remove(key);
+            }
+        }
+        return exception;
+    }
+
+    /**
+     * The exception recorded for {@code key}, or a new one if none is.
+     */
+    public ResourceNotFoundException notFound(final K key, final String message) {
+        return current(key)
+                .map(Absence::exception)
+                .orElseGet(() -> ResourceNotFoundException.stackless(message));
+    }
+
+    public void invalidate(final K key) {
+        if (key != null) {
+            invalidations.incrementAndGet();
+            absent.remove(key);
+        }
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        generation.incrementAndGet();
+    }
+
+    public CacheStats stats() {
+        return absent.stats();
+    }
+
+    private Optional<Absence> current(final K key) {
+        return absent.get(key)
+                .filter(absence -> absence.generation() == generation.get());
+    }
+
+    private record Absence(ResourceNotFoundException exception, long generation) { }
+
+}
@@ -0,0 +1,17 @@
+package com.example.geodata.cache;
+
+import com.example.geodata.config.CacheProperties;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+@Component
+public class NegativeCacheLanguage extends NegativeCache<Integer> {
+
+    public NegativeCacheLanguage(@Value("${LRUCache.concurrencyLevel:16}")
+                                 final int concurrencyLevel,
+                                 final CacheProperties properties) {
+        super(properties.getNegative().getCapacity(), concurrencyLevel,
+                properties.getNegative().getTtl());
+    }
+
+}
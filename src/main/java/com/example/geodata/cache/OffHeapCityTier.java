@@ -0,0 +1,312 @@
+package com.example.geodata.cache;
+
+import com.example.geodata.cache.impl.ExpiringCache;
+import com.example.geodata.dto.CityView;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Second city tier kept outside the Java heap. Every city takes one
+ * fixed-size slot in a direct {@link ByteBuffer} holding its id, name,
+ * coordinates, country id and write time; the id to slot index is a pair
+ * of primitive arrays with open addressing. A hit rebuilds the
+ * {@link CityView}. Full slots are reused in CLOCK order. Cities whose
+ * name does not fit a slot are not stored.
+ */
+public class OffHeapCityTier implements Cache<Integer, ExpiringCache.Entry<CityView>> {
+
+    static final int SLOT_SIZE = 128;
+
+    private static final int ID = 0;
+
+    private static final int COUNTRY_ID = 4;
+
+    private static final int LATITUDE = 8;
+
+    private static final int LONGITUDE = 16;
+
+    private static final int WRITE_TIME = 24;
+
+    private static final int REFERENCED = 32;
+
+    private static final int NAME_LENGTH = 33;
+
+    private static final int NAME = 35;
+
+    static final int MAX_NAME_BYTES = SLOT_SIZE - NAME;
+
+    private static final int NO_VALUE = Integer.MIN_VALUE;
+
+    private static final int SLOTS_PER_BUFFER_SHIFT = 20;
+
+    private static final int SLOTS_PER_BUFFER = 1 << SLOTS_PER_BUFFER_SHIFT;
+
+    private static final int EMPTY = -1;
+
+    private final int capacity;
+
+    private final ByteBuffer[] buffers;
+
+    private final int[] indexKeys;
+
+    private final int[] indexSlots;
+
+    private final int indexMask;
+
+    private final int[] freeSlots;
+
+    private int freeCount;
+
+    private int allocated;
+
+    private int size;
+
+    private int hand;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private final StatsCounter stats = new StatsCounter();
+
+    public OffHeapCityTier(final int capacity) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("Off-heap capacity must be positive");
+        }
+        this.capacity = capacity;
+        int bufferCount = (capacity + SLOTS_PER_BUFFER - 1) / SLOTS_PER_BUFFER;
+        buffers = new ByteBuffer[bufferCount];
+        for (int i = 0; i < bufferCount; i++) {
+            int slots = Math.min(SLOTS_PER_BUFFER, capacity - i * SLOTS_PER_BUFFER);
+            buffers[i] = ByteBuffer.allocateDirect(slots * SLOT_SIZE);
+        }
+        int indexSize = Integer.highestOneBit(capacity) << 2;
+        indexKeys = new int[indexSize];
+        indexSlots = new int[indexSize];
+        Arrays.fill(indexSlots, EMPTY);
+        indexMask = indexSize - 1;
+        freeSlots = new int[capacity];
+    }
+
+    @Override
+    public Optional<ExpiringCache.Entry<CityView>> get(final Integer key) {
+        lock.readLock().lock();
+        try {
+            int position = find(key);
+            if (position < 0) {
+                stats.recordMiss();
+                return Optional.empty();
+            }
+            stats.recordHit();
+            int slot = indexSlots[position];
+            ByteBuffer buffer = bufferOf(slot);
+            int offset = offsetOf(slot);
+            buffer.put(offset + REFERENCED, (byte) 1);
+            return Optional.of(new ExpiringCache.Entry<>(read(buffer, offset),
+                    buffer.getLong(offset + WRITE_TIME)));
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long weightedSize() {
+        return (long) size() * SLOT_SIZE;
+    }
+
+    @Override
+    public void put(final Integer key, final ExpiringCache.Entry<CityView> entry) {
+        CityView city = entry.value();
+        byte[] name = city.name() == null
+                ? null : city.name().getBytes(StandardCharsets.UTF_8);
+        lock.writeLock().lock();
+        try {
+            int position = find(key);
+            if (name != null && name.length > MAX_NAME_BYTES) {
+                if (position >= 0) {
+                    release(position);
+                }
+                return;
+            }
+            int slot;
+            if (position >= 0) {
+                slot = indexSlots[position];
+            } else {
+                slot = allocate();
+                insert(key, slot);
+            }
+            write(bufferOf(slot), offsetOf(slot), key, city, name,
+                    entry.writeTime());
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(final Integer key) {
+        lock.readLock().lock();
+        try {
+            return find(key) >= 0;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(final Integer key) {
+        lock.writeLock().lock();
+        try {
+            int position = find(key);
+            if (position >= 0) {
+                release(position);
+                stats.recordInvalidation();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public CacheStats stats() {
+        return stats.snapshot();
+    }
+
+    private static CityView read(final ByteBuffer buffer, final int offset) {
+        int countryId = buffer.getInt(offset + COUNTRY_ID);
+        short nameLength = buffer.getShort(offset + NAME_LENGTH);
+        String name = null;
+        if (nameLength >= 0) {
+            byte[] bytes = new byte[nameLength];
+            buffer.get(offset + NAME, bytes);
+            name = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return CityView.builder()
+                .id(buffer.getInt(offset + ID))
+                .name(name)
+                .latitude(toDouble(buffer.getDouble(offset + LATITUDE)))
+                .longitude(toDouble(buffer.getDouble(offset + LONGITUDE)))
+                .countryId(countryId == NO_VALUE ? null : countryId)
+                .build();
+    }
+
+    private static void write(final ByteBuffer buffer, final int offset,
+                              final int key, final CityView city, final byte[] name,
+                              final long writeTime) {
+        buffer.putInt(offset + ID, key);
+        buffer.putInt(offset + COUNTRY_ID, city.countryId() == null
+                ? NO_VALUE : city.countryId());
+        buffer.putDouble(offset + LATITUDE, fromDouble(city.latitude()));
+        buffer.putDouble(offset + LONGITUDE, fromDouble(city.longitude()));
+        buffer.putLong(offset + WRITE_TIME, writeTime);
+        buffer.put(offset + REFERENCED, (byte) 0);
+        if (name == null) {
+            buffer.putShort(offset + NAME_LENGTH, (short) -1);
+        } else {
+            buffer.putShort(offset + NAME_LENGTH, (short) name.length);
+            buffer.put(offset + NAME, name);
+        }
+    }
+
+    private static Double toDouble(final double value) {
+        return Double.isNaN(value) ? null : value;
+    }
+
+    private static double fromDouble(final Double value) {
+        return value == null ? Double.NaN : value;
+    }
+
+    private int allocate() {
+        if (freeCount > 0) {
+            size++;
+            return freeSlots[--freeCount];
+        }
+        if (allocated < capacity) {
+            size++;
+            return allocated++;
+        }
+        while (true) {
+            int slot = hand;
+            hand = hand + 1 == capacity ? 0 : hand + 1;
+            ByteBuffer buffer = bufferOf(slot);
+            int offset = offsetOf(slot);
+            if (buffer.get(offset + REFERENCED) != 0) {
+                buffer.put(offset + REFERENCED, (byte) 0);
+                continue;
+            }
+            unindex(find(buffer.getInt(offset + ID)));
+            stats.recordEviction();
+            return slot;
+        }
+    }
+
+    private void release(final int position) {
+        freeSlots[freeCount++] = indexSlots[position];
+        size--;
+        unindex(position);
+    }
+
+    private int find(final int key) {
+        int position = hash(key) & indexMask;
+        while (indexSlots[position] != EMPTY) {
+            if (indexKeys[position] == key) {
+                return position;
+            }
+            position = (position + 1) & indexMask;
+        }
+        return -1;
+    }
+
+    private void insert(final int key, final int slot) {
+        int position = hash(key) & indexMask;
+        while (indexSlots[position] != EMPTY) {
+            position = (position + 1) & indexMask;
+        }
+        indexKeys[position] = key;
+        indexSlots[position] = slot;
+    }
+
+    /**
+     * Removes an index entry and shifts later entries of the probe
+     * sequence back, so lookups never need tombstones.
+     */
+    private void unindex(final int position) {
+        int hole = position;
+        int next = (hole + 1) & indexMask;
+        while (indexSlots[next] != EMPTY) {
+            int home = hash(indexKeys[next]) & indexMask;
+            if (((next - home) & indexMask) >= ((next - hole) & indexMask)) {
+                indexKeys[hole] = indexKeys[next];
+                indexSlots[hole] = indexSlots[next];
+                hole = next;
+            }
+            next = (next + 1) & indexMask;
+        }
+        indexSlots[hole] = EMPTY;
+    }
+
+    private ByteBuffer bufferOf(final int slot) {
+        return buffers[slot >>> SLOTS_PER_BUFFER_SHIFT];
+    }
+
+    private static int offsetOf(final int slot) {
+        return (slot & (SLOTS_PER_BUFFER - 1)) * SLOT_SIZE;
+    }
+
+    private static int hash(final int key) {
+        int x = key * 0x9e3779b9;
+        return x ^ (x >>> 16);
+    }
+
+}
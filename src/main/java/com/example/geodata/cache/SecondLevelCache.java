@@ -0,0 +1,91 @@
+package com.example.geodata.cache;
+
+import com.example.geodata.entity.Country;
+import com.example.geodata.entity.Language;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.springframework.stereotype.Component;
+
+/**
+ * Hibernate second-level cache, enabled by
+ * {@code geodata.cache.second-level.enabled}. Writes made through Hibernate
+ * keep its regions current on their own; JDBC batches and native SQL do
+ * not, so the invalidator evicts what they change here. Every call is a
+ * no-op while the cache is disabled.
+ */
+@Component
+public class SecondLevelCache {
+
+    private static final String COUNTRY_CITIES =
+            Country.class.getName() + ".cities";
+
+    private static final String COUNTRY_LANGUAGES =
+            Country.class.getName() + ".languages";
+
+    private static final String LANGUAGE_COUNTRIES =
+            Language.class.getName() + ".countries";
+
+    private final SessionFactory sessionFactory;
+
+    public SecondLevelCache(final EntityManagerFactory entityManagerFactory) {
+        this.sessionFactory = entityManagerFactory.unwrap(SessionFactory.class);
+    }
+
+    public void evictCities(final Collection<Integer> countryIds) {
+        countryIds.stream()
+                .filter(Objects::nonNull)
+                .forEach(id -> sessionFactory.getCache()
+                        .evictCollectionData(COUNTRY_CITIES, id));
+    }
+
+    public void evictLanguages(final Collection<Integer> countryIds) {
+        countryIds.stream()
+                .filter(Objects::nonNull)
+                .forEach(id -> sessionFactory.getCache()
+                        .evictCollectionData(COUNTRY_LANGUAGES, id));
+    }
+
+    public void evictCountries(final Collection<Integer> languageIds) {
+        languageIds.stream()
+                .filter(Objects::nonNull)
+                .forEach(id -> sessionFactory.getCache()
+                        .evictCollectionData(LANGUAGE_COUNTRIES, id));
+    }
+
+    /**
+     * Entities of {@code type} rewritten in place by native SQL.
+     */
+    public void evictEntities(final Class<?> type,
+                              final Collection<Integer> ids) {
+        ids.stream()
+                .filter(Objects::nonNull)
+                .forEach(id -> sessionFactory.getCache()
+                        .evictEntityData(type, id));
+    }
+
+    public void evictQueries() {
+        sessionFactory.getCache().evictQueryRegions();
+    }
+
+    /**
+     * Statistics of every region, sorted by name. Counters stay at zero
+     * unless {@code hibernate.generate_statistics} is on, which enabling
+     * the cache does.
+     */
+    public List<CacheRegionStatistics> statistics() {
+        Statistics statistics = sessionFactory.getStatistics();
+        return Arrays.stream(statistics.getSecondLevelCacheRegionNames())
+                .map(statistics::getCacheRegionStatistics)
+                .filter(Objects::nonNull)
+                .sorted(Comparator.comparing(CacheRegionStatistics::getRegionName))
+                .toList();
+    }
+
+}
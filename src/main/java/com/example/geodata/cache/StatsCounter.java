@@ -0,0 +1,49 @@
+package com.example.geodata.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Striped counters behind {@link Cache#stats()}. Recording never blocks,
+ * so it is safe to call from any thread without holding the cache lock.
+ */
+public class StatsCounter {
+
+    private final LongAdder hitCount = new LongAdder();
+
+    private final LongAdder missCount = new LongAdder();
+
+    private final LongAdder loadCount = new LongAdder();
+
+    private final LongAdder totalLoadTime = new LongAdder();
+
+    private final LongAdder evictionCount = new LongAdder();
+
+    private final LongAdder invalidationCount = new LongAdder();
+
+    public void recordHit() {
+        hitCount.increment();
+    }
+
+    public void recordMiss() {
+        missCount.increment();
+    }
+
+    public void recordLoad(final long loadTime) {
+        loadCount.increment();
+        totalLoadTime.add(loadTime);
+    }
+
+    public void recordEviction() {
+        evictionCount.increment();
+    }
+
+    public void recordInvalidation() {
+        invalidationCount.increment();
+    }
+
+    public CacheStats snapshot() {
+        return new CacheStats(hitCount.sum(), missCount.sum(), loadCount.sum(),
+                totalLoadTime.sum(), evictionCount.sum(), invalidationCount.sum());
+    }
+
+}
@@ -0,0 +1,286 @@
+package com.example.geodata.cache.impl;
+
+import com.example.geodata.cache.BoundedCache;
+import com.example.geodata.cache.CacheStats;
+import com.example.geodata.cache.Weigher;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongFunction;
+
+/**
+ * Thread-safe cache striped over independently locked segments.
+ * A key always maps to the same segment, so threads touching different
+ * segments never contend. Each segment evicts on its own, which makes
+ * recency approximate across the whole cache.
+ */
+public class ConcurrentLRUCache<K, V> implements BoundedCache<K, V> {
+
+    private static final int MIN_SEGMENT_CAPACITY = 8;
+
+    private final Segment<K, V>[] segments;
+
+    private final int segmentMask;
+
+    public ConcurrentLRUCache(final int maxSize, final int concurrencyLevel) {
+        this(maxSize, concurrencyLevel,
+                weight -> new LRUCache<>(weight, Weigher.singleton()));
+    }
+
+    @SuppressWarnings("unchecked")
+    public ConcurrentLRUCache(final long maximumWeight, final int concurrencyLevel,
+                              final LongFunction<BoundedCache<K, V>> segmentFactory) {
+        int segmentCount = segmentCount(maximumWeight, concurrencyLevel);
+        segments = new Segment[segmentCount];
+        segmentMask = segmentCount - 1;
+        for (int i = 0; i < segmentCount; i++) {
+            segments[i] = new Segment<>(segmentFactory
+                    .apply(segmentWeight(maximumWeight, i)));
+        }
+    }
+
+    @Override
+    public Optional<V> get(final K key) {
+        return Optional.ofNullable(getIfPresent(key));
+    }
+
+    @Override
+    public V getIfPresent(final K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            return segment.cache.getIfPresent(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    /**
+     * Locks each segment once for all of its keys.
+     */
+    @Override
+    public Map<K, V> getAll(final Collection<K> keys) {
+        List<List<K>> bySegment = groupBySegment(keys);
+        Map<K, V> found = new LinkedHashMap<>();
+        for (int i = 0; i < segments.length; i++) {
+            List<K> segmentKeys = bySegment.get(i);
+            if (segmentKeys.isEmpty()) {
+                continue;
+            }
+            Segment<K, V> segment = segments[i];
+            segment.lock.lock();
+            try {
+                for (K key : segmentKeys) {
+                    segment.cache.get(key).ifPresent(value -> found.put(key, value));
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        Map<K, V> ordered = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = found.get(key);
+            if (value != null) {
+                ordered.put(key, value);
+            }
+        }
+        return ordered;
+    }
+
+    @Override
+    public void putAll(final Map<K, V> entries) {
+        List<List<K>> bySegment = groupBySegment(entries.keySet());
+        for (int i = 0; i < segments.length; i++) {
+            List<K> segmentKeys = bySegment.get(i);
+            if (segmentKeys.isEmpty()) {
+                continue;
+            }
+            Segment<K, V> segment = segments[i];
+            segment.lock.lock();
+            try {
+                for (K key : segmentKeys) {
+                    segment.cache.put(key, entries.get(key));
+                }
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                size += segment.cache.size();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public long weightedSize() {
+        long weightedSize = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                weightedSize += segment.cache.weightedSize();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return weightedSize;
+    }
+
+    @Override
+    public long maximumWeight() {
+        long maximumWeight = 0;
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                maximumWeight += segment.cache.maximumWeight();
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        return maximumWeight;
+    }
+
+    @Override
+    public void setMaximumWeight(final long maximumWeight) {
+        for (int i = 0; i < segments.length; i++) {
+            Segment<K, V> segment = segments[i];
+            segment.lock.lock();
+            try {
+                segment.cache.setMaximumWeight(segmentWeight(maximumWeight, i));
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+    }
+
+    @Override
+    public CacheStats stats() {
+        CacheStats stats = CacheStats.EMPTY;
+        for (Segment<K, V> segment : segments) {
+            stats = stats.plus(segment.cache.stats());
+        }
+        return stats;
+    }
+
+    /**
+     * Segments keep their own recency, so their lists are interleaved
+     * rank by rank.
+     */
+    @Override
+    public List<K> hotKeys(final int limit) {
+        List<List<K>> perSegment = new ArrayList<>(segments.length);
+        for (Segment<K, V> segment : segments) {
+            segment.lock.lock();
+            try {
+                perSegment.add(segment.cache.hotKeys(limit));
+            } finally {
+                segment.lock.unlock();
+            }
+        }
+        List<K> keys = new ArrayList<>();
+        for (int rank = 0; keys.size() < limit; rank++) {
+            boolean found = false;
+            for (List<K> segmentKeys : perSegment) {
+                if (rank < segmentKeys.size() && keys.size() < limit) {
+                    keys.add(segmentKeys.get(rank));
+                    found = true;
+                }
+            }
+            if (!found) {
+                break;
+            }
+        }
+        return keys;
+    }
+
+    @Override
+    public void put(final K key, final V value) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.cache.put(key, value);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean containsKey(final K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            return segment.cache.containsKey(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    @Override
+    public void remove(final K key) {
+        Segment<K, V> segment = segmentFor(key);
+        segment.lock.lock();
+        try {
+            segment.cache.remove(key);
+        } finally {
+            segment.lock.unlock();
+        }
+    }
+
+    private Segment<K, V> segmentFor(final K key) {
+        return segments[segmentIndex(key)];
+    }
+
+    private int segmentIndex(final K key) {
+        int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & segmentMask;
+    }
+
+    private List<List<K>> groupBySegment(final Collection<K> keys) {
+        List<List<K>> bySegment = new ArrayList<>(segments.length);
+        for (int i = 0; i < segments.length; i++) {
+            bySegment.add(new ArrayList<>());
+        }
+        for (K key : keys) {
+            bySegment.get(segmentIndex(key)).add(key);
+        }
+        return bySegment;
+    }
+
+    private long segmentWeight(final long maximumWeight, final int segment) {
+        return maximumWeight / segments.length
+                + (segment < maximumWeight % segments.length ? 1 : 0);
+    }
+
+    private static int segmentCount(final long maximumWeight,
+                                    final int concurrencyLevel) {
+        long limit = Math.max(1, Math.min(concurrencyLevel,
+                maximumWeight / MIN_SEGMENT_CAPACITY));
+        return Integer.highestOneBit((int) limit);
+    }
+
+    private static final class Segment<K, V> {
+
+        private final ReentrantLock lock = new ReentrantLock();
+
+        private final BoundedCache<K, V> cache;
+
+        private Segment(final BoundedCache<K, V> cache) {
+            this.cache = cache;
+        }
+
+    }
+
+}
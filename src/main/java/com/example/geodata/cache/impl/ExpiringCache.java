@@ -0,0 +1,341 @@
+package com.example.geodata.cache.impl;
+
+import com.example.geodata.cache.BoundedCache;
+import com.example.geodata.cache.CacheStats;
+import com.example.geodata.cache.StatsCounter;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Adds time-to-live and refresh-ahead on top of another cache.
+ * An entry older than the TTL is dropped on read. With refresh-ahead
+ * enabled, a read of an entry past {@code refreshAheadRatio * ttl}
+ * reloads it on the executor while the current value keeps being served,
+ * so keys that are read often never reach their expiry.
+ * Hits and misses are counted here, an expired entry counting as a miss
+ * and an eviction; refresh loads are timed.
+ * {@link #getOrLoad} is single-flight: concurrent misses on one key wait
+ * for the same load instead of each querying the database.
+ */
+@Slf4j
+public class ExpiringCache<K, V> implements BoundedCache<K, V> {
+
+    private final BoundedCache<K, Entry<V>> store;
+
+    private final long ttlNanos;
+
+    private final long refreshAfterNanos;
+
+    private final Function<K, Optional<V>> loader;
+
+    private final Executor executor;
+
+    private final LongSupplier ticker;
+
+    private final Map<K, Entry<V>> refreshing = new ConcurrentHashMap<>();
+
+    private final Map<K, CompletableFuture<Optional<V>>> loading =
+            new ConcurrentHashMap<>();
+
+    private final StatsCounter stats = new StatsCounter();
+
+    public ExpiringCache(final BoundedCache<K, Entry<V>> store, final Duration ttl,
+                         final double refreshAheadRatio,
+                         final Function<K, Optional<V>> loader,
+                         final Executor executor) {
+        this(store, ttl, refreshAheadRatio, loader, executor, System::nanoTime);
+    }
+
+    public ExpiringCache(final BoundedCache<K, Entry<V>> store, final Duration ttl,
+                         final double refreshAheadRatio,
+                         final Function<K, Optional<V>> loader,
+                         final Executor executor, final LongSupplier ticker) {
+        this.store = store;
+        this.ttlNanos = ttl == null || ttl.isZero() || ttl.isNegative()
+                ? Long.MAX_VALUE : ttl.toNanos();
+        this.refreshAfterNanos = refreshAheadRatio > 0 && refreshAheadRatio < 1
+                && ttlNanos != Long.MAX_VALUE
+                ? (long) (ttlNanos * refreshAheadRatio) : Long.MAX_VALUE;
+        this.loader = loader;
+        this.executor = executor;
+        this.ticker = ticker;
+    }
+
+    @Override
+    public Optional<V> get(final K key) {
+        return Optional.ofNullable(getIfPresent(key));
+    }
+
+    @Override
+    public V getIfPresent(final K key) {
+        Entry<V> entry = store.getIfPresent(key);
+        if (entry == null) {
+            stats.recordMiss();
+            return null;
+        }
+        return unwrap(key, entry, ticker.getAsLong());
+    }
+
+    /**
+     * A hit allocates only the returned {@code Optional}; use
+     * {@link #getIfPresent} where that matters.
+     */
+    @Override
+    public Optional<V> getOrLoad(final K key,
+                                 final Function<K, Optional<V>> keyLoader) {
+        V cached = getIfPresent(key);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        CompletableFuture<Optional<V>> load = new CompletableFuture<>();
+        CompletableFuture<Optional<V>> inFlight = loading.putIfAbsent(key, load);
+        if (inFlight != null) {
+            return await(inFlight);
+        }
+        try {
+            Optional<Entry<V>> loadedMeanwhile = store.get(key).filter(
+                    entry -> ticker.getAsLong() - entry.writeTime() < ttlNanos);
+            if (loadedMeanwhile.isPresent()) {
+                Optional<V> value = Optional.of(loadedMeanwhile.get().value());
+                load.complete(value);
+                return value;
+            }
+            long start = ticker.getAsLong();
+            Optional<V> loaded = keyLoader.apply(key);
+            stats.recordLoad(ticker.getAsLong() - start);
+            loading.computeIfPresent(key, (k, current) -> {
+                if (current == load) {
+                    loaded.ifPresent(value -> store.put(k,
+                            new Entry<>(value, ticker.getAsLong())));
+                }
+                return current;
+            });
+            load.complete(loaded);
+            return loaded;
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(key, load);
+        }
+    }
+
+    @Override
+    public Map<K, V> getAll(final Collection<K> keys) {
+        Map<K, Entry<V>> entries = store.getAll(keys);
+        long now = ticker.getAsLong();
+        Map<K, V> found = new LinkedHashMap<>();
+        entries.forEach((key, entry) -> {
+            V value = unwrap(key, entry, now);
+            if (value != null) {
+                found.put(key, value);
+            }
+        });
+        for (int i = entries.size(); i < keys.size(); i++) {
+            stats.recordMiss();
+        }
+        return found;
+    }
+
+    /**
+     * Registers a load for every missing key, like {@link #getOrLoad}, so
+     * single-key loads of those keys wait for this one, and a key
+     * invalidated while the loader runs is returned but not cached.
+     */
+    @Override
+    public Map<K, V> getAll(final Collection<K> keys,
+                            final Function<Set<K>, Map<K, V>> bulkLoader) {
+        Map<K, V> found = getAll(keys);
+        Set<K> missing = new LinkedHashSet<>(keys);
+        missing.removeAll(found.keySet());
+        if (missing.isEmpty()) {
+            return found;
+        }
+        Map<K, CompletableFuture<Optional<V>>> loads = new HashMap<>();
+        for (K key : missing) {
+            CompletableFuture<Optional<V>> load = new CompletableFuture<>();
+            if (loading.putIfAbsent(key, load) == null) {
+                loads.put(key, load);
+            }
+        }
+        Map<K, V> loaded;
+        try {
+            long start = ticker.getAsLong();
+            loaded = bulkLoader.apply(missing);
+            stats.recordLoad(ticker.getAsLong() - start);
+            long now = ticker.getAsLong();
+            loads.forEach((key, load) -> {
+                V value = loaded.get(key);
+                loading.computeIfPresent(key, (k, current) -> {
+                    if (current == load && value != null) {
+                        store.put(k, new Entry<>(value, now));
+                    }
+                    return current;
+                });
+                load.complete(Optional.ofNullable(value));
+            });
+        } catch (RuntimeException e) {
+            loads.values().forEach(load -> load.completeExceptionally(e));
+            throw e;
+        } finally {
+            loads.forEach(loading::remove);
+        }
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = found.containsKey(key) ? found.get(key) : loaded.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public int size() {
+        return store.size();
+    }
+
+    @Override
+    public long weightedSize() {
+        return store.weightedSize();
+    }
+
+    @Override
+    public long maximumWeight() {
+        return store.maximumWeight();
+    }
+
+    @Override
+    public void setMaximumWeight(final long maximumWeight) {
+        store.setMaximumWeight(maximumWeight);
+    }
+
+    @Override
+    public void put(final K key, final V value) {
+        refreshing.remove(key);
+        loading.remove(key);
+        store.put(key, new Entry<>(value, ticker.getAsLong()));
+    }
+
+    @Override
+    public void putAll(final Map<K, V> entries) {
+        long now = ticker.getAsLong();
+        Map<K, Entry<V>> wrapped = new LinkedHashMap<>();
+        entries.forEach((key, value) -> {
+            refreshing.remove(key);
+            loading.remove(key);
+            wrapped.put(key, new Entry<>(value, now));
+        });
+        store.putAll(wrapped);
+    }
+
+    @Override
+    public boolean containsKey(final K key) {
+        return store.get(key)
+                .filter(entry -> ticker.getAsLong() - entry.writeTime() < ttlNanos)
+                .isPresent();
+    }
+
+    @Override
+    public void remove(final K key) {
+        refreshing.remove(key);
+        loading.remove(key);
+        if (store.containsKey(key)) {
+            store.remove(key);
+            stats.recordInvalidation();
+        }
+    }
+
+    @Override
+    public List<K> hotKeys(final int limit) {
+        return store.hotKeys(limit);
+    }
+
+    @Override
+    public CacheStats stats() {
+        CacheStats own = stats.snapshot();
+        return own.toBuilder()
+                .evictionCount(own.evictionCount() + store.stats().evictionCount())
+                .build();
+    }
+
+    private Optional<V> await(final CompletableFuture<Optional<V>> load) {
+        try {
+            return load.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+
+    private V unwrap(final K key, final Entry<V> entry, final long now) {
+        long age = now - entry.writeTime();
+        if (age >= ttlNanos) {
+            refreshing.remove(key);
+            store.remove(key);
+            stats.recordMiss();
+            stats.recordEviction();
+            return null;
+        }
+        stats.recordHit();
+        if (age >= refreshAfterNanos) {
+            refreshAsync(key, entry);
+        }
+        return entry.value();
+    }
+
+    private void refreshAsync(final K key, final Entry<V> entry) {
+        if (refreshing.putIfAbsent(key, entry) != null) {
+            return;
+        }
+        try {
+            executor.execute(() -> refresh(key, entry));
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key, entry);
+        }
+    }
+
+    private void refresh(final K key, final Entry<V> entry) {
+        Optional<V> loaded;
+        long start = ticker.getAsLong();
+        try {
+            loaded = loader.apply(key);
+            stats.recordLoad(ticker.getAsLong() - start);
+        } catch (RuntimeException e) {
+            log.warn("Refresh of key {} failed: {}", key, e.getMessage());
+            refreshing.remove(key, entry);
+            return;
+        }
+        refreshing.computeIfPresent(key, (k, current) -> {
+            if (current != entry) {
+                return current;
+            }
+            if (loaded.isPresent()) {
+                store.put(k, new Entry<>(loaded.get(), ticker.getAsLong()));
+            } else {
+                store.remove(k);
+            }
+            return null;
+        });
+    }
+
+    public record Entry<V>(V value, long writeTime) { }
+
+}
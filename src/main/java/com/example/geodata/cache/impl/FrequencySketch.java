@@ -0,0 +1,102 @@
+package com.example.geodata.cache.impl;
+
+/**
+ * Count-min sketch of 4-bit counters used as the TinyLFU admission filter.
+ * Four counters per key are spread over a table of longs; the estimate is
+ * the smallest of them. Once the number of recorded accesses reaches ten
+ * times the cache size every counter is halved, so old popularity fades.
+ */
+public class FrequencySketch<K> {
+
+    private static final long[] SEEDS = {
+        0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+        0x9ae16a3b2f90404fL, 0xcbf29ce484222325L};
+
+    private static final long RESET_MASK = 0x7777777777777777L;
+
+    private static final int MAX_COUNT = 15;
+
+    private static final int MAX_TABLE_SIZE = 1 << 24;
+
+    private long[] table;
+
+    private int tableMask;
+
+    private int sampleLimit;
+
+    private int sampleSize;
+
+    public FrequencySketch(final int maxSize) {
+        ensureCapacity(maxSize);
+    }
+
+    /**
+     * Grows the table to fit {@code maxSize} keys. Growing drops the
+     * counts recorded so far.
+     */
+    public void ensureCapacity(final int maxSize) {
+        int size = Math.min(MAX_TABLE_SIZE,
+                Math.max(8, Integer.highestOneBit(Math.max(1, maxSize) - 1) << 1));
+        if (table != null && table.length >= size) {
+            return;
+        }
+        table = new long[size];
+        tableMask = size - 1;
+        sampleLimit = 10 * size;
+        sampleSize = 0;
+    }
+
+    public int frequency(final K key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < 4; i++) {
+            int index = indexOf(hash, i);
+            int count = (int) ((table[index] >>> ((start + i) << 2)) & 0xfL);
+            frequency = Math.min(frequency, count);
+        }
+        return frequency;
+    }
+
+    public void increment(final K key) {
+        int hash = spread(key.hashCode());
+        int start = (hash & 3) << 2;
+        boolean added = false;
+        for (int i = 0; i < 4; i++) {
+            added |= incrementAt(indexOf(hash, i), start + i);
+        }
+        if (added && ++sampleSize == sampleLimit) {
+            reset();
+        }
+    }
+
+    private boolean incrementAt(final int index, final int counter) {
+        int offset = counter << 2;
+        long mask = 0xfL << offset;
+        if ((table[index] & mask) != mask) {
+            table[index] += 1L << offset;
+            return true;
+        }
+        return false;
+    }
+
+    private void reset() {
+        for (int i = 0; i < table.length; i++) {
+            table[i] = (table[i] >>> 1) & RESET_MASK;
+        }
+        sampleSize /= 2;
+    }
+
+    private int indexOf(final int item, final int i) {
+        long hash = (item + SEEDS[i]) * SEEDS[i];
+        hash += hash >>> 32;
+        return ((int) hash) & tableMask;
+    }
+
+    private static int spread(final int hashCode) {
+        int x = ((hashCode >>> 16) ^ hashCode) * 0x45d9f3b;
+        x = ((x >>> 16) ^ x) * 0x45d9f3b;
+        return (x >>> 16) ^ x;
+    }
+
+}
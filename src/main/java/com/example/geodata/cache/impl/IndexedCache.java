@@ -0,0 +1,182 @@
+package com.example.geodata.cache.impl;
+
+import com.example.geodata.cache.BoundedCache;
+import com.example.geodata.cache.CacheStats;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
+
+/**
+ * Keeps a secondary index from a group, derived from each value, to the
+ * keys cached under it, so all entries of a group can be found without
+ * asking the database. Puts and removes keep the index exact: each one
+ * changes the wrapped cache and the index of its key under the key's
+ * entry in {@code groups}, so racing writes of a key cannot leave a
+ * cached value out of the index. Entries the
+ * wrapped cache evicts on its own are not reported, so their keys linger
+ * until the index has doubled since the last sweep, which drops every key
+ * the cache no longer holds.
+ */
+public class IndexedCache<K, V, G> implements BoundedCache<K, V> {
+
+    private static final int MIN_SWEEP_SIZE = 1 << 10;
+
+    private final BoundedCache<K, V> delegate;
+
+    private final Function<V, G> grouping;
+
+    private final Map<K, G> groups = new ConcurrentHashMap<>();
+
+    private final Map<G, Set<K>> members = new ConcurrentHashMap<>();
+
+    private final AtomicBoolean sweeping = new AtomicBoolean();
+
+    private volatile int sweepThreshold = MIN_SWEEP_SIZE;
+
+    public IndexedCache(final BoundedCache<K, V> delegate, final Function<V, G> grouping) {
+        this.delegate = delegate;
+        this.grouping = grouping;
+    }
+
+    /**
+     * Keys indexed under {@code group}. May include keys the wrapped
+     * cache has already evicted.
+     */
+    public Set<K> keysOf(final G group) {
+        Set<K> keys = members.get(group);
+        return keys == null ? Set.of() : Set.copyOf(keys);
+    }
+
+    @Override
+    public Optional<V> get(final K key) {
+        return delegate.get(key);
+    }
+
+    @Override
+    public V getIfPresent(final K key) {
+        return delegate.getIfPresent(key);
+    }
+
+    @Override
+    public Map<K, V> getAll(final Collection<K> keys) {
+        return delegate.getAll(keys);
+    }
+
+    @Override
+    public int size() {
+        return delegate.size();
+    }
+
+    @Override
+    public void put(final K key, final V value) {
+        store(key, value);
+        sweepIfGrown();
+    }
+
+    /**
+     * One {@link #put} per entry, since only a single key can be written
+     * atomically with its index entry.
+     */
+    @Override
+    public void putAll(final Map<K, V> entries) {
+        entries.forEach(this::store);
+        sweepIfGrown();
+    }
+
+    @Override
+    public boolean containsKey(final K key) {
+        return delegate.containsKey(key);
+    }
+
+    @Override
+    public void remove(final K key) {
+        groups.compute(key, (k, group) -> {
+            delegate.remove(k);
+            if (group != null) {
+                detach(group, k);
+            }
+            return null;
+        });
+    }
+
+    @Override
+    public long weightedSize() {
+        return delegate.weightedSize();
+    }
+
+    @Override
+    public long maximumWeight() {
+        return delegate.maximumWeight();
+    }
+
+    @Override
+    public void setMaximumWeight(final long maximumWeight) {
+        delegate.setMaximumWeight(maximumWeight);
+    }
+
+    @Override
+    public CacheStats stats() {
+        return delegate.stats();
+    }
+
+    @Override
+    public List<K> hotKeys(final int limit) {
+        return delegate.hotKeys(limit);
+    }
+
+    int indexedKeys() {
+        return groups.size();
+    }
+
+    private void store(final K key, final V value) {
+        G group = grouping.apply(value);
+        groups.compute(key, (k, previous) -> {
+            delegate.put(k, value);
+            if (previous != null && !previous.equals(group)) {
+                detach(previous, k);
+            }
+            if (group != null) {
+                members.compute(group, (g, keys) -> {
+                    Set<K> result = keys == null
+                            ? ConcurrentHashMap.newKeySet() : keys;
+                    result.add(k);
+                    return result;
+                });
+            }
+            return group;
+        });
+    }
+
+    private void detach(final G group, final K key) {
+        members.computeIfPresent(group, (g, keys) -> {
+            keys.remove(key);
+            return keys.isEmpty() ? null : keys;
+        });
+    }
+
+    private void sweepIfGrown() {
+        if (groups.size() <= sweepThreshold || !sweeping.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            for (K key : groups.keySet()) {
+                groups.computeIfPresent(key, (k, group) -> {
+                    if (delegate.containsKey(k)) {
+                        return group;
+                    }
+                    detach(group, k);
+                    return null;
+                });
+            }
+            sweepThreshold = Math.max(MIN_SWEEP_SIZE, groups.size() * 2);
+        } finally {
+            sweeping.set(false);
+        }
+    }
+
+}
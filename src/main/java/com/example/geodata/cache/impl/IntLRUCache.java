@@ -0,0 +1,316 @@
+package com.example.geodata.cache.impl;
+
+import com.example.geodata.cache.BoundedCache;
+import com.example.geodata.cache.CacheStats;
+import com.example.geodata.cache.StatsCounter;
+import com.example.geodata.cache.Weigher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * LRU cache specialised for {@code int} keys. Entries live in parallel
+ * arrays (key, value, weight and the recency links) and are found through
+ * an open-addressing table of entry indexes with linear probing, so
+ * {@link #getIfPresent(int)} neither boxes the key nor allocates. Removed
+ * buckets are closed by shifting the probe chain back instead of leaving
+ * tombstones. The arrays grow by doubling and are never shrunk.
+ */
+public class IntLRUCache<V> implements BoundedCache<Integer, V> {
+
+    private static final int NONE = -1;
+
+    private static final int INITIAL_CAPACITY = 16;
+
+    private long maximumWeight;
+
+    private long weightedSize;
+
+    private int size;
+
+    private final Weigher<Integer, V> weigher;
+
+    /**
+     * Entry index plus one per bucket, 0 for an empty bucket. Kept at
+     * twice the entry capacity, so it is never more than half full.
+     */
+    private int[] table;
+
+    private int[] keys;
+
+    private Object[] values;
+
+    private int[] weights;
+
+    private int[] prev;
+
+    private int[] next;
+
+    private int head = NONE;
+
+    private int tail = NONE;
+
+    /**
+     * Indexes of removed entries, chained through {@link #next}.
+     */
+    private int free = NONE;
+
+    private int allocated;
+
+    private final StatsCounter stats = new StatsCounter();
+
+    public IntLRUCache(final int maxSize) {
+        this(maxSize, Weigher.singleton());
+    }
+
+    public IntLRUCache(final long maximumWeight, final Weigher<Integer, V> weigher) {
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+        allocate(INITIAL_CAPACITY);
+    }
+
+    /**
+     * The value of {@code key} or null, marking it most recently used.
+     */
+    @SuppressWarnings("unchecked")
+    public V getIfPresent(final int key) {
+        int index = indexOf(key);
+        if (index == NONE) {
+            stats.recordMiss();
+            return null;
+        }
+        stats.recordHit();
+        moveToHead(index);
+        return (V) values[index];
+    }
+
+    /**
+     * Unboxes the id and looks it up like {@link #getIfPresent(int)}; this
+     * is the lookup the entity caches reach through their wrappers.
+     */
+    @Override
+    public V getIfPresent(final Integer key) {
+        return getIfPresent(key.intValue());
+    }
+
+    @Override
+    public Optional<V> get(final Integer key) {
+        return Optional.ofNullable(getIfPresent(key.intValue()));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public long weightedSize() {
+        return weightedSize;
+    }
+
+    @Override
+    public long maximumWeight() {
+        return maximumWeight;
+    }
+
+    @Override
+    public void setMaximumWeight(final long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+        ensureCapacity();
+    }
+
+    /**
+     * Like {@link LRUCache#put}, rejects an entry heavier than the whole
+     * cache along with any stale value under its key.
+     */
+    @Override
+    public void put(final Integer key, final V value) {
+        final int weight = weigher.weigh(key, value);
+        int index = indexOf(key);
+        if (weight > maximumWeight) {
+            if (index != NONE) {
+                removeEntry(index);
+            }
+            stats.recordEviction();
+            return;
+        }
+        if (index != NONE) {
+            weightedSize += weight - weights[index];
+            values[index] = value;
+            weights[index] = weight;
+            moveToHead(index);
+        } else {
+            index = newEntry();
+            keys[index] = key;
+            values[index] = value;
+            weights[index] = weight;
+            insertBucket(index);
+            linkFirst(index);
+            size++;
+            weightedSize += weight;
+        }
+        ensureCapacity();
+    }
+
+    @Override
+    public boolean containsKey(final Integer key) {
+        return indexOf(key) != NONE;
+    }
+
+    @Override
+    public void remove(final Integer key) {
+        int index = indexOf(key);
+        if (index != NONE) {
+            removeEntry(index);
+            stats.recordInvalidation();
+        }
+    }
+
+    @Override
+    public List<Integer> hotKeys(final int limit) {
+        List<Integer> hot = new ArrayList<>(Math.min(limit, size));
+        for (int index = head; index != NONE && hot.size() < limit;
+                index = next[index]) {
+            hot.add(keys[index]);
+        }
+        return hot;
+    }
+
+    @Override
+    public CacheStats stats() {
+        return stats.snapshot();
+    }
+
+    private void ensureCapacity() {
+        while (weightedSize > maximumWeight && tail != NONE) {
+            removeEntry(tail);
+            stats.recordEviction();
+        }
+    }
+
+    private int indexOf(final int key) {
+        int mask = table.length - 1;
+        for (int bucket = bucketOf(key, mask); table[bucket] != 0;
+                bucket = (bucket + 1) & mask) {
+            int index = table[bucket] - 1;
+            if (keys[index] == key) {
+                return index;
+            }
+        }
+        return NONE;
+    }
+
+    private int newEntry() {
+        if (free != NONE) {
+            int index = free;
+            free = next[index];
+            return index;
+        }
+        if (allocated == keys.length) {
+            allocate(keys.length * 2);
+        }
+        return allocated++;
+    }
+
+    private void removeEntry(final int index) {
+        removeBucket(keys[index]);
+        unlink(index);
+        values[index] = null;
+        weightedSize -= weights[index];
+        size--;
+        next[index] = free;
+        free = index;
+    }
+
+    private void insertBucket(final int index) {
+        int mask = table.length - 1;
+        int bucket = bucketOf(keys[index], mask);
+        while (table[bucket] != 0) {
+            bucket = (bucket + 1) & mask;
+        }
+        table[bucket] = index + 1;
+    }
+
+    /**
+     * Empties the bucket of {@code key} and moves later entries of the
+     * probe chain into the hole when that keeps them reachable from their
+     * home bucket.
+     */
+    private void removeBucket(final int key) {
+        int mask = table.length - 1;
+        int hole = bucketOf(key, mask);
+        while (keys[table[hole] - 1] != key) {
+            hole = (hole + 1) & mask;
+        }
+        for (int bucket = (hole + 1) & mask; table[bucket] != 0;
+                bucket = (bucket + 1) & mask) {
+            int home = bucketOf(keys[table[bucket] - 1], mask);
+            if (((bucket - home) & mask) >= ((bucket - hole) & mask)) {
+                table[hole] = table[bucket];
+                hole = bucket;
+            }
+        }
+        table[hole] = 0;
+    }
+
+    private void allocate(final int capacity) {
+        if (keys == null) {
+            keys = new int[capacity];
+            values = new Object[capacity];
+            weights = new int[capacity];
+            prev = new int[capacity];
+            next = new int[capacity];
+        } else {
+            keys = Arrays.copyOf(keys, capacity);
+            values = Arrays.copyOf(values, capacity);
+            weights = Arrays.copyOf(weights, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+            next = Arrays.copyOf(next, capacity);
+        }
+        table = new int[capacity * 2];
+        for (int index = head; index != NONE; index = next[index]) {
+            insertBucket(index);
+        }
+    }
+
+    private void moveToHead(final int index) {
+        if (index != head) {
+            unlink(index);
+            linkFirst(index);
+        }
+    }
+
+    private void linkFirst(final int index) {
+        prev[index] = NONE;
+        next[index] = head;
+        if (head != NONE) {
+            prev[head] = index;
+        }
+        head = index;
+        if (tail == NONE) {
+            tail = index;
+        }
+    }
+
+    private void unlink(final int index) {
+        if (prev[index] != NONE) {
+            next[prev[index]] = next[index];
+        } else {
+            head = next[index];
+        }
+        if (next[index] != NONE) {
+            prev[next[index]] = prev[index];
+        } else {
+            tail = prev[index];
+        }
+        prev[index] = NONE;
+        next[index] = NONE;
+    }
+
+    private static int bucketOf(final int key, final int mask) {
+        int hash = key * 0x9E3779B9;
+        return (hash ^ (hash >>> 16)) & mask;
+    }
+
+}
@@ -1,61 +1,108 @@
 package com.example.geodata.cache.impl;
 
-import com.example.geodata.aspects.AspectAnnotation;
-import com.example.geodata.cache.Cache;
+import com.example.geodata.cache.BoundedCache;
+import com.example.geodata.cache.CacheStats;
+import com.example.geodata.cache.StatsCounter;
+import com.example.geodata.cache.Weigher;
+import java.util.ArrayList;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
-import lombok.Getter;
 
-public class LRUCache<K, V> implements Cache<K, V> {
+public class LRUCache<K, V> implements BoundedCache<K, V> {
 
-    private final int capacity;
+    private long maximumWeight;
 
-    @Getter
-    private HashMap<K, Node<K, V>> hashMap;
+    private long weightedSize;
 
-    @Getter
-    private LinkedList<Node<K, V>> linkedList;
+    private final Weigher<K, V> weigher;
+
+    private final Map<K, Node<K, V>> hashMap;
+
+    private Node<K, V> head;
+
+    private Node<K, V> tail;
+
+    private final StatsCounter stats = new StatsCounter();
 
     public LRUCache(final int maxSize) {
-        this.capacity = maxSize;
+        this(maxSize, Weigher.singleton());
+    }
+
+    public LRUCache(final long maximumWeight, final Weigher<K, V> weigher) {
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
         hashMap = new HashMap<>();
-        linkedList = new LinkedList<>();
     }
 
     @Override
-    @AspectAnnotation
     public Optional<V> get(final K key) {
-        Optional<V> result = Optional.empty();
-        if (containsKey(key)) {
-            final Node<K, V> node = hashMap.get(key);
-            result = Optional.of(node.value);
-            linkedList.remove(node);
-            linkedList.addFirst(node);
+        return Optional.ofNullable(getIfPresent(key));
+    }
+
+    @Override
+    public V getIfPresent(final K key) {
+        final Node<K, V> node = hashMap.get(key);
+        if (node == null) {
+            stats.recordMiss();
+            return null;
         }
-        return result;
+        stats.recordHit();
+        moveToHead(node);
+        return node.value;
     }
 
     @Override
     public int size() {
-        return linkedList.size();
+        return hashMap.size();
+    }
+
+    @Override
+    public long weightedSize() {
+        return weightedSize;
+    }
+
+    @Override
+    public long maximumWeight() {
+        return maximumWeight;
     }
 
     @Override
-    @AspectAnnotation
+    public void setMaximumWeight(final long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+        ensureCapacity();
+    }
+
+    /**
+     * An entry heavier than the whole cache is rejected up front, as
+     * making room for it would flush every other entry and then the entry
+     * itself. A value it replaces is dropped too, since it is stale.
+     */
+    @Override
     public void put(final K key, final V value) {
-        if (containsKey(key)) {
-            linkedList.remove(hashMap.get(key));
+        final int weight = weigher.weigh(key, value);
+        if (weight > maximumWeight) {
+            reject(key);
+            return;
+        }
+        Node<K, V> node = hashMap.get(key);
+        if (node != null) {
+            weightedSize += weight - node.weight;
+            node.value = value;
+            node.weight = weight;
+            moveToHead(node);
         } else {
-            ensureCapacity();
+            node = new Node<>(key, value, weight);
+            hashMap.put(key, node);
+            weightedSize += weight;
+            linkFirst(node);
         }
-        final Node<K, V> newNode = new Node<>(key, value);
-        hashMap.put(key, newNode);
-        linkedList.addFirst(newNode);
+        ensureCapacity();
     }
 
     private boolean isSizeExceeded() {
-        return size() == capacity;
+        return weightedSize > maximumWeight;
     }
 
     @Override
@@ -64,19 +111,101 @@ public class LRUCache<K, V> implements Cache<K, V> {
     }
 
     private void ensureCapacity() {
-        if (isSizeExceeded()) {
-            final Node<K, V> executeNode = linkedList.removeLast();
+        while (isSizeExceeded() && tail != null) {
+            final Node<K, V> executeNode = tail;
+            unlink(executeNode);
             hashMap.remove(executeNode.key);
+            weightedSize -= executeNode.weight;
+            stats.recordEviction();
         }
     }
 
+    private void reject(final K key) {
+        final Node<K, V> node = hashMap.remove(key);
+        if (node != null) {
+            unlink(node);
+            weightedSize -= node.weight;
+        }
+        stats.recordEviction();
+    }
+
+    @Override
     public void remove(final K key) {
-        if (containsKey(key)) {
-            linkedList.remove(hashMap.get(key));
-            hashMap.remove(key);
+        final Node<K, V> node = hashMap.remove(key);
+        if (node != null) {
+            unlink(node);
+            weightedSize -= node.weight;
+            stats.recordInvalidation();
+        }
+    }
+
+    @Override
+    public List<K> hotKeys(final int limit) {
+        List<K> keys = new ArrayList<>(Math.min(limit, hashMap.size()));
+        for (Node<K, V> node = head; node != null && keys.size() < limit;
+                node = node.next) {
+            keys.add(node.key);
+        }
+        return keys;
+    }
+
+    @Override
+    public CacheStats stats() {
+        return stats.snapshot();
+    }
+
+    private void moveToHead(final Node<K, V> node) {
+        if (node != head) {
+            unlink(node);
+            linkFirst(node);
+        }
+    }
+
+    private void linkFirst(final Node<K, V> node) {
+        node.prev = null;
+        node.next = head;
+        if (head != null) {
+            head.prev = node;
+        }
+        head = node;
+        if (tail == null) {
+            tail = node;
+        }
+    }
+
+    private void unlink(final Node<K, V> node) {
+        if (node.prev != null) {
+            node.prev.next = node.next;
+        } else {
+            head = node.next;
+        }
+        if (node.next != null) {
+            node.next.prev = node.prev;
+        } else {
+            tail = node.prev;
         }
+        node.prev = null;
+        node.next = null;
     }
 
-    public record Node<K, V>(K key, V value) { }
+    private static final class Node<K, V> {
+
+        private final K key;
+
+        private V value;
+
+        private int weight;
+
+        private Node<K, V> prev;
+
+        private Node<K, V> next;
+
+        private Node(final K key, final V value, final int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+
+    }
 
-}
\ No newline at end of file
+}
@@ -0,0 +1,127 @@
+package com.example.geodata.cache.impl;
+
+import com.example.geodata.cache.BoundedCache;
+import com.example.geodata.cache.Cache;
+import com.example.geodata.cache.CacheStats;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Two-level cache: writes go to both tiers, reads try the first tier and
+ * fall back to the second, promoting what they find there. Size and
+ * weight are those of the first tier, which holds the heap budget.
+ * A second-tier hit counts as a hit; an entry is only evicted once it
+ * has left the second tier.
+ */
+public class TieredCache<K, V> implements BoundedCache<K, V> {
+
+    private final BoundedCache<K, V> first;
+
+    private final Cache<K, V> second;
+
+    public TieredCache(final BoundedCache<K, V> first, final Cache<K, V> second) {
+        this.first = first;
+        this.second = second;
+    }
+
+    @Override
+    public Optional<V> get(final K key) {
+        return Optional.ofNullable(getIfPresent(key));
+    }
+
+    @Override
+    public V getIfPresent(final K key) {
+        V value = first.getIfPresent(key);
+        if (value == null) {
+            value = second.getIfPresent(key);
+            if (value != null) {
+                first.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    @Override
+    public Map<K, V> getAll(final Collection<K> keys) {
+        Map<K, V> found = first.getAll(keys);
+        if (found.size() == keys.size()) {
+            return found;
+        }
+        List<K> missing = new ArrayList<>(keys);
+        missing.removeAll(found.keySet());
+        Map<K, V> promoted = second.getAll(missing);
+        first.putAll(promoted);
+        Map<K, V> result = new LinkedHashMap<>();
+        for (K key : keys) {
+            V value = found.containsKey(key) ? found.get(key) : promoted.get(key);
+            if (value != null) {
+                result.put(key, value);
+            }
+        }
+        return result;
+    }
+
+    @Override
+    public void putAll(final Map<K, V> entries) {
+        first.putAll(entries);
+        second.putAll(entries);
+    }
+
+    @Override
+    public int size() {
+        return first.size();
+    }
+
+    @Override
+    public void put(final K key, final V value) {
+        first.put(key, value);
+        second.put(key, value);
+    }
+
+    @Override
+    public boolean containsKey(final K key) {
+        return first.containsKey(key) || second.containsKey(key);
+    }
+
+    @Override
+    public void remove(final K key) {
+        first.remove(key);
+        second.remove(key);
+    }
+
+    @Override
+    public long weightedSize() {
+        return first.weightedSize();
+    }
+
+    @Override
+    public long maximumWeight() {
+        return first.maximumWeight();
+    }
+
+    @Override
+    public void setMaximumWeight(final long maximumWeight) {
+        first.setMaximumWeight(maximumWeight);
+    }
+
+    @Override
+    public List<K> hotKeys(final int limit) {
+        return first.hotKeys(limit);
+    }
+
+    @Override
+    public CacheStats stats() {
+        CacheStats firstStats = first.stats();
+        CacheStats secondStats = second.stats();
+        return firstStats.toBuilder()
+                .hitCount(firstStats.hitCount() + secondStats.hitCount())
+                .missCount(secondStats.missCount())
+                .evictionCount(secondStats.evictionCount())
+                .build();
+    }
+
+}
@@ -0,0 +1,336 @@
+package com.example.geodata.cache.impl;
+
+import com.example.geodata.cache.BoundedCache;
+import com.example.geodata.cache.CacheStats;
+import com.example.geodata.cache.StatsCounter;
+import com.example.geodata.cache.Weigher;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * W-TinyLFU cache: new entries land in a small LRU window (1% of the
+ * capacity). An entry leaving the window is admitted to the main segmented
+ * LRU only if the {@link FrequencySketch} has seen it more often than the
+ * entry the main space would evict, so one-off scans cannot flush the hot
+ * set. The main space is split into probation (20%) and protected (80%).
+ * A miss followed by the {@code put} that loads the same key is one access,
+ * so the sketch counts it once.
+ */
+public class TinyLfuCache<K, V> implements BoundedCache<K, V> {
+
+    private static final int WINDOW = 0;
+
+    private static final int PROBATION = 1;
+
+    private static final int PROTECTED = 2;
+
+    private static final int MAX_INITIAL_SKETCH_SIZE = 1 << 10;
+
+    private long maximumWeight;
+
+    private long windowCapacity;
+
+    private long mainCapacity;
+
+    private long protectedCapacity;
+
+    private final Weigher<K, V> weigher;
+
+    private final Map<K, Node<K, V>> hashMap;
+
+    private final FrequencySketch<K> sketch;
+
+    private final AccessOrderDeque<K, V> window = new AccessOrderDeque<>();
+
+    private final AccessOrderDeque<K, V> probation = new AccessOrderDeque<>();
+
+    private final AccessOrderDeque<K, V> protectedDeque = new AccessOrderDeque<>();
+
+    private final StatsCounter stats = new StatsCounter();
+
+    private K lastMiss;
+
+    public TinyLfuCache(final int maxSize) {
+        this(maxSize, Weigher.singleton());
+    }
+
+    public TinyLfuCache(final long maximumWeight, final Weigher<K, V> weigher) {
+        this.weigher = weigher;
+        hashMap = new HashMap<>();
+        sketch = new FrequencySketch<>(
+                (int) Math.min(maximumWeight, MAX_INITIAL_SKETCH_SIZE));
+        setCapacities(maximumWeight);
+    }
+
+    @Override
+    public Optional<V> get(final K key) {
+        return Optional.ofNullable(getIfPresent(key));
+    }
+
+    @Override
+    public V getIfPresent(final K key) {
+        sketch.increment(key);
+        final Node<K, V> node = hashMap.get(key);
+        if (node == null) {
+            lastMiss = key;
+            stats.recordMiss();
+            return null;
+        }
+        lastMiss = null;
+        stats.recordHit();
+        onHit(node);
+        return node.value;
+    }
+
+    @Override
+    public int size() {
+        return hashMap.size();
+    }
+
+    @Override
+    public long weightedSize() {
+        return window.weight + probation.weight + protectedDeque.weight;
+    }
+
+    @Override
+    public long maximumWeight() {
+        return maximumWeight;
+    }
+
+    @Override
+    public void setMaximumWeight(final long maximumWeight) {
+        setCapacities(maximumWeight);
+        evictFromWindow();
+        evictFromMain();
+    }
+
+    @Override
+    public void put(final K key, final V value) {
+        if (key.equals(lastMiss)) {
+            lastMiss = null;
+        } else {
+            sketch.increment(key);
+        }
+        final int weight = weigher.weigh(key, value);
+        Node<K, V> node = hashMap.get(key);
+        if (node != null) {
+            dequeOf(node).weight += weight - node.weight;
+            node.value = value;
+            node.weight = weight;
+            onHit(node);
+            evictFromMain();
+        } else {
+            node = new Node<>(key, value, weight);
+            hashMap.put(key, node);
+            sketch.ensureCapacity(hashMap.size());
+            node.queue = WINDOW;
+            window.addLast(node);
+        }
+        evictFromWindow();
+    }
+
+    @Override
+    public boolean containsKey(final K key) {
+        return hashMap.containsKey(key);
+    }
+
+    @Override
+    public void remove(final K key) {
+        final Node<K, V> node = hashMap.remove(key);
+        if (node != null) {
+            dequeOf(node).unlink(node);
+            stats.recordInvalidation();
+        }
+    }
+
+    /**
+     * Protected keys come first, then probation, then the window; each
+     * space is listed from its most recently used end.
+     */
+    @Override
+    public List<K> hotKeys(final int limit) {
+        List<K> keys = new ArrayList<>(Math.min(limit, hashMap.size()));
+        protectedDeque.collectKeys(keys, limit);
+        probation.collectKeys(keys, limit);
+        window.collectKeys(keys, limit);
+        return keys;
+    }
+
+    @Override
+    public CacheStats stats() {
+        return stats.snapshot();
+    }
+
+    int frequency(final K key) {
+        return sketch.frequency(key);
+    }
+
+    private void setCapacities(final long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+        windowCapacity = Math.max(1, maximumWeight / 100);
+        mainCapacity = Math.max(0, maximumWeight - windowCapacity);
+        protectedCapacity = mainCapacity * 80 / 100;
+    }
+
+    private void onHit(final Node<K, V> node) {
+        if (node.queue == PROBATION) {
+            probation.unlink(node);
+            node.queue = PROTECTED;
+            protectedDeque.addLast(node);
+            while (protectedDeque.weight > protectedCapacity) {
+                Node<K, V> demoted = protectedDeque.pollFirst();
+                demoted.queue = PROBATION;
+                probation.addLast(demoted);
+            }
+        } else {
+            dequeOf(node).moveToBack(node);
+        }
+    }
+
+    private void evictFromWindow() {
+        while (window.weight > windowCapacity) {
+            admit(window.pollFirst());
+        }
+    }
+
+    private void admit(final Node<K, V> candidate) {
+        if (candidate.weight > mainCapacity) {
+            reject(candidate);
+            return;
+        }
+        while (mainWeight() + candidate.weight > mainCapacity) {
+            Node<K, V> victim = probation.size > 0
+                    ? probation.first() : protectedDeque.first();
+            if (sketch.frequency(candidate.key) <= sketch.frequency(victim.key)) {
+                reject(candidate);
+                return;
+            }
+            evict(victim);
+        }
+        candidate.queue = PROBATION;
+        probation.addLast(candidate);
+    }
+
+    private void evictFromMain() {
+        while (mainWeight() > mainCapacity) {
+            evict(probation.size > 0 ? probation.first() : protectedDeque.first());
+        }
+    }
+
+    private void reject(final Node<K, V> candidate) {
+        hashMap.remove(candidate.key);
+        stats.recordEviction();
+    }
+
+    private void evict(final Node<K, V> victim) {
+        dequeOf(victim).unlink(victim);
+        hashMap.remove(victim.key);
+        stats.recordEviction();
+    }
+
+    private long mainWeight() {
+        return probation.weight + protectedDeque.weight;
+    }
+
+    private AccessOrderDeque<K, V> dequeOf(final Node<K, V> node) {
+        return switch (node.queue) {
+            case WINDOW -> window;
+            case PROBATION -> probation;
+            default -> protectedDeque;
+        };
+    }
+
+    private static final class Node<K, V> {
+
+        private final K key;
+
+        private V value;
+
+        private int weight;
+
+        private int queue;
+
+        private Node<K, V> prev;
+
+        private Node<K, V> next;
+
+        private Node(final K key, final V value, final int weight) {
+            this.key = key;
+            this.value = value;
+            this.weight = weight;
+        }
+
+    }
+
+    private static final class AccessOrderDeque<K, V> {
+
+        private Node<K, V> head;
+
+        private Node<K, V> tail;
+
+        private int size;
+
+        private long weight;
+
+        private Node<K, V> first() {
+            return head;
+        }
+
+        private void collectKeys(final List<K> keys, final int limit) {
+            for (Node<K, V> node = tail; node != null && keys.size() < limit;
+                    node = node.prev) {
+                keys.add(node.key);
+            }
+        }
+
+        private Node<K, V> pollFirst() {
+            final Node<K, V> node = head;
+            if (node != null) {
+                unlink(node);
+            }
+            return node;
+        }
+
+        private void addLast(final Node<K, V> node) {
+            node.next = null;
+            node.prev = tail;
+            if (tail != null) {
+                tail.next = node;
+            } else {
+                head = node;
+            }
+            tail = node;
+            size++;
+            weight += node.weight;
+        }
+
+        private void moveToBack(final Node<K, V> node) {
+            if (node != tail) {
+                unlink(node);
+                addLast(node);
+            }
+        }
+
+        private void unlink(final Node<K, V> node) {
+            if (node.prev != null) {
+                node.prev.next = node.next;
+            } else {
+                head = node.next;
+            }
+            if (node.next != null) {
+                node.next.prev = node.prev;
+            } else {
+                tail = node.prev;
+            }
+            node.prev = null;
+            node.next = null;
+            size--;
+            weight -= node.weight;
+        }
+
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.example.geodata.config;
+
+import java.io.IOException;
+import org.hibernate.cache.jcache.ConfigSettings;
+import org.hibernate.cfg.AvailableSettings;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableConfigurationProperties(CacheProperties.class)
+public class CacheConfig {
+
+    @Bean
+    public ThreadPoolTaskExecutor cacheRefreshExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(2);
+        executor.setMaxPoolSize(2);
+        executor.setQueueCapacity(1_000);
+        executor.setThreadNamePrefix("cache-refresh-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Turns on the entity, collection and query regions declared on the
+     * entities and repositories. Every region must be configured in the
+     * Ehcache file, so a missing one fails startup instead of growing
+     * unbounded. The file is resolved by Spring, which also finds it
+     * inside the packaged jar.
+     */
+    @Bean
+    public HibernatePropertiesCustomizer secondLevelCacheCustomizer(
+            final CacheProperties properties, final ResourceLoader resourceLoader) {
+        return hibernateProperties -> {
+            CacheProperties.SecondLevel secondLevel = properties.getSecondLevel();
+            if (!secondLevel.isEnabled()) {
+                return;
+            }
+            hibernateProperties.put(AvailableSettings.USE_SECOND_LEVEL_CACHE, true);
+            hibernateProperties.put(AvailableSettings.USE_QUERY_CACHE, true);
+            hibernateProperties.put(AvailableSettings.GENERATE_STATISTICS, true);
+            hibernateProperties.put(AvailableSettings.CACHE_REGION_FACTORY, "jcache");
+            hibernateProperties.put(ConfigSettings.PROVIDER,
+                    "org.ehcache.jsr107.EhcacheCachingProvider");
+            hibernateProperties.put(ConfigSettings.CONFIG_URI,
+                    configUri(resourceLoader, secondLevel.getConfig()));
+            hibernateProperties.put(ConfigSettings.MISSING_CACHE_STRATEGY, "fail");
+        };
+    }
+
+    private static String configUri(final ResourceLoader resourceLoader,
+                                    final String location) {
+        try {
+            return resourceLoader.getResource(location).getURI().toString();
+        } catch (IOException e) {
+            throw new IllegalStateException("Ehcache configuration not found: "
+                    + location, e);
+        }
+    }
+
+}
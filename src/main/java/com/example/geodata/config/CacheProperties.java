@@ -0,0 +1,107 @@
+package com.example.geodata.config;
+
+import com.example.geodata.cache.CachePolicy;
+import java.time.Duration;
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "geodata.cache")
+public class CacheProperties {
+
+    private CitySpec city = new CitySpec();
+
+    private Spec country = new Spec();
+
+    private Spec language = new Spec();
+
+    private Snapshot snapshot = new Snapshot();
+
+    private Negative negative = new Negative();
+
+    private Query query = new Query();
+
+    private SecondLevel secondLevel = new SecondLevel();
+
+    @Getter
+    @Setter
+    public static class Spec {
+
+        private CachePolicy policy = CachePolicy.LRU;
+
+        private Integer capacity;
+
+        private DataSize maxBytes;
+
+        private Duration ttl;
+
+        private double refreshAheadRatio;
+
+    }
+
+    @Getter
+    @Setter
+    public static class CitySpec extends Spec {
+
+        /**
+         * Slots of the off-heap second tier, 0 disables it.
+         */
+        private int offHeapEntries;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Snapshot {
+
+        private boolean enabled;
+
+        private String directory = "cache-snapshot";
+
+        /**
+         * Hot keys kept per cache; one findAllById binds this many ids.
+         */
+        private int maxEntries = 10_000;
+
+    }
+
+    @Getter
+    @Setter
+    public static class Negative {
+
+        private int capacity = 10_000;
+
+        private Duration ttl = Duration.ofSeconds(30);
+
+    }
+
+    /**
+     * Query-result caches, such as countries by language name.
+     */
+    @Getter
+    @Setter
+    public static class Query {
+
+        private int capacity = 1_000;
+
+        private Duration ttl = Duration.ofMinutes(10);
+
+    }
+
+    /**
+     * Hibernate second-level and query cache, kept in Ehcache.
+     */
+    @Getter
+    @Setter
+    public static class SecondLevel {
+
+        private boolean enabled;
+
+        private String config = "classpath:ehcache.xml";
+
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.example.geodata.config;
+
+import java.util.concurrent.ThreadPoolExecutor;
+import javax.sql.DataSource;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@Configuration
+@EnableConfigurationProperties(IngestProperties.class)
+public class IngestConfig {
+
+    /**
+     * Bounded: with every worker busy and the queue full, the submitting
+     * thread writes the chunk itself, which also stops it from producing
+     * more.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor ingestExecutor(final IngestProperties properties) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(properties.getWorkers());
+        executor.setMaxPoolSize(properties.getWorkers());
+        executor.setQueueCapacity(properties.getWorkers());
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setThreadNamePrefix("ingest-");
+        executor.initialize();
+        return executor;
+    }
+
+    /**
+     * Ingest chunks only use JDBC, and the JPA transaction manager cannot
+     * create the savepoints their row-by-row fallback needs. The manager is
+     * deliberately not a bean, which would replace the JPA one.
+     */
+    @Bean
+    public TransactionTemplate ingestTransactionTemplate(final DataSource dataSource) {
+        TransactionTemplate template = new TransactionTemplate(
+                new DataSourceTransactionManager(dataSource));
+        template.setPropagationBehavior(
+                TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        return template;
+    }
+
+}
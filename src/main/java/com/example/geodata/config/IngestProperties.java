@@ -0,0 +1,26 @@
+package com.example.geodata.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+@Getter
+@Setter
+@ConfigurationProperties(prefix = "geodata.ingest")
+public class IngestProperties {
+
+    private int chunkSize = 10_000;
+
+    /**
+     * Chunks written at once, each holding a connection. The caller writes
+     * one more when all workers are busy, so keep this below the pool size.
+     */
+    private int workers = 4;
+
+    /**
+     * Writes of a chunk before a transient error fails it over to
+     * row-by-row inserts.
+     */
+    private int maxAttempts = 3;
+
+}
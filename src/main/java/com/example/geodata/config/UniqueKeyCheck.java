@@ -0,0 +1,140 @@
+package com.example.geodata.config;
+
+import com.example.geodata.exceptions.ServiceUnavailableException;
+import com.example.geodata.service.ingest.UpsertTable;
+import java.sql.Connection;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Tells whether an {@link UpsertTable} with a {@link UpsertTable#unique}
+ * key has a unique index on it, since {@code ON CONFLICT} fails without
+ * one. Hibernate only adds the constraints with {@code ddl-auto=update},
+ * and silently skips one when existing rows repeat its key. A missing key
+ * is logged at startup and only disables the bulk upserts of its table;
+ * nothing is changed here. {@value #SCRIPT} merges such rows and adds the
+ * constraints, and has to be run by hand after reviewing what it merges.
+ * The next upsert of the table then finds the key without a restart.
+ */
+@Slf4j
+@Component
+public class UniqueKeyCheck implements SmartLifecycle {
+
+    private static final List<UpsertTable> TABLES = List.of(UpsertTable.LANGUAGES,
+            UpsertTable.COUNTRIES);
+
+    private static final String SCRIPT = "db/unique-keys.sql";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final Set<UpsertTable> missing = ConcurrentHashMap.newKeySet();
+
+    private volatile boolean running;
+
+    public UniqueKeyCheck(final JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @Override
+    public void start() {
+        missing.addAll(missingKeys(TABLES));
+        if (!missing.isEmpty()) {
+            log.warn("Bulk upserts of {} are disabled until their unique keys"
+                    + " exist; review and run {}", describe(missing), SCRIPT);
+        }
+        running = true;
+    }
+
+    /**
+     * Throws unless {@code table} can be upserted. A key found missing at
+     * startup is looked up again, so it is picked up once added.
+     */
+    public void require(final UpsertTable table) {
+        if (!missing.contains(table)) {
+            return;
+        }
+        if (missingKeys(List.of(table)).isEmpty()) {
+            missing.remove(table);
+            log.info("Bulk upserts of {} enabled", table.table().name());
+            return;
+        }
+        throw new ServiceUnavailableException("Bulk upserts need a unique key on "
+                + describe(List.of(table)) + "; review and run " + SCRIPT);
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    /**
+     * Before the name indexes, the cache snapshots and the web server.
+     */
+    @Override
+    public int getPhase() {
+        return -1;
+    }
+
+    private List<UpsertTable> missingKeys(final List<UpsertTable> tables) {
+        ConnectionCallback<List<UpsertTable>> check = connection -> {
+            List<UpsertTable> absent = new ArrayList<>();
+            for (UpsertTable table : tables) {
+                if (!hasUniqueIndex(connection, table)) {
+                    absent.add(table);
+                }
+            }
+            return absent;
+        };
+        return jdbcTemplate.execute(check);
+    }
+
+    private static List<String> describe(final Collection<UpsertTable> tables) {
+        return tables.stream()
+                .map(table -> table.table().name() + table.key())
+                .sorted()
+                .toList();
+    }
+
+    private static boolean hasUniqueIndex(final Connection connection,
+                                          final UpsertTable table)
+            throws SQLException {
+        DatabaseMetaData metaData = connection.getMetaData();
+        String name = metaData.storesUpperCaseIdentifiers()
+                ? table.table().name().toUpperCase(Locale.ROOT)
+                : table.table().name();
+        Map<String, Set<String>> columns = new HashMap<>();
+        try (ResultSet indexes = metaData.getIndexInfo(connection.getCatalog(),
+                connection.getSchema(), name, true, false)) {
+            while (indexes.next()) {
+                String column = indexes.getString("COLUMN_NAME");
+                if (column != null) {
+                    String index = indexes.getString("INDEX_NAME");
+                    columns.computeIfAbsent(index, key -> new HashSet<>())
+                            .add(column.toLowerCase(Locale.ROOT));
+                }
+            }
+        }
+        return columns.containsValue(Set.copyOf(table.key()));
+    }
+
+}
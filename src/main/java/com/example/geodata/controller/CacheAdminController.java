@@ -0,0 +1,46 @@
+package com.example.geodata.controller;
+
+import com.example.geodata.aspects.AspectAnnotation;
+import com.example.geodata.dto.CacheInfoDTO;
+import com.example.geodata.dto.CacheRegionDTO;
+import com.example.geodata.exceptions.ResourceNotFoundException;
+import com.example.geodata.service.CacheService;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+@Tag(name = "CacheAdminController")
+@RestController
+@RequestMapping("/api/admin/caches")
+@AllArgsConstructor
+public class CacheAdminController {
+
+    private final CacheService cacheService;
+
+    @GetMapping
+    public ResponseEntity<List<CacheInfoDTO>> getAll() {
+        return ResponseEntity.ok(cacheService.getAll());
+    }
+
+    @GetMapping("/regions")
+    public ResponseEntity<List<CacheRegionDTO>> getRegions() {
+        return ResponseEntity.ok(cacheService.getRegions());
+    }
+
+    @PutMapping("/{name}/resize")
+    @AspectAnnotation
+    public ResponseEntity<CacheInfoDTO> resize(
+            @PathVariable final String name,
+            @RequestParam final long maximumWeight
+    )
+            throws ResourceNotFoundException {
+        return ResponseEntity.ok(cacheService.resize(name, maximumWeight));
+    }
+
+}
@@ -1,15 +1,22 @@
 package com.example.geodata.controller;
 
 import com.example.geodata.aspects.AspectAnnotation;
+import com.example.geodata.dto.BulkChangeReport;
+import com.example.geodata.dto.BulkInsertReport;
+import com.example.geodata.dto.BulkUpsertReport;
 import com.example.geodata.dto.CityDTO;
+import com.example.geodata.dto.CityView;
+import com.example.geodata.dto.KeysetPage;
 import com.example.geodata.entity.City;
 import com.example.geodata.exceptions.ResourceNotFoundException;
 import com.example.geodata.service.CityService;
+import com.example.geodata.service.ingest.IngestEngine;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.List;
 import java.util.Optional;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -19,7 +26,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 @CrossOrigin
 @Tag(name = "CityController")
 @RestController
@@ -30,13 +39,27 @@ public class CityController {
     private final CityService cityService;
 
     @GetMapping("/all")
-    public ResponseEntity<List<City>> getAll() {
-        return ResponseEntity.ok(cityService.getAll());
+    public ResponseEntity<KeysetPage<CityView>> getAll(
+            @RequestParam(defaultValue = "0") final Integer after,
+            @RequestParam(defaultValue = "100") final int limit
+    ) {
+        return ResponseEntity.ok(cityService.getPage(after, limit));
+    }
+
+    /**
+     * Every city as newline-delimited JSON, written while rows are read from
+     * the database instead of being collected first.
+     */
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(cityService::export);
     }
 
     @GetMapping("/info/{cityId}")
     @AspectAnnotation
-    public ResponseEntity<Optional<City>> findById(
+    public ResponseEntity<Optional<CityView>> findById(
             @PathVariable final Integer cityId
     )
             throws ResourceNotFoundException {
@@ -77,11 +100,44 @@ public class CityController {
         return new ResponseEntity<>(city, HttpStatus.OK);
     }
 
+    /**
+     * Not logged through the aspect, which would print every row.
+     */
     @PostMapping("/bulkInsert")
-    @AspectAnnotation
-    public HttpStatus bulkInsert(@RequestBody final List<CityDTO> cityDTOS) {
-        cityService.bulkInsert(cityDTOS);
-        return HttpStatus.OK;
+    public ResponseEntity<BulkInsertReport> bulkInsert(
+            @RequestBody final List<CityDTO> cityDTOS,
+            @RequestParam(defaultValue = "BATCH") final IngestEngine engine
+    ) {
+        return ResponseEntity.ok(cityService.bulkInsert(cityDTOS, engine));
+    }
+
+    /**
+     * Merges cities by name within their country. A name that several
+     * cities of one country share is rejected, as it matches none of them
+     * in particular.
+     */
+    @PostMapping("/bulkUpsert")
+    public ResponseEntity<BulkUpsertReport> bulkUpsert(
+            @RequestBody final List<CityDTO> cityDTOS
+    ) {
+        return ResponseEntity.ok(cityService.bulkUpsert(cityDTOS));
+    }
+
+    @PostMapping("/bulkDelete")
+    public ResponseEntity<BulkChangeReport> bulkDelete(
+            @RequestBody final List<Integer> ids
+    ) {
+        return ResponseEntity.ok(cityService.bulkDelete(ids));
+    }
+
+    /**
+     * Patches by id; fields left null keep their value.
+     */
+    @PutMapping("/bulkUpdate")
+    public ResponseEntity<BulkChangeReport> bulkUpdate(
+            @RequestBody final List<CityDTO> cityDTOS
+    ) {
+        return ResponseEntity.ok(cityService.bulkUpdate(cityDTOS));
     }
 
 }
@@ -1,10 +1,15 @@
 package com.example.geodata.controller;
 
 import com.example.geodata.aspects.AspectAnnotation;
+import com.example.geodata.dto.BulkChangeReport;
+import com.example.geodata.dto.BulkUpsertReport;
 import com.example.geodata.dto.CountryDTO;
+import com.example.geodata.dto.CountryView;
+import com.example.geodata.dto.KeysetPage;
 import com.example.geodata.entity.Country;
 import com.example.geodata.exceptions.ResourceNotFoundException;
 import com.example.geodata.service.CountryService;
+import com.example.geodata.service.ingest.IngestEngine;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.List;
 import java.util.Optional;
@@ -19,6 +24,7 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 @CrossOrigin
 @Tag(name = "CountryController")
@@ -30,13 +36,16 @@ public class CountryController {
     private final CountryService countryService;
 
     @GetMapping("/all")
-    public ResponseEntity<List<Country>> getAll() {
-        return ResponseEntity.ok(countryService.getAll());
+    public ResponseEntity<KeysetPage<CountryView>> getAll(
+            @RequestParam(defaultValue = "0") final Integer after,
+            @RequestParam(defaultValue = "100") final int limit
+    ) {
+        return ResponseEntity.ok(countryService.getPage(after, limit));
     }
 
     @GetMapping("/info/{id}")
     @AspectAnnotation
-    public ResponseEntity<Optional<Country>> findById(
+    public ResponseEntity<Optional<CountryView>> findById(
             @PathVariable final Integer id
     )
             throws ResourceNotFoundException {
@@ -92,7 +101,7 @@ public class CountryController {
     }
 
     @GetMapping("/info/countriesFromLanguage/{languageName}")
-    public List<Country> getCountriesFromLanguage(
+    public List<CountryView> getCountriesFromLanguage(
             @PathVariable final String languageName
     ) throws ResourceNotFoundException {
         return countryService
@@ -100,10 +109,39 @@ public class CountryController {
     }
 
     @PostMapping("/bulkInsert")
-    @AspectAnnotation
-    public HttpStatus bulkInsert(@RequestBody final List<CountryDTO> countryDTOS) {
-        countryService.bulkInsert(countryDTOS);
+    public HttpStatus bulkInsert(
+            @RequestBody final List<CountryDTO> countryDTOS,
+            @RequestParam(defaultValue = "BATCH") final IngestEngine engine
+    ) {
+        countryService.bulkInsert(countryDTOS, engine);
         return HttpStatus.OK;
     }
 
+    /**
+     * Merges countries by name.
+     */
+    @PostMapping("/bulkUpsert")
+    public ResponseEntity<BulkUpsertReport> bulkUpsert(
+            @RequestBody final List<CountryDTO> countryDTOS
+    ) {
+        return ResponseEntity.ok(countryService.bulkUpsert(countryDTOS));
+    }
+
+    @PostMapping("/bulkDelete")
+    public ResponseEntity<BulkChangeReport> bulkDelete(
+            @RequestBody final List<Integer> ids
+    ) {
+        return ResponseEntity.ok(countryService.bulkDelete(ids));
+    }
+
+    /**
+     * Patches by id; fields left null keep their value.
+     */
+    @PutMapping("/bulkUpdate")
+    public ResponseEntity<BulkChangeReport> bulkUpdate(
+            @RequestBody final List<CountryDTO> countryDTOS
+    ) {
+        return ResponseEntity.ok(countryService.bulkUpdate(countryDTOS));
+    }
+
 }
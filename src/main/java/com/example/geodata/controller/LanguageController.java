@@ -1,15 +1,21 @@
 package com.example.geodata.controller;
 
 import com.example.geodata.aspects.AspectAnnotation;
+import com.example.geodata.dto.BulkChangeReport;
+import com.example.geodata.dto.BulkUpsertReport;
+import com.example.geodata.dto.KeysetPage;
 import com.example.geodata.dto.LanguageDTO;
+import com.example.geodata.dto.LanguageView;
 import com.example.geodata.entity.Language;
 import com.example.geodata.exceptions.ResourceNotFoundException;
 import com.example.geodata.service.LanguageService;
+import com.example.geodata.service.ingest.IngestEngine;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import java.util.List;
 import java.util.Optional;
 import lombok.AllArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.DeleteMapping;
@@ -19,7 +25,9 @@ import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 @CrossOrigin
 @Tag(name = "LanguageController")
 @RestController
@@ -31,13 +39,24 @@ public class LanguageController {
 
     @GetMapping("/all")
     @AspectAnnotation
-    public ResponseEntity<List<Language>> getAll() {
-        return new ResponseEntity<>(languageService.findAll(), HttpStatus.OK);
+    public ResponseEntity<KeysetPage<LanguageView>> getAll(
+            @RequestParam(defaultValue = "0") final Integer after,
+            @RequestParam(defaultValue = "100") final int limit
+    ) {
+        return new ResponseEntity<>(languageService.getPage(after, limit),
+                HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> export() {
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(languageService::export);
     }
 
     @GetMapping("/info/{id}")
     @AspectAnnotation
-    public ResponseEntity<Optional<Language>> getById(@PathVariable final Integer id)
+    public ResponseEntity<Optional<LanguageView>> getById(@PathVariable final Integer id)
             throws ResourceNotFoundException {
         return ResponseEntity.ok(languageService.findById(id));
     }
@@ -70,11 +89,40 @@ public class LanguageController {
     }
 
     @PostMapping("/bulkInsert")
-    @AspectAnnotation
-    public HttpStatus bulkInsert(@RequestBody final List<LanguageDTO> languageDTOS) {
-        languageService.bulkInsert(languageDTOS);
+    public HttpStatus bulkInsert(
+            @RequestBody final List<LanguageDTO> languageDTOS,
+            @RequestParam(defaultValue = "BATCH") final IngestEngine engine
+    ) {
+        languageService.bulkInsert(languageDTOS, engine);
         return HttpStatus.OK;
     }
 
+    /**
+     * Merges languages by code, so a language can be renamed.
+     */
+    @PostMapping("/bulkUpsert")
+    public ResponseEntity<BulkUpsertReport> bulkUpsert(
+            @RequestBody final List<LanguageDTO> languageDTOS
+    ) {
+        return ResponseEntity.ok(languageService.bulkUpsert(languageDTOS));
+    }
+
+    @PostMapping("/bulkDelete")
+    public ResponseEntity<BulkChangeReport> bulkDelete(
+            @RequestBody final List<Integer> ids
+    ) {
+        return ResponseEntity.ok(languageService.bulkDelete(ids));
+    }
+
+    /**
+     * Patches by id; fields left null keep their value.
+     */
+    @PutMapping("/bulkUpdate")
+    public ResponseEntity<BulkChangeReport> bulkUpdate(
+            @RequestBody final List<LanguageDTO> languageDTOS
+    ) {
+        return ResponseEntity.ok(languageService.bulkUpdate(languageDTOS));
+    }
+
 
 }
@@ -0,0 +1,13 @@
+package com.example.geodata.dto;
+
+import java.util.List;
+import lombok.Builder;
+
+/**
+ * Rows a bulk delete or update changed, and the requested ids that matched
+ * no row.
+ */
+@Builder
+public record BulkChangeReport(int changed, List<Integer> missing) {
+
+}
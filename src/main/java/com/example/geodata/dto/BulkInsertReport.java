@@ -0,0 +1,15 @@
+package com.example.geodata.dto;
+
+import java.util.List;
+import lombok.Builder;
+
+/**
+ * Totals, one entry per chunk and one entry per row that was skipped or
+ * failed, including the rows of a chunk that failed as a whole. Inserted
+ * rows are only counted.
+ */
+@Builder
+public record BulkInsertReport(int inserted, int skipped, int failed,
+                               List<ChunkReport> chunks, List<RowReport> rows) {
+
+}
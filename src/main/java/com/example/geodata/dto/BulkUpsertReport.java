@@ -0,0 +1,13 @@
+package com.example.geodata.dto;
+
+import lombok.Builder;
+
+/**
+ * Rows inserted, rows rewritten, and rows that matched an identical
+ * existing row. A key sent more than once is merged with its last row and
+ * counted once.
+ */
+@Builder
+public record BulkUpsertReport(int inserted, int updated, int unchanged) {
+
+}
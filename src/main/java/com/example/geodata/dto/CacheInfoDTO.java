@@ -0,0 +1,12 @@
+package com.example.geodata.dto;
+
+import lombok.Builder;
+
+@Builder
+public record CacheInfoDTO(String name, int size,
+                           long weightedSize, long maximumWeight,
+                           long hitCount, long missCount, double hitRate,
+                           long loadCount, double averageLoadPenaltyNanos,
+                           long evictionCount, long invalidationCount) {
+
+}
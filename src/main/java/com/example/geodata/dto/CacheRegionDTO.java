@@ -0,0 +1,13 @@
+package com.example.geodata.dto;
+
+import lombok.Builder;
+
+/**
+ * Hibernate cache region counters; {@code elementCount} is null when the
+ * provider does not report it, as with JCache.
+ */
+@Builder
+public record CacheRegionDTO(String name, Long elementCount,
+                             long hitCount, long missCount, long putCount) {
+
+}
@@ -0,0 +1,16 @@
+package com.example.geodata.dto;
+
+import lombok.Builder;
+
+/**
+ * Outcome of one chunk, written in its own transaction. {@code attempts}
+ * counts whole-chunk writes, retried on transient errors. {@code reason}
+ * is only set when the chunk failed as a whole; each of its rows that was
+ * not skipped then has a failed entry with the same reason.
+ */
+@Builder
+public record ChunkReport(int chunk, int firstRow, int rows, int inserted,
+                          int skipped, int failed, int attempts,
+                          String reason) {
+
+}
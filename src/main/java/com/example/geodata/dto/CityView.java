@@ -0,0 +1,15 @@
+package com.example.geodata.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Builder;
+
+/**
+ * Detached read model of a city. The country is referenced by id only
+ * and, as with the entity, not serialized.
+ */
+@Builder
+public record CityView(Integer id, String name,
+                       Double latitude, Double longitude,
+                       @JsonIgnore Integer countryId) {
+
+}
@@ -0,0 +1,21 @@
+package com.example.geodata.dto;
+
+import java.util.List;
+import lombok.Builder;
+
+/**
+ * Detached read model of a country with its cities and languages,
+ * serialized like the entity.
+ */
+@Builder
+public record CountryView(Integer id, String name, String nationality,
+                          Double latitude, Double longitude,
+                          List<CityView> cities,
+                          List<LanguageView> languages) {
+
+    public CountryView {
+        cities = cities == null ? List.of() : List.copyOf(cities);
+        languages = languages == null ? List.of() : List.copyOf(languages);
+    }
+
+}
@@ -0,0 +1,13 @@
+package com.example.geodata.dto;
+
+import java.util.List;
+import lombok.Builder;
+
+/**
+ * One page of a listing ordered by id. {@code nextCursor} is the
+ * {@code after} value of the following page, null on the last one.
+ */
+@Builder
+public record KeysetPage<T>(List<T> items, Integer nextCursor) {
+
+}
@@ -0,0 +1,8 @@
+package com.example.geodata.dto;
+
+import lombok.Builder;
+
+@Builder
+public record LanguageView(Integer id, String name, String code) {
+
+}
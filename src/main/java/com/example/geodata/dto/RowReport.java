@@ -0,0 +1,26 @@
+package com.example.geodata.dto;
+
+import lombok.Builder;
+
+/**
+ * A bulk-insert row that was not written; {@code row} is its position in
+ * the request.
+ */
+@Builder
+public record RowReport(int row, Outcome outcome, String reason) {
+
+    public enum Outcome {
+
+        /**
+         * Rejected before reaching the database, such as an unknown country.
+         */
+        SKIPPED,
+
+        /**
+         * Rejected by the database.
+         */
+        FAILED
+
+    }
+
+}
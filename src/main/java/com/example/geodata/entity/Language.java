@@ -1,6 +1,7 @@
 package com.example.geodata.entity;
 
 import com.fasterxml.jackson.annotation.JsonBackReference;
+import jakarta.persistence.Cacheable;
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -10,6 +11,7 @@ import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
 import jakarta.persistence.ManyToMany;
 import jakarta.persistence.Table;
+import jakarta.persistence.UniqueConstraint;
 import java.util.HashSet;
 import java.util.Set;
 import lombok.AllArgsConstructor;
@@ -17,6 +19,8 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 
 @Entity
 @AllArgsConstructor
@@ -24,7 +28,10 @@ import lombok.Setter;
 @Setter
 @Getter
 @Builder
-@Table(name = "languages")
+@Table(name = "languages", uniqueConstraints = @UniqueConstraint(
+        name = "uk_languages_code", columnNames = "language_code"))
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "language")
 public class Language {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -40,6 +47,7 @@ public class Language {
             cascade = { CascadeType.MERGE, CascadeType.PERSIST },
             fetch = FetchType.LAZY)
     @JsonBackReference
+    @Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "language.countries")
     private Set<Country> countries = new HashSet<>();
 
     @Override
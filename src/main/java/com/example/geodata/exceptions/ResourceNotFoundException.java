@@ -14,4 +14,17 @@ public class ResourceNotFoundException extends Exception {
         super(message);
     }
 
+    private ResourceNotFoundException(final String message,
+                                      final boolean writableStackTrace) {
+        super(message, null, false, writableStackTrace);
+    }
+
+    /**
+     * Exception without a stack trace, cheap to create and safe to
+     * rethrow from several threads.
+     */
+    public static ResourceNotFoundException stackless(final String message) {
+        return new ResourceNotFoundException(message, false);
+    }
+
 }
@@ -1,8 +1,60 @@
 package com.example.geodata.repository;
 
 import com.example.geodata.entity.City;
+import jakarta.persistence.QueryHint;
+import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
-public interface CityRepository extends JpaRepository<City, Integer> { }
+public interface CityRepository extends JpaRepository<City, Integer> {
+
+    List<City> findByIdGreaterThanOrderByIdAsc(Integer after, Limit limit);
+
+    /**
+     * Forward-only cursor over every city. Must be consumed and closed inside
+     * a transaction; the rows are loaded read-only and bypass the
+     * second-level cache.
+     */
+    @Query("SELECT c FROM City c ORDER BY c.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    Stream<City> streamAll();
+
+    @Query(value = "DELETE FROM cities WHERE id = ANY(:ids) "
+            + "RETURNING id, fk_cities_countries AS \"countryId\"",
+            nativeQuery = true)
+    List<IdAndCountryId> deleteByIds(@Param("ids") Integer[] ids);
+
+    @Query(value = "DELETE FROM cities WHERE fk_cities_countries = ANY(:countryIds) "
+            + "RETURNING id", nativeQuery = true)
+    List<Integer> deleteByCountryIds(@Param("countryIds") Integer[] countryIds);
+
+    /**
+     * Patches the city at every position of {@code ids}; a null value
+     * keeps the current one.
+     */
+    @Query(value = "UPDATE cities AS t SET "
+            + "city_name = COALESCE(p.name, t.city_name), "
+            + "latitude = COALESCE(p.latitude, t.latitude), "
+            + "longitude = COALESCE(p.longitude, t.longitude) "
+            + "FROM unnest(CAST(:ids AS int4[]), CAST(:names AS varchar[]), "
+            + "CAST(:latitudes AS float8[]), CAST(:longitudes AS float8[])) "
+            + "AS p(id, name, latitude, longitude) WHERE t.id = p.id "
+            + "RETURNING t.id, t.fk_cities_countries AS \"countryId\"",
+            nativeQuery = true)
+    List<IdAndCountryId> updateAll(@Param("ids") Integer[] ids,
+                                   @Param("names") String[] names,
+                                   @Param("latitudes") Double[] latitudes,
+                                   @Param("longitudes") Double[] longitudes);
+
+}
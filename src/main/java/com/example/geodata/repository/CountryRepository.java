@@ -1,27 +1,122 @@
 package com.example.geodata.repository;
 
 import com.example.geodata.entity.Country;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 @Repository
 public interface CountryRepository extends JpaRepository<Country, Integer> {
 
-    @Query(value = "SELECT c.id, c.country_name, c.nationality,"
-            + " c.latitude, c.longitude FROM countries c "
-            + "JOIN countries_languages cl ON c.id = cl.country_id "
+    @Query(value = "SELECT cl.country_id FROM countries_languages cl "
             + "JOIN languages l ON cl.language_id = l.id "
-            + "WHERE l.language_name = (?1)", nativeQuery = true)
-    List<Country> findAllCountriesContainingSpecifiedLanguage(
+            + "WHERE l.language_name = (?1) ORDER BY cl.country_id",
+            nativeQuery = true)
+    List<Integer> findCountryIdsContainingSpecifiedLanguage(
             @Param("1") String name
     );
 
+    @Query(value = "SELECT DISTINCT country_id FROM countries_languages "
+            + "WHERE language_id IN :languageIds", nativeQuery = true)
+    List<Integer> findCountryIdsByLanguageIds(
+            @Param("languageIds") Collection<Integer> languageIds
+    );
+
+    @Query(value = "DELETE FROM countries_languages "
+            + "WHERE country_id = ANY(:countryIds) RETURNING language_id",
+            nativeQuery = true)
+    List<Integer> deleteLanguageLinksByCountryIds(
+            @Param("countryIds") Integer[] countryIds
+    );
+
+    /**
+     * Their cities and language links must be deleted first.
+     */
+    @Query(value = "DELETE FROM countries WHERE id = ANY(:ids) RETURNING id",
+            nativeQuery = true)
+    List<Integer> deleteByIds(@Param("ids") Integer[] ids);
+
+    /**
+     * Patches the country at every position of {@code ids}; a null value
+     * keeps the current one.
+     */
+    @Query(value = "UPDATE countries AS t SET "
+            + "country_name = COALESCE(p.name, t.country_name), "
+            + "nationality = COALESCE(p.nationality, t.nationality), "
+            + "latitude = COALESCE(p.latitude, t.latitude), "
+            + "longitude = COALESCE(p.longitude, t.longitude) "
+            + "FROM unnest(CAST(:ids AS int4[]), CAST(:names AS varchar[]), "
+            + "CAST(:nationalities AS varchar[]), CAST(:latitudes AS float8[]), "
+            + "CAST(:longitudes AS float8[])) "
+            + "AS p(id, name, nationality, latitude, longitude) "
+            + "WHERE t.id = p.id RETURNING t.id, t.country_name AS name",
+            nativeQuery = true)
+    List<IdAndName> updateAll(@Param("ids") Integer[] ids,
+                              @Param("names") String[] names,
+                              @Param("nationalities") String[] nationalities,
+                              @Param("latitudes") Double[] latitudes,
+                              @Param("longitudes") Double[] longitudes);
+
     Optional<Country> findCountryByName(String name);
 
+    /**
+     * Loads the country with its cities and languages, ready to be mapped to
+     * a detached view.
+     */
+    @Transactional(readOnly = true)
+    default Optional<Country> findWithCitiesAndLanguagesById(final Integer id) {
+        return findWithCitiesAndLanguagesByIdIn(List.of(id)).stream().findFirst();
+    }
+
+    /**
+     * Two statements however many countries match: one join fetch per
+     * collection, both filling the same instances. Fetching the two together
+     * would return a row for every city and language pair of a country.
+     */
+    @Transactional(readOnly = true)
+    default List<Country> findWithCitiesAndLanguagesByIdIn(
+            final Collection<Integer> ids
+    ) {
+        List<Country> countries = findWithCitiesByIdIn(ids);
+        if (!countries.isEmpty()) {
+            findWithLanguagesByIdIn(ids);
+        }
+        return countries;
+    }
+
+    @EntityGraph(attributePaths = "cities")
+    List<Country> findWithCitiesByIdIn(Collection<Integer> ids);
+
+    @EntityGraph(attributePaths = "languages")
+    List<Country> findWithLanguagesByIdIn(Collection<Integer> ids);
+
     Boolean existsByName(String name);
 
+    @Query(value = "SELECT country_name FROM countries "
+            + "WHERE country_name = ANY(:names)", nativeQuery = true)
+    List<String> findNamesIn(@Param("names") String[] names);
+
+    /**
+     * Ids only: paging a fetch of both collections would make Hibernate
+     * apply the limit in memory.
+     */
+    @Query("SELECT c.id FROM Country c WHERE c.id > :after ORDER BY c.id")
+    List<Integer> findIdsAfter(@Param("after") Integer after, Limit limit);
+
+    @Query("SELECT c.id AS id, c.name AS name FROM Country c")
+    List<IdAndName> findAllIdsAndNames();
+
+    @Query("SELECT c.id AS id, c.name AS name FROM Country c "
+            + "WHERE c.name IN :names")
+    List<IdAndName> findIdsAndNamesByNames(
+            @Param("names") Collection<String> names
+    );
+
 }
@@ -0,0 +1,12 @@
+package com.example.geodata.repository;
+
+/**
+ * Projection of a city onto its id and the id of its country.
+ */
+public interface IdAndCountryId {
+
+    Integer getId();
+
+    Integer getCountryId();
+
+}
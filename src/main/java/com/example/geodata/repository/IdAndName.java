@@ -0,0 +1,12 @@
+package com.example.geodata.repository;
+
+/**
+ * Projection of an entity onto its id and name.
+ */
+public interface IdAndName {
+
+    Integer getId();
+
+    String getName();
+
+}
@@ -1,18 +1,28 @@
 package com.example.geodata.repository;
 
 import com.example.geodata.entity.Language;
+import jakarta.persistence.QueryHint;
+import java.util.Collection;
 import java.util.List;
+import java.util.stream.Stream;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 @Repository
 public interface LanguageRepository extends JpaRepository<Language, Integer> {
 
-    @Query(value = "SELECT * FROM languages obj "
-            + "where obj.language_name in (?1)", nativeQuery = true)
-    List<Language> findByNames(@Param("1") List<String> names);
+    /**
+     * JPQL rather than native SQL so Hibernate knows the table it reads and
+     * can invalidate the cached result when languages change.
+     */
+    @Query("SELECT l FROM Language l WHERE l.name IN :names")
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_CACHEABLE, value = "true"))
+    List<Language> findByNames(@Param("names") List<String> names);
 
     @Query(value = "DELETE FROM countries_languages "
             + "WHERE language_id = :languageId "
@@ -21,6 +31,59 @@ public interface LanguageRepository extends JpaRepository<Language, Integer> {
             @Param("languageId") Integer languageId
     );
 
+    @Query(value = "DELETE FROM countries_languages "
+            + "WHERE language_id = ANY(:languageIds) RETURNING country_id",
+            nativeQuery = true)
+    List<Integer> deleteCountryLinksByLanguageIds(
+            @Param("languageIds") Integer[] languageIds
+    );
+
+    @Query(value = "DELETE FROM languages WHERE id = ANY(:ids) "
+            + "RETURNING id, language_name AS name", nativeQuery = true)
+    List<IdAndName> deleteByIds(@Param("ids") Integer[] ids);
+
+    /**
+     * Patches the language at every position of {@code ids}; a null value
+     * keeps the current one.
+     */
+    @Query(value = "UPDATE languages AS t SET "
+            + "language_name = COALESCE(p.name, t.language_name), "
+            + "language_code = COALESCE(p.code, t.language_code) "
+            + "FROM unnest(CAST(:ids AS int4[]), CAST(:names AS varchar[]), "
+            + "CAST(:codes AS varchar[])) AS p(id, name, code) "
+            + "WHERE t.id = p.id RETURNING t.id, t.language_name AS name",
+            nativeQuery = true)
+    List<IdAndName> updateAll(@Param("ids") Integer[] ids,
+                              @Param("names") String[] names,
+                              @Param("codes") String[] codes);
+
     Boolean existsByName(String name);
 
+    @Query(value = "SELECT language_code FROM languages "
+            + "WHERE language_code = ANY(:codes)", nativeQuery = true)
+    List<String> findCodesIn(@Param("codes") String[] codes);
+
+    List<Language> findByIdGreaterThanOrderByIdAsc(Integer after, Limit limit);
+
+    /**
+     * Forward-only cursor over every language, see
+     * {@link CityRepository#streamAll()}.
+     */
+    @Query("SELECT l FROM Language l ORDER BY l.id")
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true"),
+            @QueryHint(name = HibernateHints.HINT_CACHE_MODE, value = "IGNORE")
+    })
+    Stream<Language> streamAll();
+
+    @Query("SELECT l.id AS id, l.name AS name FROM Language l")
+    List<IdAndName> findAllIdsAndNames();
+
+    @Query("SELECT l.id AS id, l.name AS name FROM Language l "
+            + "WHERE l.name IN :names")
+    List<IdAndName> findIdsAndNamesByNames(
+            @Param("names") Collection<String> names
+    );
+
 }
@@ -0,0 +1,19 @@
+package com.example.geodata.service;
+
+import com.example.geodata.dto.CacheInfoDTO;
+import com.example.geodata.dto.CacheRegionDTO;
+import com.example.geodata.exceptions.ResourceNotFoundException;
+import java.util.List;
+import org.springframework.stereotype.Service;
+
+@Service
+public interface CacheService {
+
+    List<CacheInfoDTO> getAll();
+
+    List<CacheRegionDTO> getRegions();
+
+    CacheInfoDTO resize(String name, long maximumWeight)
+            throws ResourceNotFoundException;
+
+}
@@ -1,8 +1,16 @@
 package com.example.geodata.service;
 
+import com.example.geodata.dto.BulkChangeReport;
+import com.example.geodata.dto.BulkInsertReport;
+import com.example.geodata.dto.BulkUpsertReport;
 import com.example.geodata.dto.CityDTO;
+import com.example.geodata.dto.CityView;
+import com.example.geodata.dto.KeysetPage;
 import com.example.geodata.entity.City;
 import com.example.geodata.exceptions.ResourceNotFoundException;
+import com.example.geodata.service.ingest.IngestEngine;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.stereotype.Service;
@@ -10,12 +18,17 @@ import org.springframework.stereotype.Service;
 @Service
 public interface CityService {
 
-    List<City> getAll();
+    KeysetPage<CityView> getPage(Integer after, int limit);
+
+    /**
+     * Writes every city to {@code out} as newline-delimited JSON.
+     */
+    void export(OutputStream out) throws IOException;
 
     void deleteById(Integer id)
             throws ResourceNotFoundException;
 
-    Optional<City> findById(Integer id)
+    Optional<CityView> findById(Integer id)
             throws ResourceNotFoundException;
 
     City createCity(CityDTO cityDTO)
@@ -27,6 +40,12 @@ public interface CityService {
     City update(CityDTO cityDTO)
             throws ResourceNotFoundException;
 
-    void bulkInsert(List<CityDTO> cityDTOS);
+    BulkInsertReport bulkInsert(List<CityDTO> cityDTOS, IngestEngine engine);
+
+    BulkUpsertReport bulkUpsert(List<CityDTO> cityDTOS);
+
+    BulkChangeReport bulkDelete(List<Integer> ids);
+
+    BulkChangeReport bulkUpdate(List<CityDTO> cityDTOS);
 
 }
@@ -1,8 +1,13 @@
 package com.example.geodata.service;
 
+import com.example.geodata.dto.BulkChangeReport;
+import com.example.geodata.dto.BulkUpsertReport;
 import com.example.geodata.dto.CountryDTO;
+import com.example.geodata.dto.CountryView;
+import com.example.geodata.dto.KeysetPage;
 import com.example.geodata.entity.Country;
 import com.example.geodata.exceptions.ResourceNotFoundException;
+import com.example.geodata.service.ingest.IngestEngine;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.stereotype.Service;
@@ -10,9 +15,9 @@ import org.springframework.stereotype.Service;
 @Service
 public interface CountryService {
 
-    List<Country> getAll();
+    KeysetPage<CountryView> getPage(Integer after, int limit);
 
-    Optional<Country> findById(Integer id)
+    Optional<CountryView> findById(Integer id)
             throws ResourceNotFoundException;
 
     Country createCountry(CountryDTO countryDTO);
@@ -29,8 +34,14 @@ public interface CountryService {
     Country updateInfo(CountryDTO countryDTO)
             throws ResourceNotFoundException;
 
-    List<Country> findCountriesWithSpecifiedLanguage(String name) throws ResourceNotFoundException;
+    List<CountryView> findCountriesWithSpecifiedLanguage(String name) throws ResourceNotFoundException;
 
-    void bulkInsert(List<CountryDTO> countryDTOS);
+    void bulkInsert(List<CountryDTO> countryDTOS, IngestEngine engine);
+
+    BulkUpsertReport bulkUpsert(List<CountryDTO> countryDTOS);
+
+    BulkChangeReport bulkDelete(List<Integer> ids);
+
+    BulkChangeReport bulkUpdate(List<CountryDTO> countryDTOS);
 
 }
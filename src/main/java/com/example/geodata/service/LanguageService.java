@@ -1,8 +1,15 @@
 package com.example.geodata.service;
 
+import com.example.geodata.dto.BulkChangeReport;
+import com.example.geodata.dto.BulkUpsertReport;
+import com.example.geodata.dto.KeysetPage;
 import com.example.geodata.dto.LanguageDTO;
+import com.example.geodata.dto.LanguageView;
 import com.example.geodata.entity.Language;
 import com.example.geodata.exceptions.ResourceNotFoundException;
+import com.example.geodata.service.ingest.IngestEngine;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
 import java.util.Optional;
 import org.springframework.stereotype.Service;
@@ -10,7 +17,12 @@ import org.springframework.stereotype.Service;
 @Service
 public interface LanguageService {
 
-    List<Language> findAll();
+    KeysetPage<LanguageView> getPage(Integer after, int limit);
+
+    /**
+     * Writes every language to {@code out} as newline-delimited JSON.
+     */
+    void export(OutputStream out) throws IOException;
 
     Language createLanguage(LanguageDTO language);
 
@@ -20,9 +32,15 @@ public interface LanguageService {
     void deleteById(Integer id)
             throws ResourceNotFoundException;
 
-    Optional<Language> findById(Integer id)
+    Optional<LanguageView> findById(Integer id)
             throws ResourceNotFoundException;
 
-    void bulkInsert(List<LanguageDTO> languageDTOS);
+    void bulkInsert(List<LanguageDTO> languageDTOS, IngestEngine engine);
+
+    BulkUpsertReport bulkUpsert(List<LanguageDTO> languageDTOS);
+
+    BulkChangeReport bulkDelete(List<Integer> ids);
+
+    BulkChangeReport bulkUpdate(List<LanguageDTO> languageDTOS);
 
 }
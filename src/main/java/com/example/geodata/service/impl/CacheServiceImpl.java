@@ -0,0 +1,100 @@
+package com.example.geodata.service.impl;
+
+import com.example.geodata.aspects.AspectAnnotation;
+import com.example.geodata.cache.BoundedCache;
+import com.example.geodata.cache.CacheStats;
+import com.example.geodata.cache.LRUCacheCity;
+import com.example.geodata.cache.LRUCacheCountry;
+import com.example.geodata.cache.LRUCacheLanguage;
+import com.example.geodata.cache.SecondLevelCache;
+import com.example.geodata.dto.CacheInfoDTO;
+import com.example.geodata.dto.CacheRegionDTO;
+import com.example.geodata.exceptions.BadRequestException;
+import com.example.geodata.exceptions.ResourceNotFoundException;
+import com.example.geodata.service.CacheService;
+import io.micrometer.common.lang.NonNullApi;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.springframework.stereotype.Service;
+
+@NonNullApi
+@Service
+public class CacheServiceImpl implements CacheService {
+
+    private static final String NO_EXIST = "Cache don't exist with name =";
+
+    private final Map<String, BoundedCache<Integer, ?>> caches = new LinkedHashMap<>();
+
+    private final SecondLevelCache secondLevelCache;
+
+    public CacheServiceImpl(final LRUCacheCity cityCache,
+                            final LRUCacheCountry countryCache,
+                            final LRUCacheLanguage languageCache,
+                            final SecondLevelCache secondLevelCache) {
+        this.secondLevelCache = secondLevelCache;
+        caches.put("city", cityCache);
+        caches.put("country", countryCache);
+        caches.put("language", languageCache);
+    }
+
+    @Override
+    public List<CacheInfoDTO> getAll() {
+        return caches.entrySet().stream()
+                .map(entry -> toDTO(entry.getKey(), entry.getValue()))
+                .toList();
+    }
+
+    @Override
+    public List<CacheRegionDTO> getRegions() {
+        return secondLevelCache.statistics().stream()
+                .map(CacheServiceImpl::toDTO)
+                .toList();
+    }
+
+    @Override
+    @AspectAnnotation
+    public CacheInfoDTO resize(final String name, final long maximumWeight)
+            throws ResourceNotFoundException {
+        BoundedCache<Integer, ?> cache = caches.get(name);
+        if (cache == null) {
+            throw new ResourceNotFoundException(NO_EXIST + " " + name);
+        }
+        if (maximumWeight <= 0) {
+            throw new BadRequestException("Maximum weight must be positive.");
+        }
+        cache.setMaximumWeight(maximumWeight);
+        return toDTO(name, cache);
+    }
+
+    private CacheInfoDTO toDTO(final String name, final BoundedCache<Integer, ?> cache) {
+        CacheStats stats = cache.stats();
+        return CacheInfoDTO.builder()
+                .name(name)
+                .size(cache.size())
+                .weightedSize(cache.weightedSize())
+                .maximumWeight(cache.maximumWeight())
+                .hitCount(stats.hitCount())
+                .missCount(stats.missCount())
+                .hitRate(stats.hitRate())
+                .loadCount(stats.loadCount())
+                .averageLoadPenaltyNanos(stats.averageLoadPenalty())
+                .evictionCount(stats.evictionCount())
+                .invalidationCount(stats.invalidationCount())
+                .build();
+    }
+
+    private static CacheRegionDTO toDTO(final CacheRegionStatistics region) {
+        return CacheRegionDTO.builder()
+                .name(region.getRegionName())
+                .elementCount(region.getElementCountInMemory()
+                        == CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN
+                        ? null : region.getElementCountInMemory())
+                .hitCount(region.getHitCount())
+                .missCount(region.getMissCount())
+                .putCount(region.getPutCount())
+                .build();
+    }
+
+}
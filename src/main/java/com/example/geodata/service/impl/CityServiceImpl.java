@@ -1,27 +1,47 @@
 package com.example.geodata.service.impl;
 
 import com.example.geodata.aspects.AspectAnnotation;
+import com.example.geodata.cache.CacheInvalidator;
+import com.example.geodata.cache.CountryNameIndex;
 import com.example.geodata.cache.LRUCacheCity;
-import com.example.geodata.cache.LRUCacheCountry;
+import com.example.geodata.cache.NegativeCacheCity;
+import com.example.geodata.dto.BulkChangeReport;
+import com.example.geodata.dto.BulkInsertReport;
+import com.example.geodata.dto.BulkUpsertReport;
 import com.example.geodata.dto.CityDTO;
+import com.example.geodata.dto.CityView;
+import com.example.geodata.dto.KeysetPage;
 import com.example.geodata.entity.City;
 import com.example.geodata.entity.Country;
 import com.example.geodata.exceptions.BadRequestException;
 import com.example.geodata.exceptions.ResourceNotFoundException;
 import com.example.geodata.repository.CityRepository;
 import com.example.geodata.repository.CountryRepository;
+import com.example.geodata.repository.IdAndCountryId;
 import com.example.geodata.service.CityService;
+import com.example.geodata.service.ingest.BulkTable;
+import com.example.geodata.service.ingest.BulkUpserter;
+import com.example.geodata.service.ingest.ChunkedInserter;
+import com.example.geodata.service.ingest.IngestEngine;
+import com.example.geodata.service.ingest.UpsertResult;
+import com.example.geodata.service.ingest.UpsertTable;
+import com.example.geodata.service.utility.BulkUtility;
 import com.example.geodata.service.utility.CityDTOUtility;
+import com.example.geodata.service.utility.ExportUtility;
+import com.example.geodata.service.utility.PageUtility;
+import com.example.geodata.service.utility.ViewUtility;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.common.lang.NonNullApi;
-import jakarta.transaction.Transactional;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.stream.Stream;
 import lombok.AllArgsConstructor;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @NonNullApi
 @Service
@@ -30,24 +50,51 @@ public class CityServiceImpl implements CityService {
 
     private final CityRepository cityRepository;
     private final CountryRepository countryRepository;
-    private final JdbcTemplate jdbcTemplate;
+    private final ChunkedInserter chunkedInserter;
+    private final BulkUpserter bulkUpserter;
     private final LRUCacheCity cityCache;
-    private final LRUCacheCountry countryCache;
+    private final CacheInvalidator cacheInvalidator;
+    private final CountryNameIndex countryNames;
+    private final NegativeCacheCity missingCities;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
     private static final String NO_EXIST = "City don't exist with id =";
 
     @Override
-    public List<City> getAll() {
-        return cityRepository.findAll();
+    public KeysetPage<CityView> getPage(final Integer after, final int limit) {
+        List<CityView> rows = cityRepository
+                .findByIdGreaterThanOrderByIdAsc(after, PageUtility.fetchLimit(limit))
+                .stream()
+                .map(ViewUtility::toView)
+                .toList();
+        return PageUtility.toPage(rows, limit, CityView::id);
+    }
+
+    /**
+     * Streams rows from a database cursor, detaching each one once it is
+     * mapped so the persistence context stays small however large the table.
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public void export(final OutputStream out) throws IOException {
+        try (Stream<City> cities = cityRepository.streamAll()) {
+            ExportUtility.writeNdjson(objectMapper,
+                    cities.map(this::detachedView), out);
+        }
     }
 
+    /**
+     * The caches are evicted once the delete commits, see
+     * {@link CacheInvalidator}.
+     */
     @Override
+    @Transactional
     @AspectAnnotation
     public void deleteById(final Integer id)
             throws ResourceNotFoundException {
         Optional<City> city = cityRepository.findById(id);
         if (city.isPresent()) {
-            cityCache.remove(id);
-            countryCache.remove(city.get().getCountry().getId());
+            cacheInvalidator.cityDeleted(id, city.get().getCountry().getId());
             cityRepository.deleteById(id);
         } else {
             throw new ResourceNotFoundException(NO_EXIST + " " + id);
@@ -56,15 +103,28 @@ public class CityServiceImpl implements CityService {
 
     @Override
     @AspectAnnotation
-    public Optional<City> findById(final Integer id)
+    public Optional<CityView> findById(final Integer id)
             throws ResourceNotFoundException {
-        Optional<City> city = cityCache.get(id);
+        Optional<CityView> city = cityCache.getOrLoad(id, this::loadCity);
         if (city.isEmpty()) {
-            city = cityRepository.findById(id);
-            if (city.isEmpty()) {
-                throw new ResourceNotFoundException(NO_EXIST + " " + id);
-            }
-            cityCache.put(id, city.get());
+            throw missingCities.notFound(id, NO_EXIST + " " + id);
+        }
+        return city;
+    }
+
+    /**
+     * The stamp is taken before the query, so a miss read before a
+     * concurrent insert committed is not recorded.
+     */
+    private Optional<CityView> loadCity(final Integer id) {
+        if (missingCities.isAbsent(id)) {
+            return Optional.empty();
+        }
+        long stamp = missingCities.stamp();
+        Optional<CityView> city = cityRepository.findById(id)
+                .map(ViewUtility::toView);
+        if (city.isEmpty()) {
+            missingCities.markAbsent(id, NO_EXIST + " " + id, stamp);
         }
         return city;
     }
@@ -73,8 +133,7 @@ public class CityServiceImpl implements CityService {
     @AspectAnnotation
     public City createCity(final CityDTO cityDTO)
             throws ResourceNotFoundException {
-        Optional<Country> country = countryRepository
-                .findCountryByName(cityDTO.countryName());
+        Optional<Country> country = findCountry(cityDTO.countryName());
         if (country.isPresent()) {
             if (cityDTO.name() == null || cityDTO.longitude() == null
                     || cityDTO.latitude() == null) {
@@ -84,8 +143,8 @@ public class CityServiceImpl implements CityService {
             }
             City city = CityDTOUtility.buildCityFromDTO(cityDTO, country.get());
             cityRepository.save(city);
-            cityCache.put(city.getId(), city);
-            countryCache.remove(city.getCountry().getId());
+            cityCache.put(city.getId(), ViewUtility.toView(city));
+            cacheInvalidator.cityCreated(city.getId(), city.getCountry().getId());
             return city;
         } else {
             throw new ResourceNotFoundException("Country with name :: "
@@ -93,19 +152,40 @@ public class CityServiceImpl implements CityService {
         }
     }
 
+    /**
+     * Resolves the name through the index, then reads the row, since the
+     * index may still hold a country another node has deleted. Such an
+     * entry is dropped and the name is looked up in the database instead.
+     */
+    private Optional<Country> findCountry(final String name) {
+        Optional<Integer> indexed = countryNames.find(name);
+        if (indexed.isEmpty()) {
+            return Optional.empty();
+        }
+        Optional<Country> country = countryRepository.findById(indexed.get());
+        if (country.isEmpty()) {
+            countryNames.remove(indexed.get());
+            country = countryRepository.findCountryByName(name);
+            country.ifPresent(found -> countryNames.put(found.getId(), name));
+        }
+        return country;
+    }
+
     @Override
     @AspectAnnotation
     public City replaceCountry(final CityDTO cityDTO)
             throws ResourceNotFoundException {
         Optional<City> city = cityRepository.findById(cityDTO.id());
         if (city.isPresent()) {
-            Optional<Country> country = countryRepository
-                    .findCountryByName(cityDTO.countryName());
+            Optional<Country> country = findCountry(cityDTO.countryName());
             if (country.isPresent()) {
+                Integer previousCountryId = city.get().getCountry() != null
+                        ? city.get().getCountry().getId() : null;
                 city.get().setCountry(country.get());
                 cityRepository.save(city.get());
-                cityCache.put(city.get().getId(), city.get());
-                countryCache.remove(city.get().getCountry().getId());
+                cityCache.put(city.get().getId(), ViewUtility.toView(city.get()));
+                cacheInvalidator.cityUpdated(previousCountryId,
+                        country.get().getId());
                 return city.get();
             } else {
                 throw new ResourceNotFoundException("Country with name :: "
@@ -130,46 +210,122 @@ public class CityServiceImpl implements CityService {
             if (cityDTO.name() != null) {
                 city.get().setName(cityDTO.name());
             }
-            countryCache.remove(city.get().getCountry().getId());
-            cityCache.put(city.get().getId(), city.get());
+            cityCache.put(city.get().getId(), ViewUtility.toView(city.get()));
             cityRepository.save(city.get());
+            Integer countryId = city.get().getCountry().getId();
+            cacheInvalidator.cityUpdated(countryId, countryId);
             return city.get();
         } else {
             throw new ResourceNotFoundException(NO_EXIST + " " + cityDTO.id());
         }
     }
 
+    /**
+     * Not transactional: every chunk commits on its own, so rows written
+     * before a failure are kept and reported.
+     */
+    @Override
+    public BulkInsertReport bulkInsert(final List<CityDTO> cityDTOS,
+                                       final IngestEngine engine) {
+        Map<String, Integer> countryIds = findCountryIds(cityDTOS);
+        BulkInsertReport report = chunkedInserter.insert(engine,
+                BulkTable.CITIES, cityDTOS,
+                cityDTO -> toRow(cityDTO, countryIds));
+        if (report.inserted() > 0) {
+            cacheInvalidator.citiesInserted(countryIds.values().stream()
+                    .distinct()
+                    .toList());
+        }
+        return report;
+    }
+
+    /**
+     * Unlike {@link #bulkInsert}, one transaction: a city that cannot be
+     * resolved rejects the whole request.
+     */
+    @Override
     @Transactional
+    public BulkUpsertReport bulkUpsert(final List<CityDTO> cityDTOS) {
+        Map<String, Integer> countryIds = findCountryIds(cityDTOS);
+        UpsertResult result = bulkUpserter.upsert(UpsertTable.CITIES,
+                cityDTOS.stream()
+                        .map(cityDTO -> toRow(cityDTO, countryIds))
+                        .toList());
+        cacheInvalidator.citiesUpserted(result.ids(true), result.ids(false),
+                result.changed().stream()
+                        .map(row -> (Integer) row.value(1))
+                        .distinct()
+                        .toList());
+        return result.report();
+    }
+
     @Override
-    public void bulkInsert(List<CityDTO> cityDTOS) {
-        List<City> cities = cityDTOS.stream()
-                .map(cityDTO -> {
-                    Optional<Country> country = countryRepository
-                            .findCountryByName(cityDTO.countryName());
-                    return country.map(countryObj -> CityDTOUtility.
-                            buildCityFromDTO(cityDTO, countryObj));
-                })
-                .filter(Optional::isPresent)
-                .map(Optional::get)
+    @Transactional
+    public BulkChangeReport bulkDelete(final List<Integer> ids) {
+        Integer[] requested = BulkUtility.toIdArray(ids);
+        List<IdAndCountryId> deleted = cityRepository.deleteByIds(requested);
+        List<Integer> deletedIds = deleted.stream()
+                .map(IdAndCountryId::getId)
                 .toList();
+        cacheInvalidator.citiesDeleted(deletedIds, deleted.stream()
+                .map(IdAndCountryId::getCountryId)
+                .distinct()
+                .toList());
+        return BulkUtility.report(requested, deletedIds);
+    }
 
-        jdbcTemplate.batchUpdate("INSERT into cities"
-                + " (city_name, fk_cities_countries, latitude, longitude)"
-                + " VALUES (?, ?, ?, ?)", new BatchPreparedStatementSetter() {
-            @Override
-            public void setValues(PreparedStatement preparedStatement, int i)
-                    throws SQLException {
-                preparedStatement.setString(1, cities.get(i).getName());
-                preparedStatement.setInt(2, cities.get(i).getCountry().getId());
-                preparedStatement.setDouble(3, cities.get(i).getLatitude());
-                preparedStatement.setDouble(4, cities.get(i).getLongitude());
-            }
+    /**
+     * Patches name, latitude and longitude like {@link #update}; moving a
+     * city to another country stays a single-city operation.
+     */
+    @Override
+    @Transactional
+    public BulkChangeReport bulkUpdate(final List<CityDTO> cityDTOS) {
+        List<CityDTO> patches = BulkUtility.lastPerId(cityDTOS, CityDTO::id);
+        Integer[] requested = patches.stream()
+                .map(CityDTO::id)
+                .toArray(Integer[]::new);
+        List<IdAndCountryId> updated = cityRepository.updateAll(requested,
+                patches.stream().map(CityDTO::name).toArray(String[]::new),
+                patches.stream().map(CityDTO::latitude).toArray(Double[]::new),
+                patches.stream().map(CityDTO::longitude).toArray(Double[]::new));
+        List<Integer> updatedIds = updated.stream()
+                .map(IdAndCountryId::getId)
+                .toList();
+        cacheInvalidator.citiesUpserted(List.of(), updatedIds, updated.stream()
+                .map(IdAndCountryId::getCountryId)
+                .distinct()
+                .toList());
+        return BulkUtility.report(requested, updatedIds);
+    }
 
-            @Override
-            public int getBatchSize() {
-                return cities.size();
-            }
-        });
+    private Map<String, Integer> findCountryIds(final List<CityDTO> cityDTOS) {
+        return countryNames.findAll(cityDTOS.stream()
+                .map(CityDTO::countryName)
+                .toList());
+    }
+
+    private Object[] toRow(final CityDTO cityDTO,
+                           final Map<String, Integer> countryIds) {
+        Integer countryId = countryIds.get(cityDTO.countryName());
+        if (countryId == null) {
+            throw new BadRequestException("Country with name :: "
+                    + cityDTO.countryName() + " not found.");
+        }
+        if (cityDTO.name() == null || cityDTO.longitude() == null
+                || cityDTO.latitude() == null) {
+            throw new BadRequestException("All fields: "
+                    + "[name, latitude, longitude]"
+                    + "must be provided.");
+        }
+        return new Object[] {cityDTO.name(), countryId, cityDTO.latitude(),
+                cityDTO.longitude()};
+    }
+
+    private CityView detachedView(final City city) {
+        CityView view = ViewUtility.toView(city);
+        entityManager.detach(city);
+        return view;
     }
 
 }
@@ -1,28 +1,47 @@
 package com.example.geodata.service.impl;
 
 import com.example.geodata.aspects.AspectAnnotation;
-import com.example.geodata.cache.LRUCacheCity;
+import com.example.geodata.cache.CacheInvalidator;
+import com.example.geodata.cache.CountriesByLanguageCache;
+import com.example.geodata.cache.CountryNameIndex;
 import com.example.geodata.cache.LRUCacheCountry;
+import com.example.geodata.cache.LanguageNameIndex;
+import com.example.geodata.dto.BulkChangeReport;
+import com.example.geodata.dto.BulkUpsertReport;
 import com.example.geodata.dto.CountryDTO;
-import com.example.geodata.entity.City;
+import com.example.geodata.dto.CountryView;
+import com.example.geodata.dto.KeysetPage;
 import com.example.geodata.entity.Country;
 import com.example.geodata.entity.Language;
 import com.example.geodata.exceptions.BadRequestException;
 import com.example.geodata.exceptions.ResourceNotFoundException;
+import com.example.geodata.repository.CityRepository;
 import com.example.geodata.repository.CountryRepository;
+import com.example.geodata.repository.IdAndName;
 import com.example.geodata.repository.LanguageRepository;
 import com.example.geodata.service.CountryService;
+import com.example.geodata.service.ingest.BulkInserter;
+import com.example.geodata.service.ingest.BulkTable;
+import com.example.geodata.service.ingest.BulkUpserter;
+import com.example.geodata.service.ingest.IngestEngine;
+import com.example.geodata.service.ingest.UpsertResult;
+import com.example.geodata.service.ingest.UpsertTable;
+import com.example.geodata.service.utility.BulkUtility;
 import com.example.geodata.service.utility.CountryDTOUtility;
+import com.example.geodata.service.utility.PageUtility;
+import com.example.geodata.service.utility.ViewUtility;
 import io.micrometer.common.lang.NonNullApi;
-import jakarta.transaction.Transactional;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import lombok.AllArgsConstructor;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @NonNullApi
 @Service
@@ -30,24 +49,42 @@ import org.springframework.stereotype.Service;
 public class CountryServiceImpl implements CountryService {
 
     private final CountryRepository countryRepository;
+    private final CityRepository cityRepository;
     private final LanguageRepository languageRepository;
-    private final LRUCacheCity cityCache;
-    private final JdbcTemplate jdbcTemplate;
+    private final CacheInvalidator cacheInvalidator;
+    private final BulkInserter bulkInserter;
+    private final BulkUpserter bulkUpserter;
     private final LRUCacheCountry countryCache;
+    private final CountriesByLanguageCache countriesByLanguage;
+    private final CountryNameIndex countryNames;
+    private final LanguageNameIndex languageNames;
     private static final String NO_EXIST = "Country don't exist with id =";
     private static final String ALREADY_EXIST = "Country already exist with name =";
 
     @Override
-    public List<Country> getAll() {
-        return countryRepository.findAll();
+    public KeysetPage<CountryView> getPage(final Integer after, final int limit) {
+        KeysetPage<Integer> ids = PageUtility.toPage(countryRepository
+                .findIdsAfter(after, PageUtility.fetchLimit(limit)),
+                limit, Function.identity());
+        Map<Integer, CountryView> countries = ids.items().isEmpty() ? Map.of()
+                : loadCountries(Set.copyOf(ids.items()));
+        return new KeysetPage<>(ids.items().stream()
+                .map(countries::get)
+                .filter(Objects::nonNull)
+                .toList(), ids.nextCursor());
     }
 
     @Override
     @AspectAnnotation
-    public Optional<Country> findById(final Integer id)
+    public Optional<CountryView> findById(final Integer id)
             throws ResourceNotFoundException {
-        //Optional<Country> country = countryCache.get(id);
-        return countryRepository.findById(id);
+        Optional<CountryView> country = countryCache.getOrLoad(id,
+                key -> countryRepository.findWithCitiesAndLanguagesById(key)
+                        .map(ViewUtility::toView));
+        if (country.isEmpty()) {
+            throw new ResourceNotFoundException(NO_EXIST + " " + id);
+        }
+        return country;
     }
 
     @Override
@@ -68,22 +105,21 @@ public class CountryServiceImpl implements CountryService {
         Country country = CountryDTOUtility
                 .buildCountryFromCountryDTO(countryDTO);
         countryRepository.save(country);
-        countryCache.put(country.getId(), country);
+        countryCache.put(country.getId(), ViewUtility.toView(country));
+        countryNames.put(country.getId(), country.getName());
         return country;
     }
 
+    /**
+     * Same statements as {@link #bulkDelete}. Removing the entity would
+     * cascade to its cities and load every one of them first.
+     */
     @Override
     @AspectAnnotation
+    @Transactional
     public void deleteById(final Integer id)
             throws ResourceNotFoundException {
-        Optional<Country> country = countryRepository.findById(id);
-        if (country.isPresent()) {
-            countryCache.remove(id);
-            for (City city : country.get().getCities()) {
-                cityCache.remove(city.getId());
-            }
-            countryRepository.deleteById(id);
-        } else {
+        if (deleteCountries(new Integer[] {id}).isEmpty()) {
             throw new ResourceNotFoundException(NO_EXIST + " " + id);
         }
     }
@@ -106,7 +142,8 @@ public class CountryServiceImpl implements CountryService {
                     country.get().addLanguage(language);
                 }
                 countryRepository.save(country.get());
-                countryCache.put(country.get().getId(), country.get());
+                countryCache.remove(country.get().getId());
+                cacheInvalidator.countryLanguagesChanged(languageExist);
                 return country.get();
             }
             throw new ResourceNotFoundException(NO_EXIST
@@ -131,7 +168,8 @@ public class CountryServiceImpl implements CountryService {
                 country.get().removeLanguage(language);
             }
             countryRepository.save(country.get());
-            countryCache.put(country.get().getId(), country.get());
+            countryCache.remove(country.get().getId());
+            cacheInvalidator.countryLanguagesChanged(languages);
             return country.get();
         }
         throw new ResourceNotFoundException(NO_EXIST + " " + countryDTO.id());
@@ -161,53 +199,155 @@ public class CountryServiceImpl implements CountryService {
                 country.get().setName(countryDTO.name());
             }
             countryRepository.save(country.get());
-            countryCache.put(country.get().getId(), country.get());
+            countryCache.remove(country.get().getId());
+            countryNames.put(country.get().getId(), country.get().getName());
             return country.get();
         }
         throw new ResourceNotFoundException(NO_EXIST + " " + countryDTO.id());
     }
 
     @Override
-    public List<Country> findCountriesWithSpecifiedLanguage(final String name)
+    public List<CountryView> findCountriesWithSpecifiedLanguage(final String name)
             throws ResourceNotFoundException {
-        if (Boolean.FALSE.equals(languageRepository
-                .existsByName(name))) {
+        Optional<List<Integer>> ids = countriesByLanguage
+                .getOrLoad(name, this::loadCountryIds);
+        if (ids.isEmpty()) {
             throw new ResourceNotFoundException("Language don't"
                     + " exist with name = " + name);
         }
-        return countryRepository
-                .findAllCountriesContainingSpecifiedLanguage(name);
+        return List.copyOf(countryCache
+                .getAll(ids.get(), this::loadCountries).values());
+    }
+
+    /**
+     * Empty when no language has this name; a language that no country
+     * speaks yields an empty list, which is cached.
+     */
+    private Optional<List<Integer>> loadCountryIds(final String languageName) {
+        if (languageNames.find(languageName).isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(List.copyOf(countryRepository
+                .findCountryIdsContainingSpecifiedLanguage(languageName)));
+    }
+
+    private Map<Integer, CountryView> loadCountries(final Set<Integer> ids) {
+        return countryRepository.findWithCitiesAndLanguagesByIdIn(ids).stream()
+                .map(ViewUtility::toView)
+                .collect(Collectors.toMap(CountryView::id, Function.identity(),
+                        (first, duplicate) -> first));
     }
 
     @Transactional
     @Override
-    public void bulkInsert(List<CountryDTO> countryDTOS) {
+    public void bulkInsert(final List<CountryDTO> countryDTOS,
+                           final IngestEngine engine) {
         List<Country> countries = countryDTOS.stream()
                 .map(CountryDTOUtility::buildCountryFromCountryDTO)
                 .toList();
+        BulkUtility.rejectTakenKeys(ALREADY_EXIST, countries.stream()
+                .map(Country::getName)
+                .toList(), countryRepository::findNamesIn);
+        bulkInserter.insert(engine, BulkTable.COUNTRIES, countries.stream()
+                .map(country -> new Object[] {country.getName(),
+                        country.getNationality(), country.getLatitude(),
+                        country.getLongitude()})
+                .toList());
+        countryNames.refresh(countries.stream()
+                .map(Country::getName)
+                .toList());
+    }
 
-        jdbcTemplate.batchUpdate("INSERT into countries"
-                        + " (country_name, nationality, latitude, longitude)"
-                        + " VALUES (?, ?, ?, ?)",
-                new BatchPreparedStatementSetter() {
-                    @Override
-                    public void setValues(PreparedStatement ps, int i)
-                            throws SQLException {
-                        ps.setString(1, countries
-                                .get(i).getName());
-                        ps.setString(2, countries
-                                .get(i).getNationality());
-                        ps.setDouble(3, countries
-                                .get(i).getLatitude());
-                        ps.setDouble(4, countries
-                                .get(i).getLongitude());
+    @Transactional
+    @Override
+    public BulkUpsertReport bulkUpsert(final List<CountryDTO> countryDTOS) {
+        List<Object[]> rows = countryDTOS.stream()
+                .map(countryDTO -> {
+                    if (countryDTO.name() == null
+                            || countryDTO.nationality() == null
+                            || countryDTO.latitude() == null
+                            || countryDTO.longitude() == null) {
+                        throw new BadRequestException("All fields: "
+                                + "[name, nationality, latitude, longitude] "
+                                + "must be provided.");
                     }
+                    return new Object[] {countryDTO.name(),
+                            countryDTO.nationality(), countryDTO.latitude(),
+                            countryDTO.longitude()};
+                })
+                .toList();
+        UpsertResult result = bulkUpserter.upsert(UpsertTable.COUNTRIES, rows);
+        result.changed().stream()
+                .filter(UpsertResult.Row::inserted)
+                .forEach(row -> countryNames.put(row.id(), (String) row.value(0)));
+        cacheInvalidator.countriesUpdated(result.ids(false));
+        return result.report();
+    }
 
-                    @Override
-                    public int getBatchSize() {
-                        return countries.size();
-                    }
-                });
+    @Transactional
+    @Override
+    public BulkChangeReport bulkDelete(final List<Integer> ids) {
+        Integer[] requested = BulkUtility.toIdArray(ids);
+        return BulkUtility.report(requested, deleteCountries(requested));
+    }
+
+    /**
+     * Three statements however many countries: their cities, their
+     * language links, then the countries themselves.
+     */
+    private List<Integer> deleteCountries(final Integer[] ids) {
+        List<Integer> cityIds = cityRepository.deleteByCountryIds(ids);
+        List<Integer> languageIds = countryRepository
+                .deleteLanguageLinksByCountryIds(ids).stream()
+                .distinct()
+                .toList();
+        List<Integer> deleted = countryRepository.deleteByIds(ids);
+        cacheInvalidator.countriesDeleted(deleted, cityIds, languageIds,
+                languageIds.stream()
+                        .map(languageNames::nameOf)
+                        .flatMap(Optional::stream)
+                        .toList());
+        deleted.forEach(countryNames::remove);
+        return deleted;
+    }
+
+    @Transactional
+    @Override
+    public BulkChangeReport bulkUpdate(final List<CountryDTO> countryDTOS) {
+        List<CountryDTO> patches = BulkUtility.lastPerId(countryDTOS,
+                CountryDTO::id);
+        Map<String, Integer> idsByName = new HashMap<>();
+        for (CountryDTO patch : patches) {
+            if (patch.name() != null
+                    && idsByName.putIfAbsent(patch.name(), patch.id()) != null) {
+                throw new BadRequestException(ALREADY_EXIST
+                        + " " + patch.name());
+            }
+        }
+        if (!idsByName.isEmpty()) {
+            for (IdAndName row : countryRepository
+                    .findIdsAndNamesByNames(idsByName.keySet())) {
+                if (!row.getId().equals(idsByName.get(row.getName()))) {
+                    throw new BadRequestException(ALREADY_EXIST
+                            + " " + row.getName());
+                }
+            }
+        }
+        Integer[] requested = patches.stream()
+                .map(CountryDTO::id)
+                .toArray(Integer[]::new);
+        List<IdAndName> updated = countryRepository.updateAll(requested,
+                patches.stream().map(CountryDTO::name).toArray(String[]::new),
+                patches.stream().map(CountryDTO::nationality)
+                        .toArray(String[]::new),
+                patches.stream().map(CountryDTO::latitude).toArray(Double[]::new),
+                patches.stream().map(CountryDTO::longitude).toArray(Double[]::new));
+        updated.forEach(row -> countryNames.put(row.getId(), row.getName()));
+        List<Integer> updatedIds = updated.stream()
+                .map(IdAndName::getId)
+                .toList();
+        cacheInvalidator.countriesUpdated(updatedIds);
+        return BulkUtility.report(requested, updatedIds);
     }
 
 }
@@ -1,26 +1,46 @@
 package com.example.geodata.service.impl;
 
 import com.example.geodata.aspects.AspectAnnotation;
-import com.example.geodata.cache.LRUCacheCountry;
+import com.example.geodata.cache.CacheInvalidator;
 import com.example.geodata.cache.LRUCacheLanguage;
+import com.example.geodata.cache.LanguageNameIndex;
+import com.example.geodata.cache.NegativeCacheLanguage;
+import com.example.geodata.dto.BulkChangeReport;
+import com.example.geodata.dto.BulkUpsertReport;
+import com.example.geodata.dto.KeysetPage;
 import com.example.geodata.dto.LanguageDTO;
+import com.example.geodata.dto.LanguageView;
 import com.example.geodata.entity.Country;
 import com.example.geodata.entity.Language;
 import com.example.geodata.exceptions.BadRequestException;
 import com.example.geodata.exceptions.ResourceNotFoundException;
+import com.example.geodata.repository.CountryRepository;
+import com.example.geodata.repository.IdAndName;
 import com.example.geodata.repository.LanguageRepository;
 import com.example.geodata.service.LanguageService;
+import com.example.geodata.service.ingest.BulkInserter;
+import com.example.geodata.service.ingest.BulkTable;
+import com.example.geodata.service.ingest.BulkUpserter;
+import com.example.geodata.service.ingest.IngestEngine;
+import com.example.geodata.service.ingest.UpsertResult;
+import com.example.geodata.service.ingest.UpsertTable;
+import com.example.geodata.service.utility.BulkUtility;
+import com.example.geodata.service.utility.ExportUtility;
 import com.example.geodata.service.utility.LanguageDTOUtility;
+import com.example.geodata.service.utility.PageUtility;
+import com.example.geodata.service.utility.ViewUtility;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import io.micrometer.common.lang.NonNullApi;
-import jakarta.transaction.Transactional;
-import java.sql.PreparedStatement;
-import java.sql.SQLException;
+import jakarta.persistence.EntityManager;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 import lombok.AllArgsConstructor;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
-import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 @NonNullApi
 @Service
@@ -28,14 +48,35 @@ import org.springframework.stereotype.Service;
 public class LanguageServiceImpl implements LanguageService {
 
     private final LanguageRepository languageRepository;
-    private final LRUCacheCountry countryCache;
+    private final CountryRepository countryRepository;
+    private final CacheInvalidator cacheInvalidator;
     private final LRUCacheLanguage languageCache;
-    private final JdbcTemplate jdbcTemplate;
+    private final BulkInserter bulkInserter;
+    private final BulkUpserter bulkUpserter;
+    private final NegativeCacheLanguage missingLanguages;
+    private final LanguageNameIndex languageNames;
+    private final EntityManager entityManager;
+    private final ObjectMapper objectMapper;
     private static final String NO_EXIST = "Language don't exist with id =";
+    private static final String CODE_EXISTS = "Language already exist with code =";
 
     @Override
-    public List<Language> findAll() {
-        return languageRepository.findAll();
+    public KeysetPage<LanguageView> getPage(final Integer after, final int limit) {
+        List<LanguageView> rows = languageRepository
+                .findByIdGreaterThanOrderByIdAsc(after, PageUtility.fetchLimit(limit))
+                .stream()
+                .map(ViewUtility::toView)
+                .toList();
+        return PageUtility.toPage(rows, limit, LanguageView::id);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public void export(final OutputStream out) throws IOException {
+        try (Stream<Language> languages = languageRepository.streamAll()) {
+            ExportUtility.writeNdjson(objectMapper,
+                    languages.map(this::detachedView), out);
+        }
     }
 
     @Override
@@ -49,7 +90,9 @@ public class LanguageServiceImpl implements LanguageService {
                     + "must be provided.");
         }
         languageRepository.save(language);
-        languageCache.put(language.getId(), language);
+        languageCache.put(language.getId(), ViewUtility.toView(language));
+        languageNames.put(language.getId(), language.getName());
+        cacheInvalidator.languageCreated(language.getId());
         return language;
     }
 
@@ -66,18 +109,27 @@ public class LanguageServiceImpl implements LanguageService {
         if (languageDTO.code() != null) {
             language.get().setCode(languageDTO.code());
         }
+        String previousName = language.get().getName();
         if (languageDTO.name() != null) {
             language.get().setName(languageDTO.name());
         }
         languageRepository.save(language.get());
-        for (Country country : language.get().getCountries()) {
-            countryCache.remove(country.getId());
-        }
-        languageCache.put(language.get().getId(), language.get());
+        languageCache.put(language.get().getId(),
+                ViewUtility.toView(language.get()));
+        languageNames.put(language.get().getId(), language.get().getName());
+        cacheInvalidator.languageUpdated(previousName, language.get().getName(),
+                language.get().getCountries().stream()
+                        .map(Country::getId)
+                        .toList());
         return language.get();
     }
 
+    /**
+     * The caches are evicted once the delete commits, see
+     * {@link CacheInvalidator}.
+     */
     @Override
+    @Transactional
     @AspectAnnotation
     public void deleteById(final Integer id)
             throws ResourceNotFoundException {
@@ -85,11 +137,10 @@ public class LanguageServiceImpl implements LanguageService {
         if (language.isPresent()) {
             List<Integer> countriesIds = languageRepository
                     .deleteLanguageByIdAndReturnCountryIds(id);
-            for (Integer countryId : countriesIds) {
-                countryCache.remove(countryId);
-            }
-            languageCache.remove(id);
+            cacheInvalidator.languageDeleted(id, language.get().getName(),
+                    countriesIds);
             languageRepository.deleteById(id);
+            languageNames.remove(id);
         } else {
             throw new ResourceNotFoundException(NO_EXIST + " " + id);
         }
@@ -97,42 +148,129 @@ public class LanguageServiceImpl implements LanguageService {
 
     @Override
     @AspectAnnotation
-    public Optional<Language> findById(final Integer id)
+    public Optional<LanguageView> findById(final Integer id)
             throws ResourceNotFoundException {
-        Optional<Language> language = languageCache.get(id);
+        Optional<LanguageView> language = languageCache.getOrLoad(id,
+                this::loadLanguage);
         if (language.isEmpty()) {
-            language = languageRepository.findById(id);
-            if (language.isEmpty()) {
-                throw new ResourceNotFoundException(NO_EXIST + " " + id);
-            }
-            languageCache.put(id, language.get());
+            throw missingLanguages.notFound(id, NO_EXIST + " " + id);
+        }
+        return language;
+    }
+
+    /**
+     * See {@code CityServiceImpl#loadCity}.
+     */
+    private Optional<LanguageView> loadLanguage(final Integer id) {
+        if (missingLanguages.isAbsent(id)) {
+            return Optional.empty();
+        }
+        long stamp = missingLanguages.stamp();
+        Optional<LanguageView> language = languageRepository.findById(id)
+                .map(ViewUtility::toView);
+        if (language.isEmpty()) {
+            missingLanguages.markAbsent(id, NO_EXIST + " " + id, stamp);
         }
         return language;
     }
 
     @Transactional
     @Override
-    public void bulkInsert(List<LanguageDTO> languageDTOS) {
+    public void bulkInsert(final List<LanguageDTO> languageDTOS,
+                           final IngestEngine engine) {
         List<Language> languages = languageDTOS.stream()
                 .map(LanguageDTOUtility::buildLanguageFromLanguageDTO)
                 .toList();
-        jdbcTemplate.batchUpdate("INSERT into languages"
-                        + " (language_name, language_code)"
-                        + " VALUES (?, ?)",
-                new BatchPreparedStatementSetter() {
-                    @Override
-                    public void setValues(PreparedStatement preparedStatement, int i)
-                            throws SQLException {
-                        preparedStatement.setString(1, languages
-                                .get(i).getName());
-                        preparedStatement.setString(2, languages
-                                .get(i).getCode());
-                    }
+        BulkUtility.rejectTakenKeys(CODE_EXISTS, languages.stream()
+                .map(Language::getCode)
+                .toList(), languageRepository::findCodesIn);
+        bulkInserter.insert(engine, BulkTable.LANGUAGES, languages.stream()
+                .map(language -> new Object[] {language.getName(),
+                        language.getCode()})
+                .toList());
+        languageNames.refresh(languages.stream()
+                .map(Language::getName)
+                .toList());
+        cacheInvalidator.languagesInserted();
+    }
 
-                    @Override
-                    public int getBatchSize() {
-                        return languages.size();
+    @Transactional
+    @Override
+    public BulkUpsertReport bulkUpsert(final List<LanguageDTO> languageDTOS) {
+        List<Object[]> rows = languageDTOS.stream()
+                .map(languageDTO -> {
+                    if (languageDTO.name() == null || languageDTO.code() == null) {
+                        throw new BadRequestException("All fields: "
+                                + "[name, code] must be provided.");
                     }
-                });
+                    return new Object[] {languageDTO.name(), languageDTO.code()};
+                })
+                .toList();
+        UpsertResult result = bulkUpserter.upsert(UpsertTable.LANGUAGES, rows);
+        List<String> names = new ArrayList<>();
+        for (UpsertResult.Row row : result.changed()) {
+            if (!row.inserted()) {
+                languageNames.nameOf(row.id()).ifPresent(names::add);
+                names.add((String) row.value(0));
+            }
+            languageNames.put(row.id(), (String) row.value(0));
+        }
+        List<Integer> updatedIds = result.ids(false);
+        cacheInvalidator.languagesUpserted(result.ids(true), updatedIds, names,
+                updatedIds.isEmpty() ? List.of()
+                        : countryRepository.findCountryIdsByLanguageIds(updatedIds));
+        return result.report();
+    }
+
+    @Transactional
+    @Override
+    public BulkChangeReport bulkDelete(final List<Integer> ids) {
+        Integer[] requested = BulkUtility.toIdArray(ids);
+        List<Integer> countryIds = languageRepository
+                .deleteCountryLinksByLanguageIds(requested).stream()
+                .distinct()
+                .toList();
+        List<IdAndName> deleted = languageRepository.deleteByIds(requested);
+        List<Integer> deletedIds = deleted.stream()
+                .map(IdAndName::getId)
+                .toList();
+        cacheInvalidator.languagesDeleted(deletedIds, deleted.stream()
+                .map(IdAndName::getName)
+                .toList(), countryIds);
+        deletedIds.forEach(languageNames::remove);
+        return BulkUtility.report(requested, deletedIds);
     }
+
+    @Transactional
+    @Override
+    public BulkChangeReport bulkUpdate(final List<LanguageDTO> languageDTOS) {
+        List<LanguageDTO> patches = BulkUtility.lastPerId(languageDTOS,
+                LanguageDTO::id);
+        Integer[] requested = patches.stream()
+                .map(LanguageDTO::id)
+                .toArray(Integer[]::new);
+        List<IdAndName> updated = languageRepository.updateAll(requested,
+                patches.stream().map(LanguageDTO::name).toArray(String[]::new),
+                patches.stream().map(LanguageDTO::code).toArray(String[]::new));
+        List<String> names = new ArrayList<>();
+        for (IdAndName row : updated) {
+            languageNames.nameOf(row.getId()).ifPresent(names::add);
+            names.add(row.getName());
+            languageNames.put(row.getId(), row.getName());
+        }
+        List<Integer> updatedIds = updated.stream()
+                .map(IdAndName::getId)
+                .toList();
+        cacheInvalidator.languagesUpserted(List.of(), updatedIds, names,
+                updatedIds.isEmpty() ? List.of()
+                        : countryRepository.findCountryIdsByLanguageIds(updatedIds));
+        return BulkUtility.report(requested, updatedIds);
+    }
+
+    private LanguageView detachedView(final Language language) {
+        LanguageView view = ViewUtility.toView(language);
+        entityManager.detach(language);
+        return view;
+    }
+
 }
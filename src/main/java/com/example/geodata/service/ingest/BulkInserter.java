@@ -0,0 +1,156 @@
+package com.example.geodata.service.ingest;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.List;
+import lombok.AllArgsConstructor;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Writes rows into a {@link BulkTable} with the requested
+ * {@link IngestEngine}. Every engine runs on the connection of the
+ * surrounding transaction, so a failed write rolls back with it.
+ */
+@Component
+@AllArgsConstructor
+public class BulkInserter {
+
+    /**
+     * Bind parameters the PostgreSQL protocol allows in one statement.
+     */
+    static final int MAX_PARAMETERS = Short.MAX_VALUE;
+
+    static final int ROWS_PER_STATEMENT = 1_000;
+
+    private static final int COPY_BUFFER_CHARS = 64 * 1024;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public void insert(final IngestEngine engine, final BulkTable table,
+                       final List<Object[]> rows) {
+        if (rows.isEmpty()) {
+            return;
+        }
+        switch (engine) {
+            case BATCH -> batch(table, rows);
+            case REWRITTEN -> rewritten(table, rows);
+            case COPY -> copy(table, rows);
+        }
+    }
+
+    private void batch(final BulkTable table, final List<Object[]> rows) {
+        jdbcTemplate.batchUpdate(table.insertSql(1),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(final PreparedStatement ps, final int i)
+                            throws SQLException {
+                        bind(ps, rows.subList(i, i + 1));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return rows.size();
+                    }
+                });
+    }
+
+    /**
+     * Full statements of {@link #ROWS_PER_STATEMENT} rows go out as one
+     * batch, the remainder as a single shorter statement.
+     */
+    private void rewritten(final BulkTable table, final List<Object[]> rows) {
+        int perStatement = Math.min(ROWS_PER_STATEMENT,
+                MAX_PARAMETERS / table.columns().size());
+        int statements = rows.size() / perStatement;
+        if (statements > 0) {
+            jdbcTemplate.batchUpdate(table.insertSql(perStatement),
+                    new BatchPreparedStatementSetter() {
+                        @Override
+                        public void setValues(final PreparedStatement ps,
+                                              final int i)
+                                throws SQLException {
+                            bind(ps, rows.subList(i * perStatement,
+                                    (i + 1) * perStatement));
+                        }
+
+                        @Override
+                        public int getBatchSize() {
+                            return statements;
+                        }
+                    });
+        }
+        List<Object[]> rest = rows.subList(statements * perStatement, rows.size());
+        if (!rest.isEmpty()) {
+            jdbcTemplate.update(table.insertSql(rest.size()), ps -> bind(ps, rest));
+        }
+    }
+
+    /**
+     * Streams the rows as CSV in chunks of about {@link #COPY_BUFFER_CHARS}
+     * characters, so only one chunk is encoded at a time.
+     */
+    private void copy(final BulkTable table, final List<Object[]> rows) {
+        jdbcTemplate.execute((ConnectionCallback<Long>) connection -> {
+            CopyIn copyIn = connection.unwrap(PGConnection.class).getCopyAPI()
+                    .copyIn(table.copySql());
+            try {
+                StringBuilder buffer = new StringBuilder(COPY_BUFFER_CHARS + 256);
+                for (Object[] row : rows) {
+                    appendCsv(buffer, row);
+                    if (buffer.length() >= COPY_BUFFER_CHARS) {
+                        flush(copyIn, buffer);
+                    }
+                }
+                flush(copyIn, buffer);
+                return copyIn.endCopy();
+            } finally {
+                if (copyIn.isActive()) {
+                    copyIn.cancelCopy();
+                }
+            }
+        });
+    }
+
+    private static void bind(final PreparedStatement ps, final List<Object[]> rows)
+            throws SQLException {
+        int index = 1;
+        for (Object[] row : rows) {
+            for (Object value : row) {
+                ps.setObject(index++, value);
+            }
+        }
+    }
+
+    /**
+     * Strings are always quoted, so an empty string stays distinct from
+     * null, which COPY reads as an unquoted empty field.
+     */
+    static void appendCsv(final StringBuilder buffer, final Object[] row) {
+        for (int i = 0; i < row.length; i++) {
+            if (i > 0) {
+                buffer.append(',');
+            }
+            Object value = row[i];
+            if (value instanceof String text) {
+                buffer.append('"').append(text.replace("\"", "\"\"")).append('"');
+            } else if (value != null) {
+                buffer.append(value);
+            }
+        }
+        buffer.append('\n');
+    }
+
+    private static void flush(final CopyIn copyIn, final StringBuilder buffer)
+            throws SQLException {
+        byte[] bytes = buffer.toString().getBytes(StandardCharsets.UTF_8);
+        copyIn.writeToCopy(bytes, 0, bytes.length);
+        buffer.setLength(0);
+    }
+
+}
@@ -0,0 +1,36 @@
+package com.example.geodata.service.ingest;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Table and column list a bulk write targets. Rows handed to
+ * {@link BulkInserter} hold one value per column, in this order.
+ */
+public record BulkTable(String name, List<String> columns) {
+
+    public static final BulkTable CITIES = new BulkTable("cities",
+            List.of("city_name", "fk_cities_countries", "latitude", "longitude"));
+
+    public static final BulkTable COUNTRIES = new BulkTable("countries",
+            List.of("country_name", "nationality", "latitude", "longitude"));
+
+    public static final BulkTable LANGUAGES = new BulkTable("languages",
+            List.of("language_name", "language_code"));
+
+    /**
+     * INSERT of {@code rows} rows, the values bound row after row.
+     */
+    public String insertSql(final int rows) {
+        String row = "(" + String.join(", ",
+                Collections.nCopies(columns.size(), "?")) + ")";
+        return "INSERT into " + name + " (" + String.join(", ", columns)
+                + ") VALUES " + String.join(", ", Collections.nCopies(rows, row));
+    }
+
+    public String copySql() {
+        return "COPY " + name + " (" + String.join(", ", columns)
+                + ") FROM STDIN (FORMAT csv)";
+    }
+
+}
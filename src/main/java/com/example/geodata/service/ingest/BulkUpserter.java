@@ -0,0 +1,127 @@
+package com.example.geodata.service.ingest;
+
+import com.example.geodata.config.UniqueKeyCheck;
+import com.example.geodata.exceptions.BadRequestException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.StringJoiner;
+import lombok.AllArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/**
+ * Inserts rows into an {@link UpsertTable}, or updates the existing row
+ * with the same key, with {@code INSERT ... ON CONFLICT DO UPDATE}. Like
+ * {@link BulkInserter}, it runs on the connection of the surrounding
+ * transaction. A table whose key is not {@link UpsertTable#unique} is
+ * locked against concurrent upserts for that transaction, and a key
+ * matching several stored rows rejects the whole upsert. A unique key
+ * missing from the database rejects upserts of its table, see
+ * {@link UniqueKeyCheck}.
+ */
+@Component
+@AllArgsConstructor
+public class BulkUpserter {
+
+    static final int ROWS_PER_STATEMENT = 5_000;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    private final UniqueKeyCheck uniqueKeys;
+
+    private static final String LOCK_SQL = "SELECT pg_advisory_xact_lock(hashtext(?))";
+
+    /**
+     * Rows repeating a key are first merged into the last of them, since
+     * one statement may not update the same row twice.
+     */
+    public UpsertResult upsert(final UpsertTable table, final List<Object[]> rows) {
+        if (table.unique()) {
+            uniqueKeys.require(table);
+        }
+        int[] keyIndexes = table.keyIndexes();
+        Map<List<Object>, Object[]> byKey = new LinkedHashMap<>();
+        for (Object[] row : rows) {
+            Object[] key = new Object[keyIndexes.length];
+            for (int i = 0; i < keyIndexes.length; i++) {
+                key[i] = row[keyIndexes[i]];
+            }
+            byKey.put(Arrays.asList(key), row);
+        }
+        List<Object[]> distinct = new ArrayList<>(byKey.values());
+        if (!table.unique()) {
+            jdbcTemplate.queryForList(LOCK_SQL, table.table().name());
+            rejectAmbiguous(table, distinct);
+        }
+        List<UpsertResult.Row> changed = new ArrayList<>();
+        for (int from = 0; from < distinct.size(); from += ROWS_PER_STATEMENT) {
+            List<Object[]> statement = distinct.subList(from,
+                    Math.min(distinct.size(), from + ROWS_PER_STATEMENT));
+            changed.addAll(jdbcTemplate.query(
+                    connection -> prepare(connection, table.upsertSql(),
+                            table, statement),
+                    (rs, rowNum) -> toRow(rs, table)));
+        }
+        return new UpsertResult(distinct.size(), changed);
+    }
+
+    private void rejectAmbiguous(final UpsertTable table, final List<Object[]> rows) {
+        List<String> ambiguous = new ArrayList<>();
+        for (int from = 0; from < rows.size(); from += ROWS_PER_STATEMENT) {
+            List<Object[]> statement = rows.subList(from,
+                    Math.min(rows.size(), from + ROWS_PER_STATEMENT));
+            ambiguous.addAll(jdbcTemplate.query(
+                    connection -> prepare(connection, table.ambiguousKeysSql(),
+                            table, statement),
+                    (rs, rowNum) -> toKey(rs, table)));
+        }
+        if (!ambiguous.isEmpty()) {
+            throw new BadRequestException("Several rows of " + table.table().name()
+                    + " match " + String.join(", ", ambiguous)
+                    + "; update them by id instead.");
+        }
+    }
+
+    private static PreparedStatement prepare(final Connection connection,
+                                              final String sql,
+                                              final UpsertTable table,
+                                              final List<Object[]> rows)
+            throws SQLException {
+        PreparedStatement ps = connection.prepareStatement(sql);
+        for (int column = 0; column < table.types().size(); column++) {
+            Object[] values = new Object[rows.size()];
+            for (int i = 0; i < rows.size(); i++) {
+                values[i] = rows.get(i)[column];
+            }
+            ps.setArray(column + 1, connection.createArrayOf(
+                    table.types().get(column), values));
+        }
+        return ps;
+    }
+
+    private static String toKey(final ResultSet rs, final UpsertTable table)
+            throws SQLException {
+        StringJoiner key = new StringJoiner(", ", "(", ")");
+        for (int i = 1; i <= table.key().size(); i++) {
+            key.add(String.valueOf(rs.getObject(i)));
+        }
+        return key.toString();
+    }
+
+    private static UpsertResult.Row toRow(final ResultSet rs, final UpsertTable table)
+            throws SQLException {
+        Object[] values = new Object[table.types().size()];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = rs.getObject(i + 3);
+        }
+        return new UpsertResult.Row(rs.getInt(1), rs.getBoolean(2), values);
+    }
+
+}
@@ -0,0 +1,215 @@
+package com.example.geodata.service.ingest;
+
+import com.example.geodata.config.IngestProperties;
+import com.example.geodata.dto.BulkInsertReport;
+import com.example.geodata.dto.ChunkReport;
+import com.example.geodata.dto.RowReport;
+import com.example.geodata.exceptions.BadRequestException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.support.TransactionTemplate;
+
+/**
+ * Splits a bulk insert into chunks written in parallel, each in its own
+ * transaction on its own connection. Items the mapper rejects with a
+ * {@link BadRequestException} are skipped. A chunk the database rejects is
+ * written again row by row behind savepoints, so only the offending rows
+ * fail. A chunk that still hits transient errors after the last attempt,
+ * or fails in any other way, fails as a whole; the other chunks are still
+ * reported, since those already written stay committed.
+ */
+@Component
+public class ChunkedInserter {
+
+    private final BulkInserter bulkInserter;
+
+    private final TransactionTemplate transactionTemplate;
+
+    private final Executor executor;
+
+    private final IngestProperties properties;
+
+    public ChunkedInserter(final BulkInserter bulkInserter,
+                           @Qualifier("ingestTransactionTemplate")
+                           final TransactionTemplate transactionTemplate,
+                           @Qualifier("ingestExecutor") final Executor executor,
+                           final IngestProperties properties) {
+        this.bulkInserter = bulkInserter;
+        this.transactionTemplate = transactionTemplate;
+        this.executor = executor;
+        this.properties = properties;
+    }
+
+    public <T> BulkInsertReport insert(final IngestEngine engine,
+                                       final BulkTable table,
+                                       final List<T> items,
+                                       final Function<T, Object[]> toRow) {
+        int chunkSize = properties.getChunkSize();
+        List<CompletableFuture<ChunkResult>> chunks = new ArrayList<>();
+        for (int first = 0; first < items.size(); first += chunkSize) {
+            int chunk = chunks.size();
+            int firstRow = first;
+            List<T> slice = items.subList(first,
+                    Math.min(first + chunkSize, items.size()));
+            CompletableFuture<ChunkResult> result;
+            try {
+                result = CompletableFuture.supplyAsync(
+                        () -> write(engine, table, chunk, firstRow, slice, toRow),
+                        executor);
+            } catch (RejectedExecutionException e) {
+                result = CompletableFuture.failedFuture(e);
+            }
+            chunks.add(result.handle((written, error) -> error == null ? written
+                    : failed(chunk, firstRow, slice.size(), error)));
+        }
+        List<ChunkReport> reports = new ArrayList<>(chunks.size());
+        List<RowReport> rows = new ArrayList<>();
+        for (CompletableFuture<ChunkResult> chunk : chunks) {
+            ChunkResult result = chunk.join();
+            reports.add(result.report());
+            rows.addAll(result.rows());
+        }
+        return BulkInsertReport.builder()
+                .inserted(reports.stream().mapToInt(ChunkReport::inserted).sum())
+                .skipped(reports.stream().mapToInt(ChunkReport::skipped).sum())
+                .failed(reports.stream().mapToInt(ChunkReport::failed).sum())
+                .chunks(reports)
+                .rows(rows)
+                .build();
+    }
+
+    private <T> ChunkResult write(final IngestEngine engine, final BulkTable table,
+                                  final int chunk, final int firstRow,
+                                  final List<T> items,
+                                  final Function<T, Object[]> toRow) {
+        List<RowReport> rejected = new ArrayList<>();
+        List<Object[]> rows = new ArrayList<>(items.size());
+        int[] positions = new int[items.size()];
+        for (int i = 0; i < items.size(); i++) {
+            try {
+                Object[] row = toRow.apply(items.get(i));
+                positions[rows.size()] = firstRow + i;
+                rows.add(row);
+            } catch (BadRequestException e) {
+                rejected.add(new RowReport(firstRow + i,
+                        RowReport.Outcome.SKIPPED, e.getMessage()));
+            }
+        }
+        int skipped = rejected.size();
+        int attempts = 0;
+        boolean written = rows.isEmpty();
+        RuntimeException failure = null;
+        while (!written && attempts < properties.getMaxAttempts()
+                && (failure == null || isTransient(failure))) {
+            attempts++;
+            try {
+                transactionTemplate.executeWithoutResult(
+                        status -> bulkInserter.insert(engine, table, rows));
+                written = true;
+                failure = null;
+            } catch (DataAccessException | TransactionException e) {
+                failure = e;
+            }
+        }
+        int inserted = written ? rows.size() : 0;
+        if (failure != null && !isTransient(failure)) {
+            try {
+                inserted = writeRowByRow(table, rows, positions, rejected);
+                failure = null;
+            } catch (DataAccessException | TransactionException e) {
+                rejected.subList(skipped, rejected.size()).clear();
+                failure = e;
+            }
+        }
+        if (failure != null) {
+            for (int i = 0; i < rows.size(); i++) {
+                rejected.add(new RowReport(positions[i],
+                        RowReport.Outcome.FAILED, reason(failure)));
+            }
+        }
+        return new ChunkResult(ChunkReport.builder()
+                .chunk(chunk)
+                .firstRow(firstRow)
+                .rows(items.size())
+                .inserted(inserted)
+                .skipped(skipped)
+                .failed(rejected.size() - skipped)
+                .attempts(attempts)
+                .reason(failure == null ? null : reason(failure))
+                .build(), rejected);
+    }
+
+    /**
+     * A chunk that failed unexpectedly, or was never run: all of its rows
+     * are reported failed, since none of them is known to be written.
+     */
+    private static ChunkResult failed(final int chunk, final int firstRow,
+                                      final int size, final Throwable error) {
+        Throwable cause = error instanceof CompletionException
+                && error.getCause() != null ? error.getCause() : error;
+        String reason = cause instanceof RuntimeException runtime
+                ? reason(runtime) : cause.toString();
+        List<RowReport> rows = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) {
+            rows.add(new RowReport(firstRow + i, RowReport.Outcome.FAILED, reason));
+        }
+        return new ChunkResult(ChunkReport.builder()
+                .chunk(chunk)
+                .firstRow(firstRow)
+                .rows(size)
+                .failed(size)
+                .reason(reason)
+                .build(), rows);
+    }
+
+    private int writeRowByRow(final BulkTable table, final List<Object[]> rows,
+                              final int[] positions,
+                              final List<RowReport> rejected) {
+        Integer inserted = transactionTemplate.execute(status -> {
+            int count = 0;
+            for (int i = 0; i < rows.size(); i++) {
+                Object savepoint = status.createSavepoint();
+                try {
+                    bulkInserter.insert(IngestEngine.BATCH, table,
+                            List.<Object[]>of(rows.get(i)));
+                    status.releaseSavepoint(savepoint);
+                    count++;
+                } catch (DataAccessException e) {
+                    status.rollbackToSavepoint(savepoint);
+                    rejected.add(new RowReport(positions[i],
+                            RowReport.Outcome.FAILED, reason(e)));
+                }
+            }
+            return count;
+        });
+        return inserted == null ? 0 : inserted;
+    }
+
+    private static boolean isTransient(final RuntimeException e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof RecoverableDataAccessException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    private static String reason(final RuntimeException e) {
+        return e instanceof DataAccessException dataAccess
+                ? dataAccess.getMostSpecificCause().getMessage() : e.getMessage();
+    }
+
+    private record ChunkResult(ChunkReport report, List<RowReport> rows) {
+
+    }
+
+}
@@ -0,0 +1,24 @@
+package com.example.geodata.service.ingest;
+
+/**
+ * How {@link BulkInserter} sends rows to the database.
+ */
+public enum IngestEngine {
+
+    /**
+     * One JDBC batch of single-row INSERTs.
+     */
+    BATCH,
+
+    /**
+     * Rows folded into multi-row INSERTs, as the driver's
+     * {@code reWriteBatchedInserts} would do.
+     */
+    REWRITTEN,
+
+    /**
+     * {@code COPY FROM STDIN} in CSV format. PostgreSQL only.
+     */
+    COPY
+
+}
@@ -0,0 +1,39 @@
+package com.example.geodata.service.ingest;
+
+import com.example.geodata.dto.BulkUpsertReport;
+import java.util.List;
+
+/**
+ * Outcome of a bulk upsert: how many distinct keys were sent and the rows
+ * that were inserted or rewritten. Unchanged rows are not returned.
+ */
+public record UpsertResult(int rows, List<Row> changed) {
+
+    public BulkUpsertReport report() {
+        int inserted = (int) changed.stream().filter(Row::inserted).count();
+        return BulkUpsertReport.builder()
+                .inserted(inserted)
+                .updated(changed.size() - inserted)
+                .unchanged(rows - changed.size())
+                .build();
+    }
+
+    public List<Integer> ids(final boolean inserted) {
+        return changed.stream()
+                .filter(row -> row.inserted() == inserted)
+                .map(Row::id)
+                .toList();
+    }
+
+    /**
+     * A written row with its values in {@link BulkTable#columns()} order.
+     */
+    public record Row(Integer id, boolean inserted, Object[] values) {
+
+        public Object value(final int column) {
+            return values[column];
+        }
+
+    }
+
+}
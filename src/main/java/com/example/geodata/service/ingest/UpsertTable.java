@@ -0,0 +1,121 @@
+package com.example.geodata.service.ingest;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A {@link BulkTable} merged on its natural key. {@code types} holds the
+ * SQL type of every column, in column order, and {@code key} the columns
+ * a row is matched on. {@code unique} tells whether a unique constraint
+ * backs the key; cities may repeat a name within a country, so theirs is
+ * not.
+ */
+public record UpsertTable(BulkTable table, List<String> types, List<String> key,
+                          boolean unique) {
+
+    public static final UpsertTable CITIES = new UpsertTable(BulkTable.CITIES,
+            List.of("varchar", "int4", "float8", "float8"),
+            List.of("city_name", "fk_cities_countries"), false);
+
+    public static final UpsertTable COUNTRIES = new UpsertTable(BulkTable.COUNTRIES,
+            List.of("varchar", "varchar", "float8", "float8"),
+            List.of("country_name"), true);
+
+    public static final UpsertTable LANGUAGES = new UpsertTable(BulkTable.LANGUAGES,
+            List.of("varchar", "varchar"),
+            List.of("language_code"), true);
+
+    /**
+     * One array parameter per column, unnested into rows. A matched row is
+     * only rewritten when a value differs, and only inserted or rewritten
+     * rows are returned: id, whether it was inserted, then every column.
+     * Without a unique key {@code ON CONFLICT} is not available, so the
+     * update and the insert of unmatched rows are two steps of one
+     * statement.
+     */
+    public String upsertSql() {
+        return unique ? onConflictSql() : updateThenInsertSql();
+    }
+
+    /**
+     * Keys of the bound rows that match more than one stored row, bound
+     * like {@link #upsertSql()}. Only checked when the key is not
+     * {@link #unique}.
+     */
+    public String ambiguousKeysSql() {
+        return "SELECT " + prefixed("t.", key) + " FROM " + table.name()
+                + " t JOIN " + input() + " ON " + matches("t.", "i.")
+                + " GROUP BY " + prefixed("t.", key) + " HAVING count(*) > 1";
+    }
+
+    /**
+     * Positions of the {@link #key} columns in a row.
+     */
+    public int[] keyIndexes() {
+        return key.stream()
+                .mapToInt(table.columns()::indexOf)
+                .toArray();
+    }
+
+    private String onConflictSql() {
+        List<String> columns = table.columns();
+        List<String> values = values();
+        return "INSERT INTO " + table.name() + " AS t ("
+                + String.join(", ", columns) + ") SELECT * FROM unnest("
+                + parameters() + ") ON CONFLICT (" + String.join(", ", key)
+                + ") DO UPDATE SET "
+                + values.stream()
+                        .map(column -> column + " = EXCLUDED." + column)
+                        .collect(Collectors.joining(", "))
+                + " WHERE (" + prefixed("t.", values) + ") IS DISTINCT FROM ("
+                + prefixed("EXCLUDED.", values) + ") RETURNING t.id, t.xmax = 0, "
+                + prefixed("t.", columns);
+    }
+
+    private String updateThenInsertSql() {
+        List<String> columns = table.columns();
+        List<String> values = values();
+        return "WITH i AS (SELECT * FROM " + input() + "), updated AS (UPDATE "
+                + table.name() + " AS t SET "
+                + values.stream()
+                        .map(column -> column + " = i." + column)
+                        .collect(Collectors.joining(", "))
+                + " FROM i WHERE " + matches("t.", "i.") + " AND ("
+                + prefixed("t.", values) + ") IS DISTINCT FROM ("
+                + prefixed("i.", values) + ") RETURNING t.id, false, "
+                + prefixed("t.", columns) + "), inserted AS (INSERT INTO "
+                + table.name() + " AS t (" + String.join(", ", columns)
+                + ") SELECT * FROM i WHERE NOT EXISTS (SELECT 1 FROM "
+                + table.name() + " e WHERE " + matches("e.", "i.")
+                + ") RETURNING t.id, true, " + prefixed("t.", columns)
+                + ") SELECT * FROM updated UNION ALL SELECT * FROM inserted";
+    }
+
+    private List<String> values() {
+        return table.columns().stream()
+                .filter(column -> !key.contains(column))
+                .toList();
+    }
+
+    private String input() {
+        return "unnest(" + parameters() + ") AS i ("
+                + String.join(", ", table.columns()) + ")";
+    }
+
+    private String parameters() {
+        return types.stream()
+                .map(type -> "?::" + type + "[]")
+                .collect(Collectors.joining(", "));
+    }
+
+    private String matches(final String left, final String right) {
+        return "(" + prefixed(left, key) + ") = (" + prefixed(right, key) + ")";
+    }
+
+    private static String prefixed(final String prefix, final List<String> columns) {
+        return columns.stream()
+                .map(column -> prefix + column)
+                .collect(Collectors.joining(", "));
+    }
+
+}
@@ -0,0 +1,81 @@
+package com.example.geodata.service.utility;
+
+import com.example.geodata.dto.BulkChangeReport;
+import com.example.geodata.exceptions.BadRequestException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.function.Function;
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class BulkUtility {
+
+    /**
+     * Ids to bind as one array parameter, without nulls and repeats.
+     */
+    public Integer[] toIdArray(final Collection<Integer> ids) {
+        return ids.stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .toArray(Integer[]::new);
+    }
+
+    /**
+     * One patch per id, the last one sent winning: an UPDATE ... FROM
+     * applies only one of several rows that match the same target.
+     */
+    public <T> List<T> lastPerId(final List<T> patches,
+                                 final Function<T, Integer> id) {
+        Map<Integer, T> byId = new LinkedHashMap<>();
+        for (T patch : patches) {
+            if (id.apply(patch) == null) {
+                throw new BadRequestException("Every patch must have an id.");
+            }
+            byId.put(id.apply(patch), patch);
+        }
+        return new ArrayList<>(byId.values());
+    }
+
+    /**
+     * Rejects the whole request when a key repeats within {@code keys} or
+     * is already stored, as {@code stored} returns the given keys it finds.
+     * Checked up front so a unique constraint does not fail the insert
+     * with a database error. Null keys never conflict.
+     */
+    public void rejectTakenKeys(final String message, final List<String> keys,
+                                final Function<String[], List<String>> stored) {
+        Set<String> distinct = new HashSet<>();
+        Set<String> taken = new TreeSet<>();
+        for (String key : keys) {
+            if (key != null && !distinct.add(key)) {
+                taken.add(key);
+            }
+        }
+        if (!distinct.isEmpty()) {
+            taken.addAll(stored.apply(distinct.toArray(String[]::new)));
+        }
+        if (!taken.isEmpty()) {
+            throw new BadRequestException(message + " " + String.join(", ", taken));
+        }
+    }
+
+    public BulkChangeReport report(final Integer[] requested,
+                                   final Collection<Integer> changed) {
+        Set<Integer> found = Set.copyOf(changed);
+        return BulkChangeReport.builder()
+                .changed(found.size())
+                .missing(Arrays.stream(requested)
+                        .filter(id -> !found.contains(id))
+                        .toList())
+                .build();
+    }
+
+}
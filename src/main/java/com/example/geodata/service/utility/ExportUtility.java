@@ -0,0 +1,37 @@
+package com.example.geodata.service.utility;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.stream.Stream;
+import lombok.experimental.UtilityClass;
+
+@UtilityClass
+public class ExportUtility {
+
+    /**
+     * Writes every row as one line of JSON. Bytes reach {@code out} whenever
+     * the generator's buffer fills rather than after each row, and
+     * {@code out} is flushed but left open at the end.
+     */
+    public <T> void writeNdjson(final ObjectMapper objectMapper,
+                                final Stream<T> rows,
+                                final OutputStream out) throws IOException {
+        ObjectWriter writer = objectMapper.writer()
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE)
+                .without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        try (JsonGenerator generator = writer.createGenerator(out)) {
+            generator.setRootValueSeparator(null);
+            Iterator<T> iterator = rows.iterator();
+            while (iterator.hasNext()) {
+                writer.writeValue(generator, iterator.next());
+                generator.writeRaw('\n');
+            }
+        }
+    }
+
+}
@@ -0,0 +1,37 @@
+package com.example.geodata.service.utility;
+
+import com.example.geodata.dto.KeysetPage;
+import com.example.geodata.exceptions.BadRequestException;
+import java.util.List;
+import java.util.function.Function;
+import lombok.experimental.UtilityClass;
+import org.springframework.data.domain.Limit;
+
+@UtilityClass
+public class PageUtility {
+
+    public static final int MAX_LIMIT = 1_000;
+
+    /**
+     * Rows to fetch for a page of {@code limit}: one more than asked, so
+     * the extra row tells whether another page follows without a count.
+     */
+    public Limit fetchLimit(final int limit) {
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new BadRequestException("Limit must be between 1 and "
+                    + MAX_LIMIT + ".");
+        }
+        return Limit.of(limit + 1);
+    }
+
+    public <T> KeysetPage<T> toPage(final List<T> rows, final int limit,
+                                    final Function<T, Integer> id) {
+        if (rows.size() <= limit) {
+            return new KeysetPage<>(rows, null);
+        }
+        List<T> items = rows.subList(0, limit);
+        return new KeysetPage<>(List.copyOf(items),
+                id.apply(items.get(limit - 1)));
+    }
+
+}
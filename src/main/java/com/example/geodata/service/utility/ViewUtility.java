@@ -0,0 +1,64 @@
+package com.example.geodata.service.utility;
+
+import com.example.geodata.dto.CityView;
+import com.example.geodata.dto.CountryView;
+import com.example.geodata.dto.LanguageView;
+import com.example.geodata.entity.City;
+import com.example.geodata.entity.Country;
+import com.example.geodata.entity.Language;
+import java.util.Comparator;
+import java.util.List;
+import lombok.experimental.UtilityClass;
+
+/**
+ * Maps entities to the detached views kept in the caches. Mapping a
+ * country reads its cities and languages, so they must be fetched or the
+ * session still open; a join fetch of both repeats each city once per
+ * language, hence the distinct.
+ */
+@UtilityClass
+public class ViewUtility {
+
+    public CityView toView(final City city) {
+        return CityView.builder()
+                .id(city.getId())
+                .name(city.getName())
+                .latitude(city.getLatitude())
+                .longitude(city.getLongitude())
+                .countryId(city.getCountry() == null
+                        ? null : city.getCountry().getId())
+                .build();
+    }
+
+    public LanguageView toView(final Language language) {
+        return LanguageView.builder()
+                .id(language.getId())
+                .name(language.getName())
+                .code(language.getCode())
+                .build();
+    }
+
+    public CountryView toView(final Country country) {
+        List<CityView> cities = country.getCities() == null ? List.of()
+                : country.getCities().stream()
+                        .distinct()
+                        .map(ViewUtility::toView)
+                        .toList();
+        List<LanguageView> languages = country.getLanguages() == null ? List.of()
+                : country.getLanguages().stream()
+                        .map(ViewUtility::toView)
+                        .sorted(Comparator.comparing(LanguageView::id,
+                                Comparator.nullsLast(Comparator.naturalOrder())))
+                        .toList();
+        return CountryView.builder()
+                .id(country.getId())
+                .name(country.getName())
+                .nationality(country.getNationality())
+                .latitude(country.getLatitude())
+                .longitude(country.getLongitude())
+                .cities(cities)
+                .languages(languages)
+                .build();
+    }
+
+}
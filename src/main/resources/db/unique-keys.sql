@@ -0,0 +1,73 @@
+-- Adds the unique constraints the country and language bulk upserts
+-- merge on (ON CONFLICT needs them) after merging the rows that repeat a
+-- key into the one with the lowest id. References to the merged rows are
+-- moved to that row first. Cities may share a name within a country and
+-- are never merged.
+--
+-- Nothing runs this automatically; while a constraint is missing,
+-- UniqueKeyCheck logs it at startup and the bulk upserts of its table
+-- answer 503. The merge deletes rows, so list them first:
+--   SELECT language_code, array_agg(id) FROM languages
+--   GROUP BY language_code HAVING count(*) > 1;
+--   SELECT country_name, array_agg(id) FROM countries
+--   GROUP BY country_name HAVING count(*) > 1;
+-- then run it in one transaction:
+--   psql --single-transaction -f unique-keys.sql
+
+CREATE TEMP TABLE merged_languages ON COMMIT DROP AS
+SELECT id, kept FROM (
+    SELECT id, min(id) OVER (PARTITION BY language_code) AS kept
+    FROM languages
+    WHERE language_code IS NOT NULL
+) ranked
+WHERE id <> kept;
+
+INSERT INTO countries_languages (country_id, language_id)
+SELECT cl.country_id, m.kept
+FROM countries_languages cl
+JOIN merged_languages m ON m.id = cl.language_id
+ON CONFLICT DO NOTHING;
+
+DELETE FROM countries_languages
+WHERE language_id IN (SELECT id FROM merged_languages);
+
+DELETE FROM languages WHERE id IN (SELECT id FROM merged_languages);
+
+CREATE TEMP TABLE merged_countries ON COMMIT DROP AS
+SELECT id, kept FROM (
+    SELECT id, min(id) OVER (PARTITION BY country_name) AS kept
+    FROM countries
+    WHERE country_name IS NOT NULL
+) ranked
+WHERE id <> kept;
+
+UPDATE cities c SET fk_cities_countries = m.kept
+FROM merged_countries m
+WHERE c.fk_cities_countries = m.id;
+
+INSERT INTO countries_languages (country_id, language_id)
+SELECT m.kept, cl.language_id
+FROM countries_languages cl
+JOIN merged_countries m ON m.id = cl.country_id
+ON CONFLICT DO NOTHING;
+
+DELETE FROM countries_languages
+WHERE country_id IN (SELECT id FROM merged_countries);
+
+DELETE FROM countries WHERE id IN (SELECT id FROM merged_countries);
+
+ALTER TABLE cities DROP CONSTRAINT IF EXISTS uk_cities_name_country;
+
+DO $$
+BEGIN
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conname = 'uk_languages_code') THEN
+        ALTER TABLE languages
+            ADD CONSTRAINT uk_languages_code UNIQUE (language_code);
+    END IF;
+    IF NOT EXISTS (SELECT 1 FROM pg_constraint
+                   WHERE conname = 'uk_countries_name') THEN
+        ALTER TABLE countries
+            ADD CONSTRAINT uk_countries_name UNIQUE (country_name);
+    END IF;
+END $$;
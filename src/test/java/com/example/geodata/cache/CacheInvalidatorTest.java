@@ -0,0 +1,281 @@
+package com.example.geodata.cache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+import com.example.geodata.config.CacheProperties;
+import com.example.geodata.entity.City;
+import com.example.geodata.entity.Country;
+import com.example.geodata.entity.Language;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+@ExtendWith(MockitoExtension.class)
+class CacheInvalidatorTest {
+
+    @Mock
+    private LRUCacheCity cityCache;
+
+    @Mock
+    private LRUCacheCountry countryCache;
+
+    @Mock
+    private LRUCacheLanguage languageCache;
+
+    @Mock
+    private CountriesByLanguageCache countriesByLanguage;
+
+    @Mock
+    private SecondLevelCache secondLevelCache;
+
+    private NegativeCacheCity missingCities;
+
+    private NegativeCacheLanguage missingLanguages;
+
+    private CacheInvalidator invalidator;
+
+    @BeforeEach
+    void setUp() {
+        missingCities = new NegativeCacheCity(4, new CacheProperties());
+        missingLanguages = new NegativeCacheLanguage(4, new CacheProperties());
+        invalidator = new CacheInvalidator(cityCache, countryCache,
+                languageCache, missingCities, missingLanguages,
+                countriesByLanguage, secondLevelCache);
+    }
+
+    @Test
+    void cityCreated_forgetsMissingIdAndEvictsCountry() {
+        missingCities.markAbsent(1, "missing", missingCities.stamp());
+
+        invalidator.cityCreated(1, 2);
+
+        assertFalse(missingCities.isAbsent(1));
+        verify(countryCache).remove(2);
+    }
+
+    @Test
+    void cityUpdated_evictsPreviousAndNewCountry() {
+        invalidator.cityUpdated(2, 3);
+
+        verify(countryCache).remove(2);
+        verify(countryCache).remove(3);
+    }
+
+    @Test
+    void cityUpdated_skipsUnknownPreviousCountry() {
+        invalidator.cityUpdated(null, 3);
+
+        verify(countryCache, never()).remove(null);
+        verify(countryCache).remove(3);
+    }
+
+    @Test
+    void citiesInserted_forgetsAllMissingIds() {
+        missingCities.markAbsent(1, "missing", missingCities.stamp());
+        missingCities.markAbsent(5, "missing", missingCities.stamp());
+
+        invalidator.citiesInserted(List.of(2));
+
+        assertFalse(missingCities.isAbsent(1));
+        assertFalse(missingCities.isAbsent(5));
+        verify(countryCache).remove(2);
+        verify(secondLevelCache).evictCities(List.of(2));
+    }
+
+    @Test
+    void citiesUpserted_evictsRewrittenCitiesAndTheirCountries() {
+        missingCities.markAbsent(1, "missing", missingCities.stamp());
+        missingCities.markAbsent(5, "missing", missingCities.stamp());
+
+        invalidator.citiesUpserted(List.of(1), List.of(3), List.of(2));
+
+        assertFalse(missingCities.isAbsent(1));
+        assertTrue(missingCities.isAbsent(5));
+        verify(cityCache).remove(3);
+        verify(countryCache).remove(2);
+        verify(secondLevelCache).evictEntities(City.class, List.of(3));
+        verify(secondLevelCache).evictCities(List.of(2));
+    }
+
+    @Test
+    void countriesUpdated_evictsOnlyThoseCountries() {
+        invalidator.countriesUpdated(List.of(2));
+
+        verify(countryCache).remove(2);
+        verify(secondLevelCache).evictEntities(Country.class, List.of(2));
+        verifyNoInteractions(cityCache, languageCache, countriesByLanguage);
+    }
+
+    @Test
+    void citiesDeleted_evictsCitiesAndTheirCountries() {
+        invalidator.citiesDeleted(List.of(4, 5), List.of(2));
+
+        verify(cityCache).remove(4);
+        verify(cityCache).remove(5);
+        verify(countryCache).remove(2);
+        verify(secondLevelCache).evictEntities(City.class, List.of(4, 5));
+        verify(secondLevelCache).evictCities(List.of(2));
+    }
+
+    @Test
+    void countriesDeleted_evictsTheirCitiesAndLanguages() {
+        invalidator.countriesDeleted(List.of(2), List.of(4), List.of(7),
+                List.of("English"));
+
+        verify(countryCache).remove(2);
+        verify(cityCache).removeByCountry(2);
+        verify(languageCache).remove(7);
+        verify(countriesByLanguage).remove("English");
+        verify(secondLevelCache).evictEntities(Country.class, List.of(2));
+        verify(secondLevelCache).evictEntities(City.class, List.of(4));
+        verify(secondLevelCache).evictCountries(List.of(7));
+    }
+
+    @Test
+    void countryLanguagesChanged_evictsOnlyResultsOfThoseLanguages() {
+        invalidator.countryLanguagesChanged(List.of(english()));
+
+        verify(languageCache).remove(7);
+        verify(countriesByLanguage).remove("English");
+        verify(countriesByLanguage, never()).remove("Spanish");
+    }
+
+    @Test
+    void languageUpdated_evictsResultsOfOldAndNewName() {
+        invalidator.languageUpdated("Englsh", "English", List.of(2));
+
+        verify(countriesByLanguage).remove("Englsh");
+        verify(countriesByLanguage).remove("English");
+        verify(countryCache).remove(2);
+    }
+
+    @Test
+    void languageDeleted_evictsCountriesSpeakingIt() {
+        invalidator.languageDeleted(7, "English", List.of(2, 3));
+
+        verify(languageCache).remove(7);
+        verify(countriesByLanguage).remove("English");
+        verify(countryCache).remove(2);
+        verify(countryCache).remove(3);
+        verify(secondLevelCache).evictLanguages(List.of(2, 3));
+        verify(secondLevelCache).evictQueries();
+        verifyNoInteractions(cityCache);
+    }
+
+    @Test
+    void languagesDeleted_evictsCountriesSpeakingThem() {
+        invalidator.languagesDeleted(List.of(7), List.of("English"),
+                List.of(2, 3));
+
+        verify(languageCache).remove(7);
+        verify(countriesByLanguage).remove("English");
+        verify(countryCache).remove(2);
+        verify(countryCache).remove(3);
+        verify(secondLevelCache).evictEntities(Language.class, List.of(7));
+        verify(secondLevelCache).evictLanguages(List.of(2, 3));
+        verify(secondLevelCache).evictQueries();
+        verifyNoInteractions(cityCache);
+    }
+
+    @Test
+    void languagesInserted_onlyForgetsMissingLanguages() {
+        missingLanguages.markAbsent(7, "missing", missingLanguages.stamp());
+        missingCities.markAbsent(1, "missing", missingCities.stamp());
+
+        invalidator.languagesInserted();
+
+        assertFalse(missingLanguages.isAbsent(7));
+        assertTrue(missingCities.isAbsent(1));
+        verify(secondLevelCache).evictQueries();
+        verifyNoInteractions(cityCache, countryCache, languageCache);
+    }
+
+    @Test
+    void languagesUpserted_evictsRenamedLanguagesAndTheirCountries() {
+        missingLanguages.markAbsent(9, "missing", missingLanguages.stamp());
+
+        invalidator.languagesUpserted(List.of(9), List.of(7),
+                List.of("English", "Englisch"), List.of(2));
+
+        assertFalse(missingLanguages.isAbsent(9));
+        verify(languageCache).remove(7);
+        verify(countriesByLanguage).remove("English");
+        verify(countriesByLanguage).remove("Englisch");
+        verify(countryCache).remove(2);
+        verify(secondLevelCache).evictEntities(Language.class, List.of(7));
+        verify(secondLevelCache).evictQueries();
+        verifyNoInteractions(cityCache);
+    }
+
+    @Test
+    void citiesDeleted_evictsOnlyOnceCommitted() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            invalidator.citiesDeleted(List.of(4), List.of(2));
+
+            verifyNoInteractions(cityCache, countryCache, secondLevelCache);
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(cityCache).remove(4);
+        verify(countryCache).remove(2);
+        verify(secondLevelCache).evictEntities(City.class, List.of(4));
+    }
+
+    @Test
+    void cityDeleted_evictsOnlyOnceTransactionCommits() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            invalidator.cityDeleted(4, 2);
+
+            verifyNoInteractions(cityCache, countryCache);
+
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        verify(cityCache).remove(4);
+        verify(countryCache).remove(2);
+    }
+
+    @Test
+    void languagesUpserted_keepsCacheUntilCommitAndOnRollback() {
+        missingLanguages.markAbsent(9, "missing", missingLanguages.stamp());
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            invalidator.languagesUpserted(List.of(9), List.of(7),
+                    List.of("English"), List.of(2));
+
+            assertTrue(missingLanguages.isAbsent(9));
+
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertTrue(missingLanguages.isAbsent(9));
+        verifyNoInteractions(languageCache, countriesByLanguage, countryCache,
+                secondLevelCache);
+    }
+
+    private static Language english() {
+        return Language.builder().id(7).name("English").build();
+    }
+
+}
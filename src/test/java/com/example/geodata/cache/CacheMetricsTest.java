@@ -0,0 +1,55 @@
+package com.example.geodata.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CacheMetricsTest {
+
+    @Mock
+    private LRUCacheCity cityCache;
+
+    @Mock
+    private LRUCacheCountry countryCache;
+
+    @Mock
+    private LRUCacheLanguage languageCache;
+
+    @Mock
+    private CountriesByLanguageCache countriesByLanguage;
+
+    @Test
+    void publishesStatsPerCache() {
+        when(cityCache.stats()).thenReturn(CacheStats.builder()
+                .hitCount(9)
+                .missCount(1)
+                .loadCount(2)
+                .totalLoadTime(4_000_000)
+                .evictionCount(3)
+                .build());
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+
+        new CacheMetrics(cityCache, countryCache, languageCache,
+                countriesByLanguage).bindTo(registry);
+
+        assertEquals(9.0, registry.get("cache.gets")
+                .tags("cache", "city", "result", "hit").functionCounter().count());
+        assertEquals(1.0, registry.get("cache.gets")
+                .tags("cache", "city", "result", "miss").functionCounter().count());
+        assertEquals(0.9, registry.get("cache.hit.ratio")
+                .tag("cache", "city").gauge().value());
+        assertEquals(3.0, registry.get("cache.evictions")
+                .tag("cache", "city").functionCounter().count());
+        assertEquals(4.0, registry.get("cache.loads")
+                .tag("cache", "city").functionTimer().totalTime(TimeUnit.MILLISECONDS));
+        assertEquals(4, registry.get("cache.size").gauges().size());
+    }
+
+}
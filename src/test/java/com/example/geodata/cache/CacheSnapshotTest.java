@@ -0,0 +1,146 @@
+package com.example.geodata.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.example.geodata.config.CacheProperties;
+import com.example.geodata.entity.City;
+import com.example.geodata.entity.Language;
+import com.example.geodata.repository.CityRepository;
+import com.example.geodata.repository.CountryRepository;
+import com.example.geodata.repository.LanguageRepository;
+import com.example.geodata.service.utility.ViewUtility;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+@ExtendWith(MockitoExtension.class)
+class CacheSnapshotTest {
+
+    @TempDir
+    private Path directory;
+
+    @Mock
+    private LRUCacheCity cityCache;
+
+    @Mock
+    private LRUCacheCountry countryCache;
+
+    @Mock
+    private LRUCacheLanguage languageCache;
+
+    @Mock
+    private CityRepository cityRepository;
+
+    @Mock
+    private CountryRepository countryRepository;
+
+    @Mock
+    private LanguageRepository languageRepository;
+
+    private final CacheProperties properties = new CacheProperties();
+
+    private CacheSnapshot snapshot;
+
+    @BeforeEach
+    void setUp() {
+        properties.getSnapshot().setDirectory(directory.toString());
+        properties.getSnapshot().setMaxEntries(3);
+        snapshot = new CacheSnapshot(properties, cityCache, countryCache,
+                languageCache, cityRepository, countryRepository,
+                languageRepository);
+    }
+
+    @Test
+    void fileRoundTrip() throws IOException {
+        Path file = directory.resolve("city.snapshot");
+
+        CacheSnapshot.write(file, List.of(7, 3, 42));
+
+        assertEquals(List.of(7, 3, 42), CacheSnapshot.read(file));
+    }
+
+    @Test
+    void stopWritesHotKeysOfEveryCache() throws IOException {
+        properties.getSnapshot().setEnabled(true);
+        when(cityCache.hotKeys(3)).thenReturn(List.of(3, 1, 2));
+        when(countryCache.hotKeys(3)).thenReturn(List.of());
+        when(languageCache.hotKeys(3)).thenReturn(List.of(5));
+
+        snapshot.stop();
+
+        assertEquals(List.of(3, 1, 2),
+                CacheSnapshot.read(directory.resolve("city.snapshot")));
+        assertEquals(List.of(5),
+                CacheSnapshot.read(directory.resolve("language.snapshot")));
+    }
+
+    @Test
+    void startLoadsIdsInOneQueryAndRestoresRecency() throws IOException {
+        properties.getSnapshot().setEnabled(true);
+        CacheSnapshot.write(directory.resolve("city.snapshot"), List.of(3, 1, 2));
+        City first = City.builder().id(1).build();
+        City third = City.builder().id(3).build();
+        when(cityRepository.findAllById(List.of(3, 1, 2)))
+                .thenReturn(List.of(first, third));
+
+        snapshot.start();
+
+        InOrder order = inOrder(cityCache);
+        order.verify(cityCache).put(1, ViewUtility.toView(first));
+        order.verify(cityCache).put(3, ViewUtility.toView(third));
+        verifyNoInteractions(countryRepository, languageRepository);
+    }
+
+    @Test
+    void corruptSnapshotIsIgnored() throws IOException {
+        properties.getSnapshot().setEnabled(true);
+        Files.write(directory.resolve("city.snapshot"), new byte[] {1, 2, 3, 4});
+
+        snapshot.start();
+
+        verify(cityRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void failedLoadLeavesCacheColdAndWarmsTheOthers() throws IOException {
+        properties.getSnapshot().setEnabled(true);
+        CacheSnapshot.write(directory.resolve("city.snapshot"), List.of(3, 1));
+        CacheSnapshot.write(directory.resolve("language.snapshot"), List.of(5));
+        Language english = Language.builder().id(5).build();
+        when(cityRepository.findAllById(List.of(3, 1)))
+                .thenThrow(new DataAccessResourceFailureException("connection reset"));
+        when(languageRepository.findAllById(List.of(5)))
+                .thenReturn(List.of(english));
+
+        snapshot.start();
+
+        assertTrue(snapshot.isRunning());
+        verify(cityCache, never()).put(any(), any());
+        verify(languageCache).put(5, ViewUtility.toView(english));
+    }
+
+    @Test
+    void disabledSnapshotDoesNothing() {
+        snapshot.start();
+        snapshot.stop();
+
+        verifyNoInteractions(cityCache, cityRepository);
+    }
+
+}
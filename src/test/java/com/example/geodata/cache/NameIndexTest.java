@@ -0,0 +1,157 @@
+package com.example.geodata.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.example.geodata.repository.CountryRepository;
+import com.example.geodata.repository.IdAndName;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionSynchronizationUtils;
+
+@ExtendWith(MockitoExtension.class)
+class NameIndexTest {
+
+    @Mock
+    private CountryRepository repository;
+
+    @InjectMocks
+    private CountryNameIndex index;
+
+    @Test
+    void startLoadsAllNames() {
+        when(repository.findAllIdsAndNames())
+                .thenReturn(List.of(new Row(1, "Belarus"), new Row(2, "Japan")));
+
+        index.start();
+
+        assertTrue(index.isRunning());
+        assertEquals(2, index.size());
+        assertEquals(Optional.of(2), index.idOf("Japan"));
+        assertFalse(index.contains("Atlantis"));
+    }
+
+    @Test
+    void putRenamesEntity() {
+        index.put(1, "Belarus");
+
+        index.put(1, "Belarus Republic");
+
+        assertFalse(index.contains("Belarus"));
+        assertEquals(Optional.of(1), index.idOf("Belarus Republic"));
+        assertEquals(Optional.of("Belarus Republic"), index.nameOf(1));
+    }
+
+    @Test
+    void duplicateNameResolvesToLowestIdUntilItIsRemoved() {
+        index.put(5, "English");
+        index.put(3, "English");
+
+        assertEquals(Optional.of(3), index.idOf("English"));
+
+        index.remove(3);
+
+        assertEquals(Optional.of(5), index.idOf("English"));
+    }
+
+    @Test
+    void entityWithoutIdIsIgnored() {
+        index.put(null, "Japan");
+
+        assertFalse(index.contains("Japan"));
+    }
+
+    @Test
+    void refreshReadsInsertedNamesBack() {
+        when(repository.findIdsAndNamesByNames(List.of("Chile", "Peru")))
+                .thenReturn(List.of(new Row(7, "Chile"), new Row(8, "Peru")));
+
+        index.refresh(List.of("Chile", "Peru", "Chile"));
+
+        verify(repository).findIdsAndNamesByNames(List.of("Chile", "Peru"));
+        assertEquals(Optional.of(8), index.idOf("Peru"));
+    }
+
+    @Test
+    void writesInsideTransactionWaitForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.put(1, "Belarus");
+            index.refresh(List.of("Chile"));
+
+            assertFalse(index.contains("Belarus"));
+            verifyNoInteractions(repository);
+
+            when(repository.findIdsAndNamesByNames(List.of("Chile")))
+                    .thenReturn(List.of(new Row(7, "Chile")));
+            TransactionSynchronizationUtils.triggerAfterCommit();
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(Optional.of(1), index.idOf("Belarus"));
+        assertEquals(Optional.of(7), index.idOf("Chile"));
+    }
+
+    @Test
+    void writesOfRolledBackTransactionAreDropped() {
+        index.put(1, "Belarus");
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            index.put(2, "Japan");
+            index.remove(1);
+
+            TransactionSynchronizationUtils.invokeAfterCompletion(
+                    TransactionSynchronizationManager.getSynchronizations(),
+                    TransactionSynchronization.STATUS_ROLLED_BACK);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertFalse(index.contains("Japan"));
+        assertEquals(Optional.of(1), index.idOf("Belarus"));
+    }
+
+    @Test
+    void findReadsNamesMissingFromIndex() {
+        index.put(1, "Belarus");
+        when(repository.findIdsAndNamesByNames(List.of("Chile", "Atlantis")))
+                .thenReturn(List.of(new Row(7, "Chile")));
+
+        assertEquals(Map.of("Belarus", 1, "Chile", 7),
+                index.findAll(List.of("Belarus", "Chile", "Atlantis")));
+        assertEquals(Optional.of(7), index.idOf("Chile"));
+        assertEquals(Optional.of(1), index.find("Belarus"));
+        assertEquals(Optional.empty(), index.find(null));
+        verify(repository, times(1))
+                .findIdsAndNamesByNames(List.of("Chile", "Atlantis"));
+    }
+
+    private record Row(Integer id, String name) implements IdAndName {
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+    }
+
+}
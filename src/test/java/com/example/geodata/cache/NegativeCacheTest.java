@@ -0,0 +1,45 @@
+package com.example.geodata.cache;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.geodata.exceptions.ResourceNotFoundException;
+import java.time.Duration;
+import org.junit.jupiter.api.Test;
+
+class NegativeCacheTest {
+
+    private final NegativeCache<Integer> cache =
+            new NegativeCache<>(16, 1, Duration.ofMinutes(1));
+
+    @Test
+    void markAbsentRecordsMiss() {
+        ResourceNotFoundException recorded =
+                cache.markAbsent(1, "missing", cache.stamp());
+
+        assertTrue(cache.isAbsent(1));
+        assertSame(recorded, cache.notFound(1, "missing"));
+    }
+
+    @Test
+    void missReadBeforeInvalidationIsNotRecorded() {
+        long stamp = cache.stamp();
+        cache.invalidate(1);
+
+        cache.markAbsent(1, "missing", stamp);
+
+        assertFalse(cache.isAbsent(1));
+    }
+
+    @Test
+    void missReadBeforeInvalidateAllIsNotRecorded() {
+        long stamp = cache.stamp();
+        cache.invalidateAll();
+
+        cache.markAbsent(1, "missing", stamp);
+
+        assertFalse(cache.isAbsent(1));
+    }
+
+}
@@ -0,0 +1,106 @@
+package com.example.geodata.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.geodata.cache.impl.ExpiringCache;
+import com.example.geodata.dto.CityView;
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class OffHeapCityTierTest {
+
+    private static ExpiringCache.Entry<CityView> entry(final int id, final String name) {
+        return new ExpiringCache.Entry<>(CityView.builder()
+                .id(id)
+                .name(name)
+                .latitude(53.9)
+                .longitude(27.56)
+                .countryId(7)
+                .build(), 42L);
+    }
+
+    @Test
+    void hitRebuildsEqualView() {
+        OffHeapCityTier tier = new OffHeapCityTier(4);
+        tier.put(1, entry(1, "Мінск"));
+
+        ExpiringCache.Entry<CityView> found = tier.get(1).orElseThrow();
+
+        assertEquals(42L, found.writeTime());
+        assertEquals(entry(1, "Мінск").value(), found.value());
+    }
+
+    @Test
+    void missingFieldsStayNull() {
+        OffHeapCityTier tier = new OffHeapCityTier(4);
+        tier.put(1, new ExpiringCache.Entry<>(CityView.builder().id(1).build(), 0L));
+
+        CityView city = tier.get(1).orElseThrow().value();
+
+        assertNull(city.name());
+        assertNull(city.latitude());
+        assertNull(city.countryId());
+    }
+
+    @Test
+    void replaceOverwritesSlot() {
+        OffHeapCityTier tier = new OffHeapCityTier(4);
+        tier.put(1, entry(1, "Minsk"));
+        tier.put(1, entry(1, "Mensk"));
+
+        assertEquals(1, tier.size());
+        assertEquals("Mensk", tier.get(1).orElseThrow().value().name());
+    }
+
+    @Test
+    void nameTooLongIsNotStored() {
+        OffHeapCityTier tier = new OffHeapCityTier(4);
+        tier.put(1, entry(1, "Minsk"));
+        tier.put(1, entry(1, "x".repeat(OffHeapCityTier.MAX_NAME_BYTES + 1)));
+
+        assertFalse(tier.containsKey(1));
+        assertEquals(0, tier.size());
+    }
+
+    @Test
+    void fullTierEvictsUnreferencedSlot() {
+        OffHeapCityTier tier = new OffHeapCityTier(3);
+        tier.put(1, entry(1, "a"));
+        tier.put(2, entry(2, "b"));
+        tier.put(3, entry(3, "c"));
+        tier.get(1);
+
+        tier.put(4, entry(4, "d"));
+
+        assertEquals(3, tier.size());
+        assertTrue(tier.containsKey(1));
+        assertFalse(tier.containsKey(2));
+        assertTrue(tier.containsKey(4));
+    }
+
+    @Test
+    void removeKeepsOtherKeysReachable() {
+        OffHeapCityTier tier = new OffHeapCityTier(1000);
+        for (int i = 0; i < 1000; i++) {
+            tier.put(i, entry(i, "city" + i));
+        }
+        for (int i = 0; i < 1000; i += 2) {
+            tier.remove(i);
+        }
+        for (int i = 1000; i < 1500; i++) {
+            tier.put(i, entry(i, "city" + i));
+        }
+
+        assertEquals(1000, tier.size());
+        for (int i = 0; i < 1500; i++) {
+            Optional<ExpiringCache.Entry<CityView>> found = tier.get(i);
+            assertEquals(i >= 1000 || i % 2 == 1, found.isPresent());
+            found.ifPresent(e -> assertEquals("city" + e.value().id(),
+                    e.value().name()));
+        }
+    }
+
+}
@@ -0,0 +1,102 @@
+package com.example.geodata.cache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+import static org.mockito.Mockito.when;
+
+import com.example.geodata.entity.City;
+import jakarta.persistence.EntityManagerFactory;
+import java.util.Arrays;
+import java.util.List;
+import org.hibernate.Cache;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class SecondLevelCacheTest {
+
+    @Mock
+    private EntityManagerFactory entityManagerFactory;
+
+    @Mock
+    private SessionFactory sessionFactory;
+
+    @Mock
+    private Cache cache;
+
+    private SecondLevelCache secondLevelCache;
+
+    @BeforeEach
+    void setUp() {
+        when(entityManagerFactory.unwrap(SessionFactory.class))
+                .thenReturn(sessionFactory);
+        secondLevelCache = new SecondLevelCache(entityManagerFactory);
+    }
+
+    @Test
+    void evictCitiesDropsCityCollectionOfEachCountry() {
+        when(sessionFactory.getCache()).thenReturn(cache);
+
+        secondLevelCache.evictCities(Arrays.asList(1, null, 2));
+
+        verify(cache).evictCollectionData(
+                "com.example.geodata.entity.Country.cities", 1);
+        verify(cache).evictCollectionData(
+                "com.example.geodata.entity.Country.cities", 2);
+        verifyNoMoreInteractions(cache);
+    }
+
+    @Test
+    void evictLanguagesDropsLanguageCollectionOfEachCountry() {
+        when(sessionFactory.getCache()).thenReturn(cache);
+
+        secondLevelCache.evictLanguages(List.of(3));
+
+        verify(cache).evictCollectionData(
+                "com.example.geodata.entity.Country.languages", 3);
+    }
+
+    @Test
+    void evictCountriesDropsCountryCollectionOfEachLanguage() {
+        when(sessionFactory.getCache()).thenReturn(cache);
+
+        secondLevelCache.evictCountries(List.of(7));
+
+        verify(cache).evictCollectionData(
+                "com.example.geodata.entity.Language.countries", 7);
+    }
+
+    @Test
+    void evictEntitiesDropsEachEntity() {
+        when(sessionFactory.getCache()).thenReturn(cache);
+
+        secondLevelCache.evictEntities(City.class, Arrays.asList(4, null));
+
+        verify(cache).evictEntityData(City.class, 4);
+        verifyNoMoreInteractions(cache);
+    }
+
+    @Test
+    void statisticsAreSortedByRegionName(
+            @Mock final Statistics statistics,
+            @Mock final CacheRegionStatistics city,
+            @Mock final CacheRegionStatistics country) {
+        when(sessionFactory.getStatistics()).thenReturn(statistics);
+        when(statistics.getSecondLevelCacheRegionNames())
+                .thenReturn(new String[] {"country", "city", "gone"});
+        when(statistics.getCacheRegionStatistics("country")).thenReturn(country);
+        when(statistics.getCacheRegionStatistics("city")).thenReturn(city);
+        when(country.getRegionName()).thenReturn("country");
+        when(city.getRegionName()).thenReturn("city");
+
+        assertEquals(List.of(city, country), secondLevelCache.statistics());
+    }
+
+}
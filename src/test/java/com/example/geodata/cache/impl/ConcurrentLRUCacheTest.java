@@ -0,0 +1,149 @@
+package com.example.geodata.cache.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class ConcurrentLRUCacheTest {
+
+    private static final int THREADS = 16;
+
+    private static final int OPERATIONS = 50_000;
+
+    @Test
+    void getAndPut() {
+        ConcurrentLRUCache<Integer, String> cache = new ConcurrentLRUCache<>(64, 4);
+        cache.put(1, "value");
+
+        assertEquals(Optional.of("value"), cache.get(1));
+        assertTrue(cache.containsKey(1));
+    }
+
+    @Test
+    void remove() {
+        ConcurrentLRUCache<Integer, String> cache = new ConcurrentLRUCache<>(64, 4);
+        cache.put(1, "value");
+
+        cache.remove(1);
+
+        assertFalse(cache.containsKey(1));
+        assertEquals(Optional.empty(), cache.get(1));
+    }
+
+    @Test
+    void neverExceedsCapacity() {
+        ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<>(52, 16);
+
+        for (int i = 0; i < 1_000; i++) {
+            cache.put(i, i);
+        }
+
+        assertEquals(52, cache.size());
+    }
+
+    @Test
+    void concurrentAccessKeepsEntriesConsistent() throws Exception {
+        int capacity = 1_024;
+        ConcurrentLRUCache<Integer, Integer> cache =
+                new ConcurrentLRUCache<>(capacity, 16);
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<Integer>> results = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            long seed = t;
+            results.add(executor.submit(() -> {
+                SplittableRandom random = new SplittableRandom(seed);
+                int inconsistent = 0;
+                start.await();
+                for (int i = 0; i < OPERATIONS; i++) {
+                    int key = random.nextInt(capacity * 4);
+                    int operation = random.nextInt(10);
+                    if (operation < 6) {
+                        Optional<Integer> value = cache.get(key);
+                        if (value.isPresent() && value.get() != key * 31) {
+                            inconsistent++;
+                        }
+                    } else if (operation < 9) {
+                        cache.put(key, key * 31);
+                    } else {
+                        cache.remove(key);
+                    }
+                }
+                return inconsistent;
+            }));
+        }
+        start.countDown();
+
+        int inconsistent = 0;
+        for (Future<Integer> result : results) {
+            inconsistent += result.get(30, TimeUnit.SECONDS);
+        }
+        executor.shutdown();
+
+        assertEquals(0, inconsistent);
+        assertTrue(cache.size() <= capacity);
+        for (int key = 0; key < capacity * 4; key++) {
+            Optional<Integer> value = cache.get(key);
+            if (value.isPresent()) {
+                assertEquals(key * 31, value.get());
+            }
+        }
+    }
+
+    @Test
+    void resizeSpreadsOverSegments() {
+        ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<>(256, 16);
+        for (int i = 0; i < 256; i++) {
+            cache.put(i, i);
+        }
+
+        cache.setMaximumWeight(64);
+
+        assertEquals(64, cache.maximumWeight());
+        assertEquals(64, cache.size());
+    }
+
+    @Test
+    void hotKeysTakeMostRecentOfEverySegment() {
+        ConcurrentLRUCache<Integer, Integer> cache = new ConcurrentLRUCache<>(64, 4);
+        for (int i = 0; i < 64; i++) {
+            cache.put(i, i);
+        }
+
+        List<Integer> hotKeys = cache.hotKeys(8);
+
+        assertEquals(List.of(60, 61, 62, 63, 56, 57, 58, 59), hotKeys);
+        assertEquals(64, cache.hotKeys(100).size());
+    }
+
+    @Test
+    void putAllAndGetAllKeepKeyOrder() {
+        ConcurrentLRUCache<Integer, String> cache = new ConcurrentLRUCache<>(64, 4);
+        Map<Integer, String> entries = new LinkedHashMap<>();
+        for (int i = 0; i < 10; i++) {
+            entries.put(i, "v" + i);
+        }
+
+        cache.putAll(entries);
+        Map<Integer, String> found = cache.getAll(List.of(9, 42, 3, 0));
+
+        assertEquals(List.of(9, 3, 0), List.copyOf(found.keySet()));
+        assertEquals("v3", found.get(3));
+        assertEquals(10, cache.size());
+    }
+
+}
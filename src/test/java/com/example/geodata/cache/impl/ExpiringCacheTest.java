@@ -0,0 +1,295 @@
+package com.example.geodata.cache.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.geodata.cache.Cache;
+import com.example.geodata.cache.CacheStats;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class ExpiringCacheTest {
+
+    private static final Duration TTL = Duration.ofMinutes(10);
+
+    private static final int BURST = 32;
+
+    private final AtomicLong ticker = new AtomicLong();
+
+    private final Map<Integer, String> database = new HashMap<>();
+
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private final List<Runnable> scheduled = new ArrayList<>();
+
+    private ExpiringCache<Integer, String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new ExpiringCache<>(new LRUCache<>(10), TTL, 0.8,
+                key -> {
+                    loads.incrementAndGet();
+                    return Optional.ofNullable(database.get(key));
+                },
+                scheduled::add, ticker::get);
+    }
+
+    @Test
+    void entryExpiresAfterTtl() {
+        cache.put(1, "Minsk");
+
+        ticker.addAndGet(TTL.toNanos());
+
+        assertEquals(Optional.empty(), cache.get(1));
+        assertFalse(cache.containsKey(1));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void freshEntryIsServedWithoutRefresh() {
+        cache.put(1, "Minsk");
+
+        ticker.addAndGet(TTL.toNanos() / 2);
+
+        assertEquals(Optional.of("Minsk"), cache.get(1));
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    void entryNearExpiryIsRefreshedInBackground() {
+        cache.put(1, "Minsk");
+        database.put(1, "Minsk-updated");
+        ticker.addAndGet(TTL.toNanos() * 9 / 10);
+
+        assertEquals(Optional.of("Minsk"), cache.get(1));
+        assertEquals(Optional.of("Minsk"), cache.get(1));
+        assertEquals(1, scheduled.size());
+        assertEquals(0, loads.get());
+
+        scheduled.get(0).run();
+        ticker.addAndGet(TTL.toNanos() / 2);
+
+        assertEquals(1, loads.get());
+        assertEquals(Optional.of("Minsk-updated"), cache.get(1));
+    }
+
+    @Test
+    void refreshOfDeletedRowRemovesEntry() {
+        cache.put(1, "Minsk");
+        ticker.addAndGet(TTL.toNanos() * 9 / 10);
+
+        cache.get(1);
+        scheduled.get(0).run();
+
+        assertFalse(cache.containsKey(1));
+    }
+
+    @Test
+    void refreshDoesNotResurrectInvalidatedEntry() {
+        cache.put(1, "Minsk");
+        database.put(1, "Minsk");
+        ticker.addAndGet(TTL.toNanos() * 9 / 10);
+
+        cache.get(1);
+        cache.remove(1);
+        scheduled.get(0).run();
+
+        assertFalse(cache.containsKey(1));
+    }
+
+    @Test
+    void noExpiryWithoutTtl() {
+        ExpiringCache<Integer, String> eternal = new ExpiringCache<>(
+                new LRUCache<>(10), null, 0.8, key -> Optional.empty(),
+                scheduled::add, ticker::get);
+        eternal.put(1, "Minsk");
+
+        ticker.addAndGet(Duration.ofDays(365).toNanos());
+
+        assertEquals(Optional.of("Minsk"), eternal.get(1));
+        assertTrue(scheduled.isEmpty());
+    }
+
+    @Test
+    void statsCountExpiryAsMissAndTimeRefreshLoads() {
+        database.put(1, "Minsk");
+        ExpiringCache<Integer, String> timed = new ExpiringCache<>(
+                new LRUCache<>(10), TTL, 0.8,
+                key -> {
+                    ticker.addAndGet(1_000);
+                    return Optional.ofNullable(database.get(key));
+                },
+                scheduled::add, ticker::get);
+        timed.put(1, "Minsk");
+        timed.put(2, "Brest");
+        ticker.addAndGet(TTL.toNanos() * 9 / 10);
+
+        timed.get(1);
+        scheduled.get(0).run();
+        timed.get(3);
+        timed.remove(1);
+        ticker.addAndGet(TTL.toNanos());
+        timed.get(2);
+
+        CacheStats stats = timed.stats();
+        assertEquals(1, stats.hitCount());
+        assertEquals(2, stats.missCount());
+        assertEquals(1, stats.loadCount());
+        assertEquals(1_000, stats.totalLoadTime());
+        assertEquals(1, stats.evictionCount());
+        assertEquals(1, stats.invalidationCount());
+    }
+
+    @Test
+    void getAllLoadsEveryMissInOneCall() {
+        database.put(2, "Brest");
+        database.put(3, "Grodno");
+        List<Set<Integer>> batches = new ArrayList<>();
+        cache.put(1, "Minsk");
+
+        Map<Integer, String> found = cache.getAll(List.of(3, 1, 2, 4), missing -> {
+            batches.add(Set.copyOf(missing));
+            Map<Integer, String> loaded = new LinkedHashMap<>();
+            missing.forEach(id -> {
+                if (database.containsKey(id)) {
+                    loaded.put(id, database.get(id));
+                }
+            });
+            return loaded;
+        });
+
+        assertEquals(List.of(Set.of(2, 3, 4)), batches);
+        assertEquals(List.of(3, 1, 2), List.copyOf(found.keySet()));
+        assertEquals(Map.of(2, "Brest", 3, "Grodno"),
+                cache.getAll(List.of(2, 3)));
+        assertEquals(1, cache.stats().loadCount());
+    }
+
+    @Test
+    void getOrLoadDoesNotCacheKeyInvalidatedDuringLoad() {
+        Optional<String> loaded = cache.getOrLoad(1, key -> {
+            cache.remove(1);
+            return Optional.of("Minsk");
+        });
+
+        assertEquals(Optional.of("Minsk"), loaded);
+        assertFalse(cache.containsKey(1));
+    }
+
+    @Test
+    void getAllDoesNotCacheKeyInvalidatedDuringBulkLoad() {
+        Map<Integer, String> found = cache.getAll(List.of(1, 2), missing -> {
+            cache.remove(1);
+            return Map.of(1, "Minsk", 2, "Brest");
+        });
+
+        assertEquals(Map.of(1, "Minsk", 2, "Brest"), found);
+        assertFalse(cache.containsKey(1));
+        assertTrue(cache.containsKey(2));
+    }
+
+    @Test
+    void getOrLoadWaitsForBulkLoadOfSameKey() throws Exception {
+        CountDownLatch bulkLoading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+        try {
+            Future<Map<Integer, String>> bulk = pool.submit(
+                    () -> cache.getAll(List.of(1), missing -> {
+                        bulkLoading.countDown();
+                        awaitQuietly(release);
+                        return Map.of(1, "Minsk");
+                    }));
+            assertTrue(bulkLoading.await(10, TimeUnit.SECONDS));
+            Future<Optional<String>> single = pool.submit(
+                    () -> cache.getOrLoad(1, key -> Optional.of("stale")));
+            release.countDown();
+
+            assertEquals(Map.of(1, "Minsk"), bulk.get(10, TimeUnit.SECONDS));
+            assertEquals(Optional.of("Minsk"), single.get(10, TimeUnit.SECONDS));
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+
+    @Test
+    void getAllSkipsExpiredEntries() {
+        cache.put(1, "Minsk");
+        ticker.addAndGet(TTL.toNanos() / 2);
+        cache.putAll(Map.of(2, "Brest"));
+        ticker.addAndGet(TTL.toNanos() / 2);
+
+        assertEquals(Map.of(2, "Brest"), cache.getAll(List.of(1, 2)));
+        assertFalse(cache.containsKey(1));
+    }
+
+    @Test
+    void getThenLoadQueriesDatabaseOncePerThread() throws Exception {
+        ConcurrentLRUCache<Integer, String> plain = new ConcurrentLRUCache<>(10, 1);
+
+        assertEquals(BURST, burst(plain));
+    }
+
+    @Test
+    void getOrLoadSharesOneLoadPerBurst() throws Exception {
+        assertEquals(1, burst(cache));
+        assertEquals(Optional.of("Minsk"), cache.get(1));
+    }
+
+    /**
+     * Sends {@link #BURST} concurrent misses for one key and returns the
+     * number of database calls. The loader holds until every thread has
+     * issued its request.
+     */
+    private int burst(final Cache<Integer, String> target)
+            throws Exception {
+        AtomicInteger queries = new AtomicInteger();
+        CountDownLatch arrived = new CountDownLatch(BURST);
+        ExecutorService pool = Executors.newFixedThreadPool(BURST);
+        try {
+            List<Future<Optional<String>>> results = new ArrayList<>();
+            for (int i = 0; i < BURST; i++) {
+                results.add(pool.submit(() -> {
+                    arrived.countDown();
+                    return target.getOrLoad(1, key -> {
+                        queries.incrementAndGet();
+                        awaitQuietly(arrived);
+                        return Optional.of("Minsk");
+                    });
+                }));
+            }
+            for (Future<Optional<String>> result : results) {
+                assertEquals(Optional.of("Minsk"), result.get(10, TimeUnit.SECONDS));
+            }
+        } finally {
+            pool.shutdownNow();
+        }
+        return queries.get();
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+            Thread.sleep(200);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
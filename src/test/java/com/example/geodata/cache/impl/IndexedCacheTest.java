@@ -0,0 +1,122 @@
+package com.example.geodata.cache.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+
+class IndexedCacheTest {
+
+    private final LRUCache<Integer, String> store = new LRUCache<>(4_000);
+
+    /**
+     * Values are grouped by their first letter.
+     */
+    private final IndexedCache<Integer, String, Character> cache =
+            new IndexedCache<>(store, value -> value.charAt(0));
+
+    @Test
+    void putIndexesKeyUnderGroupOfValue() {
+        cache.put(1, "apple");
+        cache.put(2, "avocado");
+        cache.put(3, "banana");
+
+        assertEquals(Set.of(1, 2), cache.keysOf('a'));
+        assertEquals(Set.of(3), cache.keysOf('b'));
+        assertTrue(cache.keysOf('c').isEmpty());
+    }
+
+    @Test
+    void putMovesKeyToNewGroup() {
+        cache.put(1, "apple");
+
+        cache.put(1, "banana");
+
+        assertTrue(cache.keysOf('a').isEmpty());
+        assertEquals(Set.of(1), cache.keysOf('b'));
+    }
+
+    @Test
+    void removeDropsKeyFromIndex() {
+        cache.put(1, "apple");
+        cache.put(2, "avocado");
+
+        cache.remove(1);
+
+        assertEquals(Set.of(2), cache.keysOf('a'));
+    }
+
+    @Test
+    void nullGroupIsNotIndexed() {
+        IndexedCache<Integer, String, Character> nullable =
+                new IndexedCache<>(store, value -> null);
+
+        nullable.put(1, "apple");
+
+        assertEquals(0, nullable.indexedKeys());
+    }
+
+    @Test
+    void keysEvictedByStoreAreSweptOnceIndexDoubles() {
+        LRUCache<Integer, String> small = new LRUCache<>(10);
+        IndexedCache<Integer, String, Character> indexed =
+                new IndexedCache<>(small, value -> value.charAt(0));
+
+        for (int i = 0; i < 5_000; i++) {
+            indexed.put(i, "apple");
+        }
+
+        assertTrue(indexed.indexedKeys() <= 2_048);
+        assertTrue(indexed.keysOf('a').containsAll(Set.of(4_990, 4_999)));
+    }
+
+    /**
+     * A put landing while a remove of the same key is between the store
+     * and the index must neither lose its value nor its index entry.
+     */
+    @Test
+    void putRacingRemoveStaysIndexed() throws InterruptedException {
+        CountDownLatch removing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        LRUCache<Integer, String> blocking = new LRUCache<>(10) {
+            @Override
+            public void remove(final Integer key) {
+                super.remove(key);
+                removing.countDown();
+                awaitQuietly(release);
+            }
+        };
+        IndexedCache<Integer, String, Character> indexed =
+                new IndexedCache<>(blocking, value -> value.charAt(0));
+        indexed.put(1, "apple");
+
+        Thread remover = new Thread(() -> indexed.remove(1));
+        remover.start();
+        assertTrue(removing.await(10, TimeUnit.SECONDS));
+        Thread writer = new Thread(() -> indexed.put(1, "avocado"));
+        writer.start();
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (writer.isAlive() && writer.getState() == Thread.State.RUNNABLE
+                && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+        remover.join(10_000);
+        writer.join(10_000);
+
+        assertEquals("avocado", indexed.getIfPresent(1));
+        assertEquals(Set.of(1), indexed.keysOf('a'));
+    }
+
+    private static void awaitQuietly(final CountDownLatch latch) {
+        try {
+            latch.await(10, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+}
@@ -0,0 +1,176 @@
+package com.example.geodata.cache.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.geodata.cache.CacheStats;
+import java.util.List;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class IntLRUCacheTest {
+
+    private IntLRUCache<String> cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new IntLRUCache<>(10);
+    }
+
+    @Test
+    void getAndPut() {
+        cache.put(123, "value");
+
+        assertEquals(Optional.of("value"), cache.get(123));
+        assertEquals("value", cache.getIfPresent(123));
+        assertNull(cache.getIfPresent(124));
+    }
+
+    @Test
+    void evictsLeastRecentlyUsed() {
+        IntLRUCache<String> smallCache = new IntLRUCache<>(2);
+        smallCache.put(1, "one");
+        smallCache.put(2, "two");
+        smallCache.get(1);
+
+        smallCache.put(3, "three");
+
+        assertTrue(smallCache.containsKey(1));
+        assertFalse(smallCache.containsKey(2));
+        assertTrue(smallCache.containsKey(3));
+        assertEquals(2, smallCache.size());
+    }
+
+    @Test
+    void putExistingKeyReplacesValue() {
+        IntLRUCache<String> smallCache = new IntLRUCache<>(2);
+        smallCache.put(1, "one");
+        smallCache.put(2, "two");
+        smallCache.put(1, "uno");
+
+        smallCache.put(3, "three");
+
+        assertEquals(Optional.of("uno"), smallCache.get(1));
+        assertFalse(smallCache.containsKey(2));
+        assertEquals(2, smallCache.size());
+    }
+
+    @Test
+    void evictsByWeight() {
+        IntLRUCache<String> weighted =
+                new IntLRUCache<>(10, (key, value) -> value.length());
+        weighted.put(1, "aaaa");
+        weighted.put(2, "bbbb");
+
+        weighted.put(3, "cccc");
+
+        assertFalse(weighted.containsKey(1));
+        assertEquals(8, weighted.weightedSize());
+        assertEquals(2, weighted.size());
+    }
+
+    @Test
+    void rejectsEntryHeavierThanTheCache() {
+        IntLRUCache<String> weighted =
+                new IntLRUCache<>(10, (key, value) -> value.length());
+        weighted.put(1, "aaaa");
+        weighted.put(2, "bbbb");
+        weighted.put(3, "c");
+
+        weighted.put(3, "ccccccccccc");
+
+        assertTrue(weighted.containsKey(1));
+        assertTrue(weighted.containsKey(2));
+        assertFalse(weighted.containsKey(3));
+        assertEquals(8, weighted.weightedSize());
+        assertEquals(1, weighted.stats().evictionCount());
+    }
+
+    @Test
+    void shrinkingMaximumWeightEvicts() {
+        for (int i = 0; i < 10; i++) {
+            cache.put(i, "value");
+        }
+
+        cache.setMaximumWeight(3);
+
+        assertEquals(3, cache.size());
+        assertTrue(cache.containsKey(9));
+        assertFalse(cache.containsKey(6));
+    }
+
+    @Test
+    void statsCountHitsMissesEvictionsAndInvalidations() {
+        for (int i = 0; i < 12; i++) {
+            cache.put(i, "value");
+        }
+        cache.get(11);
+        cache.get(0);
+        cache.remove(5);
+        cache.remove(0);
+
+        CacheStats stats = cache.stats();
+
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(2, stats.evictionCount());
+        assertEquals(1, stats.invalidationCount());
+    }
+
+    @Test
+    void hotKeysAreMostRecentFirst() {
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(3, "c");
+        cache.get(1);
+
+        assertEquals(List.of(1, 3), cache.hotKeys(2));
+        assertEquals(List.of(1, 3, 2), cache.hotKeys(10));
+    }
+
+    @Test
+    void collidingKeysStayReachableAfterRemovals() {
+        IntLRUCache<Integer> large = new IntLRUCache<>(100_000);
+        for (int i = 0; i < 20_000; i++) {
+            large.put(i * 1024, i);
+        }
+        for (int i = 0; i < 20_000; i += 3) {
+            large.remove(i * 1024);
+        }
+
+        for (int i = 0; i < 20_000; i++) {
+            assertEquals(i % 3 == 0 ? null : Integer.valueOf(i),
+                    large.getIfPresent(i * 1024));
+        }
+    }
+
+    @Test
+    void matchesLRUCacheUnderRandomOperations() {
+        IntLRUCache<Integer> primitive = new IntLRUCache<>(64);
+        LRUCache<Integer, Integer> boxed = new LRUCache<>(64);
+        SplittableRandom random = new SplittableRandom(7);
+
+        for (int i = 0; i < 100_000; i++) {
+            int key = random.nextInt(256) - 128;
+            switch (random.nextInt(3)) {
+                case 0 -> {
+                    primitive.put(key, i);
+                    boxed.put(key, i);
+                }
+                case 1 -> assertEquals(boxed.get(key), primitive.get(key));
+                default -> {
+                    primitive.remove(key);
+                    boxed.remove(key);
+                }
+            }
+        }
+
+        assertEquals(boxed.size(), primitive.size());
+        assertEquals(boxed.hotKeys(64), primitive.hotKeys(64));
+    }
+
+}
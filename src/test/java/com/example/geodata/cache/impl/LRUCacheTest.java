@@ -1,9 +1,11 @@
 package com.example.geodata.cache.impl;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
-import com.example.geodata.cache.impl.LRUCache;
+import com.example.geodata.cache.CacheStats;
+import java.util.List;
 import java.util.Optional;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -49,4 +51,122 @@ class LRUCacheTest {
         assertEquals(cache.get(key), Optional.empty());
     }
 
-}
\ No newline at end of file
+    @Test
+    void evictsLeastRecentlyUsed() {
+        LRUCache<Integer, String> smallCache = new LRUCache<>(2);
+        smallCache.put(1, "one");
+        smallCache.put(2, "two");
+        smallCache.get(1);
+
+        smallCache.put(3, "three");
+
+        assertTrue(smallCache.containsKey(1));
+        assertFalse(smallCache.containsKey(2));
+        assertTrue(smallCache.containsKey(3));
+        assertEquals(2, smallCache.size());
+    }
+
+    @Test
+    void putExistingKeyReplacesValue() {
+        LRUCache<Integer, String> smallCache = new LRUCache<>(2);
+        smallCache.put(1, "one");
+        smallCache.put(2, "two");
+        smallCache.put(1, "uno");
+
+        smallCache.put(3, "three");
+
+        assertEquals(Optional.of("uno"), smallCache.get(1));
+        assertFalse(smallCache.containsKey(2));
+        assertEquals(2, smallCache.size());
+    }
+
+    @Test
+    void removeHeadAndTail() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+
+        cache.remove("c");
+        cache.remove("a");
+
+        assertEquals(1, cache.size());
+        assertEquals(Optional.of("2"), cache.get("b"));
+    }
+
+    @Test
+    void evictsByWeight() {
+        LRUCache<Integer, String> weighted =
+                new LRUCache<>(10, (key, value) -> value.length());
+        weighted.put(1, "aaaa");
+        weighted.put(2, "bbbb");
+
+        weighted.put(3, "cccc");
+
+        assertFalse(weighted.containsKey(1));
+        assertEquals(8, weighted.weightedSize());
+        assertEquals(2, weighted.size());
+    }
+
+    @Test
+    void rejectsEntryHeavierThanTheCache() {
+        LRUCache<Integer, String> weighted =
+                new LRUCache<>(10, (key, value) -> value.length());
+        weighted.put(1, "aaaa");
+        weighted.put(2, "bbbb");
+        weighted.put(3, "c");
+
+        weighted.put(3, "ccccccccccc");
+
+        assertTrue(weighted.containsKey(1));
+        assertTrue(weighted.containsKey(2));
+        assertFalse(weighted.containsKey(3));
+        assertEquals(8, weighted.weightedSize());
+        assertEquals(2, weighted.size());
+        assertEquals(1, weighted.stats().evictionCount());
+    }
+
+    @Test
+    void shrinkingMaximumWeightEvicts() {
+        for (int i = 0; i < 10; i++) {
+            cache.put("#" + i, "value");
+        }
+
+        cache.setMaximumWeight(3);
+
+        assertEquals(3, cache.size());
+        assertEquals(3, cache.maximumWeight());
+        assertTrue(cache.containsKey("#9"));
+        assertFalse(cache.containsKey("#6"));
+    }
+
+    @Test
+    void statsCountHitsMissesEvictionsAndInvalidations() {
+        for (int i = 0; i < 12; i++) {
+            cache.put("#" + i, "value");
+        }
+        cache.get("#11");
+        cache.get("#0");
+        cache.remove("#5");
+        cache.remove("#0");
+
+        CacheStats stats = cache.stats();
+
+        assertEquals(1, stats.hitCount());
+        assertEquals(1, stats.missCount());
+        assertEquals(0.5, stats.hitRate());
+        assertEquals(2, stats.evictionCount());
+        assertEquals(1, stats.invalidationCount());
+    }
+
+    @Test
+    void hotKeysAreMostRecentFirst() {
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.put("c", "3");
+        cache.get("a");
+
+        assertEquals(List.of("a", "c"), cache.hotKeys(2));
+        assertEquals(List.of("a", "c", "b"), cache.hotKeys(10));
+    }
+
+}
@@ -0,0 +1,52 @@
+package com.example.geodata.cache.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Optional;
+import org.junit.jupiter.api.Test;
+
+class TieredCacheTest {
+
+    private final LRUCache<Integer, String> first = new LRUCache<>(2);
+
+    private final LRUCache<Integer, String> second = new LRUCache<>(10);
+
+    private final TieredCache<Integer, String> cache = new TieredCache<>(first, second);
+
+    @Test
+    void evictedFromFirstTierIsServedFromSecondAndPromoted() {
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(3, "c");
+        assertFalse(first.containsKey(1));
+
+        assertEquals(Optional.of("a"), cache.get(1));
+        assertTrue(first.containsKey(1));
+    }
+
+    @Test
+    void getIfPresentPromotesFromSecondTier() {
+        cache.put(1, "a");
+        cache.put(2, "b");
+        cache.put(3, "c");
+
+        assertEquals("a", cache.getIfPresent(1));
+        assertTrue(first.containsKey(1));
+        assertNull(cache.getIfPresent(4));
+    }
+
+    @Test
+    void removeClearsBothTiers() {
+        cache.put(1, "a");
+
+        cache.remove(1);
+
+        assertFalse(first.containsKey(1));
+        assertFalse(second.containsKey(1));
+        assertEquals(Optional.empty(), cache.get(1));
+    }
+
+}
@@ -0,0 +1,180 @@
+package com.example.geodata.cache.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.geodata.cache.Cache;
+import java.util.Arrays;
+import java.util.Optional;
+import java.util.SplittableRandom;
+import java.util.function.IntSupplier;
+import org.junit.jupiter.api.Test;
+
+class TinyLfuCacheTest {
+
+    private static final int CAPACITY = 1_000;
+
+    private static final int KEY_SPACE = 100_000;
+
+    private static final int TRACE_LENGTH = 1_000_000;
+
+    @Test
+    void getAndPut() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(10);
+        cache.put("#123", "value");
+
+        assertEquals(Optional.of("value"), cache.get("#123"));
+        assertTrue(cache.containsKey("#123"));
+    }
+
+    @Test
+    void remove() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(10);
+        cache.put("#123", "value");
+
+        cache.remove("#123");
+
+        assertFalse(cache.containsKey("#123"));
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void missThenLoadCountsOnce() {
+        TinyLfuCache<String, String> cache = new TinyLfuCache<>(10);
+
+        cache.get("#123");
+        cache.put("#123", "value");
+        assertEquals(1, cache.frequency("#123"));
+
+        cache.get("#123");
+        cache.put("#123", "other");
+        assertEquals(3, cache.frequency("#123"));
+    }
+
+    @Test
+    void neverExceedsCapacity() {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(52);
+
+        for (int i = 0; i < 10_000; i++) {
+            cache.put(i % 700, i);
+            cache.get(i % 13);
+        }
+
+        assertTrue(cache.size() <= 52);
+    }
+
+    @Test
+    void frequentKeysSurviveScan() {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(100);
+        for (int round = 0; round < 10; round++) {
+            for (int key = 0; key < 50; key++) {
+                cache.put(key, key);
+                cache.get(key);
+            }
+        }
+
+        for (int key = 1_000; key < 1_500; key++) {
+            cache.put(key, key);
+        }
+
+        for (int key = 0; key < 50; key++) {
+            assertTrue(cache.containsKey(key));
+        }
+    }
+
+    @Test
+    void traceReplayZipfian() {
+        double lru = replay(new LRUCache<>(CAPACITY), zipf(1));
+        double tinyLfu = replay(new TinyLfuCache<>(CAPACITY), zipf(1));
+
+        assertTrue(tinyLfu >= lru + 0.05, () -> ratios(lru, tinyLfu));
+    }
+
+    @Test
+    void traceReplayScanMixed() {
+        double lru = replay(new LRUCache<>(CAPACITY), scanMixed(2));
+        double tinyLfu = replay(new TinyLfuCache<>(CAPACITY), scanMixed(2));
+
+        assertTrue(tinyLfu >= lru + 0.05, () -> ratios(lru, tinyLfu));
+    }
+
+    private static double replay(final Cache<Integer, Integer> cache,
+                                 final IntSupplier trace) {
+        int hits = 0;
+        for (int i = 0; i < TRACE_LENGTH; i++) {
+            int key = trace.getAsInt();
+            if (cache.get(key).isPresent()) {
+                hits++;
+            } else {
+                cache.put(key, key);
+            }
+        }
+        return (double) hits / TRACE_LENGTH;
+    }
+
+    private static String ratios(final double lru, final double tinyLfu) {
+        return String.format("hit ratio LRU %.4f, TinyLFU %.4f", lru, tinyLfu);
+    }
+
+    private static IntSupplier zipf(final long seed) {
+        double[] cdf = new double[KEY_SPACE];
+        double sum = 0;
+        for (int i = 0; i < KEY_SPACE; i++) {
+            sum += 1.0 / (i + 1);
+            cdf[i] = sum;
+        }
+        for (int i = 0; i < KEY_SPACE; i++) {
+            cdf[i] /= sum;
+        }
+        SplittableRandom random = new SplittableRandom(seed);
+        return () -> {
+            int index = Arrays.binarySearch(cdf, random.nextDouble());
+            return index >= 0 ? index : Math.min(-index - 1, KEY_SPACE - 1);
+        };
+    }
+
+    private static IntSupplier scanMixed(final long seed) {
+        IntSupplier zipf = zipf(seed);
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] scanKey = {KEY_SPACE};
+        int[] scanRemaining = {0};
+        return () -> {
+            if (scanRemaining[0] == 0 && random.nextInt(5_000) == 0) {
+                scanRemaining[0] = CAPACITY * 2;
+            }
+            if (scanRemaining[0] > 0) {
+                scanRemaining[0]--;
+                return scanKey[0]++;
+            }
+            return zipf.getAsInt();
+        };
+    }
+
+    @Test
+    void evictsByWeight() {
+        TinyLfuCache<Integer, String> cache =
+                new TinyLfuCache<>(1_000, (key, value) -> value.length());
+
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, "x".repeat(50));
+        }
+
+        assertTrue(cache.weightedSize() <= 1_000);
+        assertTrue(cache.size() <= 20);
+    }
+
+    @Test
+    void shrinkingMaximumWeightEvicts() {
+        TinyLfuCache<Integer, Integer> cache = new TinyLfuCache<>(100);
+        for (int i = 0; i < 100; i++) {
+            cache.put(i, i);
+        }
+
+        cache.setMaximumWeight(10);
+
+        assertTrue(cache.size() <= 10);
+        assertEquals(10, cache.maximumWeight());
+    }
+
+}
@@ -0,0 +1,94 @@
+package com.example.geodata.config;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.example.geodata.exceptions.ServiceUnavailableException;
+import com.example.geodata.service.ingest.UpsertTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+class UniqueKeyCheckTest {
+
+    private JdbcTemplate jdbcTemplate;
+
+    private UniqueKeyCheck check;
+
+    @BeforeEach
+    void setUp() {
+        jdbcTemplate = new JdbcTemplate(new DriverManagerDataSource(
+                "jdbc:h2:mem:unique-keys;DB_CLOSE_DELAY=-1"));
+        check = new UniqueKeyCheck(jdbcTemplate);
+        jdbcTemplate.execute("CREATE TABLE languages (id INT PRIMARY KEY,"
+                + " language_name VARCHAR(255), language_code VARCHAR(255))");
+        jdbcTemplate.execute("CREATE TABLE countries (id INT PRIMARY KEY,"
+                + " country_name VARCHAR(255) CONSTRAINT uk_countries_name UNIQUE)");
+        jdbcTemplate.execute("CREATE TABLE cities (id INT PRIMARY KEY,"
+                + " city_name VARCHAR(255), fk_cities_countries INT)");
+    }
+
+    @AfterEach
+    void tearDown() {
+        jdbcTemplate.execute("DROP ALL OBJECTS");
+    }
+
+    @Test
+    void start_everyKeyPresent() {
+        jdbcTemplate.execute("CREATE UNIQUE INDEX languages_code"
+                + " ON languages (language_code)");
+
+        check.start();
+
+        assertTrue(check.isRunning());
+        assertDoesNotThrow(() -> check.require(UpsertTable.LANGUAGES));
+    }
+
+    @Test
+    void start_missingKeyOnlyDisablesUpsertsOfItsTable() {
+        jdbcTemplate.execute("CREATE UNIQUE INDEX languages_name_code"
+                + " ON languages (language_name, language_code)");
+        jdbcTemplate.execute("INSERT INTO languages VALUES"
+                + " (1, 'English', 'en'), (2, 'Englisch', 'en')");
+
+        check.start();
+
+        assertTrue(check.isRunning());
+        ServiceUnavailableException e = assertThrows(
+                ServiceUnavailableException.class,
+                () -> check.require(UpsertTable.LANGUAGES));
+        assertTrue(e.getMessage().contains("languages[language_code]"));
+        assertDoesNotThrow(() -> check.require(UpsertTable.COUNTRIES));
+        assertEquals(2, jdbcTemplate.queryForObject(
+                "SELECT count(*) FROM languages", Integer.class));
+    }
+
+    @Test
+    void require_picksUpKeyAddedAfterStartup() {
+        check.start();
+        assertThrows(ServiceUnavailableException.class,
+                () -> check.require(UpsertTable.LANGUAGES));
+
+        jdbcTemplate.execute("CREATE UNIQUE INDEX languages_code"
+                + " ON languages (language_code)");
+
+        assertDoesNotThrow(() -> check.require(UpsertTable.LANGUAGES));
+    }
+
+    @Test
+    void start_citiesMayRepeatANameWithinACountry() {
+        jdbcTemplate.execute("CREATE UNIQUE INDEX languages_code"
+                + " ON languages (language_code)");
+        jdbcTemplate.execute("INSERT INTO cities VALUES"
+                + " (1, 'Springfield', 1), (2, 'Springfield', 1)");
+
+        check.start();
+
+        assertTrue(check.isRunning());
+    }
+
+}
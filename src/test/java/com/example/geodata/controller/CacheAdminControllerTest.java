@@ -0,0 +1,62 @@
+package com.example.geodata.controller;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.when;
+
+import com.example.geodata.dto.CacheInfoDTO;
+import com.example.geodata.dto.CacheRegionDTO;
+import com.example.geodata.exceptions.ResourceNotFoundException;
+import com.example.geodata.service.CacheService;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+@ExtendWith(MockitoExtension.class)
+class CacheAdminControllerTest {
+
+    @Mock
+    private CacheService cacheService;
+
+    @InjectMocks
+    private CacheAdminController cacheAdminController;
+
+    @Test
+    void getAll() {
+        ResponseEntity<List<CacheInfoDTO>> responseEntity = cacheAdminController
+                .getAll();
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+    }
+
+    @Test
+    void getRegions() {
+        ResponseEntity<List<CacheRegionDTO>> responseEntity = cacheAdminController
+                .getRegions();
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+    }
+
+    @Test
+    void resize()
+            throws ResourceNotFoundException {
+        CacheInfoDTO info = CacheInfoDTO.builder()
+                .name("city")
+                .maximumWeight(1_024L)
+                .build();
+
+        when(cacheService.resize("city", 1_024L))
+                .thenReturn(info);
+
+        ResponseEntity<CacheInfoDTO> responseEntity = cacheAdminController
+                .resize("city", 1_024L);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(info, responseEntity.getBody());
+    }
+
+}
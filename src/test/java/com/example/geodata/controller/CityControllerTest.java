@@ -1,13 +1,22 @@
 package com.example.geodata.controller;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.example.geodata.controller.CityController;
+import com.example.geodata.dto.BulkChangeReport;
+import com.example.geodata.dto.BulkInsertReport;
+import com.example.geodata.dto.BulkUpsertReport;
 import com.example.geodata.dto.CityDTO;
+import com.example.geodata.dto.CityView;
+import com.example.geodata.dto.KeysetPage;
 import com.example.geodata.entity.City;
 import com.example.geodata.exceptions.ResourceNotFoundException;
 import com.example.geodata.service.CityService;
+import com.example.geodata.service.ingest.IngestEngine;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -17,7 +26,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @ExtendWith(MockitoExtension.class)
 class CityControllerTest {
@@ -31,21 +42,33 @@ class CityControllerTest {
 
     @Test
     void getAll() {
-        ResponseEntity<List<City>> responseEntity = cityController
-                .getAll();
+        ResponseEntity<KeysetPage<CityView>> responseEntity = cityController
+                .getAll(0, 100);
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
     }
 
+    @Test
+    void export_streamsThroughService() throws IOException {
+        ResponseEntity<StreamingResponseBody> responseEntity = cityController
+                .export();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(out);
+
+        assertEquals(MediaType.APPLICATION_NDJSON,
+                responseEntity.getHeaders().getContentType());
+        verify(cityService).export(out);
+    }
+
     @Test
     void findById()
             throws ResourceNotFoundException {
         int id = 1;
-        Optional<City> mockCity = Optional.of(new City());
+        Optional<CityView> mockCity = Optional.of(CityView.builder().id(id).build());
 
         when(cityService.findById(id))
                 .thenReturn(mockCity);
-        ResponseEntity<Optional<City>> responseEntity = cityController
+        ResponseEntity<Optional<CityView>> responseEntity = cityController
                 .findById(id);
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
@@ -114,10 +137,54 @@ class CityControllerTest {
 
     @Test
     void bulkInsert() {
-        HttpStatus httpStatus = cityController
-                .bulkInsert(new ArrayList<>());
+        BulkInsertReport report = BulkInsertReport.builder()
+                .chunks(List.of())
+                .rows(List.of())
+                .build();
+        when(cityService.bulkInsert(new ArrayList<>(), IngestEngine.COPY))
+                .thenReturn(report);
 
-        assertEquals(HttpStatus.OK, httpStatus);
+        ResponseEntity<BulkInsertReport> responseEntity = cityController
+                .bulkInsert(new ArrayList<>(), IngestEngine.COPY);
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(report, responseEntity.getBody());
+    }
+
+    @Test
+    void bulkUpsert() {
+        BulkUpsertReport report = new BulkUpsertReport(1, 2, 3);
+        when(cityService.bulkUpsert(List.of())).thenReturn(report);
+
+        ResponseEntity<BulkUpsertReport> responseEntity = cityController
+                .bulkUpsert(List.of());
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(report, responseEntity.getBody());
+    }
+
+    @Test
+    void bulkDelete() {
+        BulkChangeReport report = new BulkChangeReport(1, List.of(2));
+        when(cityService.bulkDelete(List.of(1, 2))).thenReturn(report);
+
+        ResponseEntity<BulkChangeReport> responseEntity = cityController
+                .bulkDelete(List.of(1, 2));
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(report, responseEntity.getBody());
+    }
+
+    @Test
+    void bulkUpdate() {
+        BulkChangeReport report = new BulkChangeReport(0, List.of());
+        when(cityService.bulkUpdate(List.of())).thenReturn(report);
+
+        ResponseEntity<BulkChangeReport> responseEntity = cityController
+                .bulkUpdate(List.of());
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(report, responseEntity.getBody());
     }
 
 }
\ No newline at end of file
@@ -5,10 +5,15 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.when;
 
 import com.example.geodata.controller.CountryController;
+import com.example.geodata.dto.BulkChangeReport;
+import com.example.geodata.dto.BulkUpsertReport;
 import com.example.geodata.dto.CountryDTO;
+import com.example.geodata.dto.CountryView;
+import com.example.geodata.dto.KeysetPage;
 import com.example.geodata.entity.Country;
 import com.example.geodata.exceptions.ResourceNotFoundException;
 import com.example.geodata.service.CountryService;
+import com.example.geodata.service.ingest.IngestEngine;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -31,8 +36,8 @@ class CountryControllerTest {
 
     @Test
     void getAll() {
-        ResponseEntity<List<Country>> responseEntity = countryController
-                .getAll();
+        ResponseEntity<KeysetPage<CountryView>> responseEntity = countryController
+                .getAll(0, 100);
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
     }
@@ -42,9 +47,9 @@ class CountryControllerTest {
             throws ResourceNotFoundException {
         int id = 1;
         when(countryService.findById(id))
-                .thenReturn(Optional.ofNullable(any(Country.class)));
+                .thenReturn(Optional.ofNullable(any(CountryView.class)));
 
-        ResponseEntity<Optional<Country>> responseEntity = countryController
+        ResponseEntity<Optional<CountryView>> responseEntity = countryController
                 .findById(id);
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
     }
@@ -104,9 +109,45 @@ class CountryControllerTest {
     @Test
     void bulkInsert() {
         HttpStatus httpStatus = countryController
-                .bulkInsert(new ArrayList<>());
+                .bulkInsert(new ArrayList<>(), IngestEngine.COPY);
 
         assertEquals(HttpStatus.OK, httpStatus);
     }
 
+    @Test
+    void bulkUpsert() {
+        BulkUpsertReport report = new BulkUpsertReport(1, 2, 3);
+        when(countryService.bulkUpsert(List.of())).thenReturn(report);
+
+        ResponseEntity<BulkUpsertReport> responseEntity = countryController
+                .bulkUpsert(List.of());
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(report, responseEntity.getBody());
+    }
+
+    @Test
+    void bulkDelete() {
+        BulkChangeReport report = new BulkChangeReport(1, List.of(2));
+        when(countryService.bulkDelete(List.of(1, 2))).thenReturn(report);
+
+        ResponseEntity<BulkChangeReport> responseEntity = countryController
+                .bulkDelete(List.of(1, 2));
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(report, responseEntity.getBody());
+    }
+
+    @Test
+    void bulkUpdate() {
+        BulkChangeReport report = new BulkChangeReport(0, List.of());
+        when(countryService.bulkUpdate(List.of())).thenReturn(report);
+
+        ResponseEntity<BulkChangeReport> responseEntity = countryController
+                .bulkUpdate(List.of());
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(report, responseEntity.getBody());
+    }
+
 }
\ No newline at end of file
@@ -3,13 +3,21 @@ package com.example.geodata.controller;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import com.example.geodata.controller.LanguageController;
+import com.example.geodata.dto.BulkChangeReport;
+import com.example.geodata.dto.BulkUpsertReport;
+import com.example.geodata.dto.KeysetPage;
 import com.example.geodata.dto.LanguageDTO;
+import com.example.geodata.dto.LanguageView;
 import com.example.geodata.entity.Language;
 import com.example.geodata.exceptions.ResourceNotFoundException;
 import com.example.geodata.service.LanguageService;
+import com.example.geodata.service.ingest.IngestEngine;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
@@ -19,7 +27,9 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @ExtendWith(MockitoExtension.class)
 class LanguageControllerTest {
@@ -32,21 +42,33 @@ class LanguageControllerTest {
 
     @Test
     void getAll() {
-        ResponseEntity<List<Language>> responseEntity = languageController
-                .getAll();
+        ResponseEntity<KeysetPage<LanguageView>> responseEntity = languageController
+                .getAll(0, 100);
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
     }
 
+    @Test
+    void export_streamsThroughService() throws IOException {
+        ResponseEntity<StreamingResponseBody> responseEntity = languageController
+                .export();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        responseEntity.getBody().writeTo(out);
+
+        assertEquals(MediaType.APPLICATION_NDJSON,
+                responseEntity.getHeaders().getContentType());
+        verify(languageService).export(out);
+    }
+
     @Test
     void getById()
             throws ResourceNotFoundException {
         int id = 1;
 
         when(languageService.findById(id))
-                .thenReturn(Optional.ofNullable(any(Language.class)));
+                .thenReturn(Optional.ofNullable(any(LanguageView.class)));
 
-        ResponseEntity<Optional<Language>> responseEntity = languageController
+        ResponseEntity<Optional<LanguageView>> responseEntity = languageController
                 .getById(id);
 
         assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
@@ -81,8 +103,44 @@ class LanguageControllerTest {
     @Test
     void bulkInsert() {
         HttpStatus httpStatus = languageController
-                .bulkInsert(new ArrayList<>());
+                .bulkInsert(new ArrayList<>(), IngestEngine.COPY);
 
         assertEquals(HttpStatus.OK, httpStatus);
     }
+
+    @Test
+    void bulkUpsert() {
+        BulkUpsertReport report = new BulkUpsertReport(1, 2, 3);
+        when(languageService.bulkUpsert(List.of())).thenReturn(report);
+
+        ResponseEntity<BulkUpsertReport> responseEntity = languageController
+                .bulkUpsert(List.of());
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(report, responseEntity.getBody());
+    }
+
+    @Test
+    void bulkDelete() {
+        BulkChangeReport report = new BulkChangeReport(1, List.of(2));
+        when(languageService.bulkDelete(List.of(1, 2))).thenReturn(report);
+
+        ResponseEntity<BulkChangeReport> responseEntity = languageController
+                .bulkDelete(List.of(1, 2));
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(report, responseEntity.getBody());
+    }
+
+    @Test
+    void bulkUpdate() {
+        BulkChangeReport report = new BulkChangeReport(0, List.of());
+        when(languageService.bulkUpdate(List.of())).thenReturn(report);
+
+        ResponseEntity<BulkChangeReport> responseEntity = languageController
+                .bulkUpdate(List.of());
+
+        assertEquals(HttpStatus.OK, responseEntity.getStatusCode());
+        assertEquals(report, responseEntity.getBody());
+    }
 }
\ No newline at end of file
@@ -0,0 +1,167 @@
+package com.example.geodata.repository;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.example.geodata.entity.City;
+import com.example.geodata.entity.Country;
+import com.example.geodata.entity.Language;
+import com.example.geodata.service.utility.ViewUtility;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.Limit;
+
+/**
+ * Statements issued by the read path behind each endpoint, mapping to
+ * views included. The counts must not depend on how many rows there are.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.generate_statistics=true",
+        "spring.jpa.properties.hibernate.cache.use_second_level_cache=false"
+})
+class FetchPlanTest {
+
+    private static final int CITIES_PER_COUNTRY = 3;
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private CountryRepository countryRepository;
+
+    @Autowired
+    private CityRepository cityRepository;
+
+    @Autowired
+    private LanguageRepository languageRepository;
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5})
+    void countryPage_idsThenOneStatementPerCollection(final int countries) {
+        seed(countries);
+
+        long statements = count(() -> countryRepository
+                .findWithCitiesAndLanguagesByIdIn(countryRepository
+                        .findIdsAfter(0, Limit.of(101)))
+                .forEach(ViewUtility::toView));
+
+        assertEquals(3, statements);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5})
+    void countryById_oneStatementPerCollection(final int countries) {
+        List<Country> seeded = seed(countries);
+
+        long statements = count(() -> countryRepository
+                .findWithCitiesAndLanguagesById(seeded.get(0).getId())
+                .map(ViewUtility::toView)
+                .orElseThrow());
+
+        assertEquals(2, statements);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5})
+    void countriesByLanguage_idsThenOneStatementPerCollection(final int countries) {
+        seed(countries);
+
+        long statements = count(() -> {
+            List<Integer> ids = countryRepository
+                    .findCountryIdsContainingSpecifiedLanguage("English");
+            countryRepository.findWithCitiesAndLanguagesByIdIn(Set.copyOf(ids))
+                    .forEach(ViewUtility::toView);
+        });
+
+        assertEquals(3, statements);
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5})
+    void cityReads_singleStatementWithoutLoadingCountries(final int countries) {
+        List<Country> seeded = seed(countries);
+        Integer cityId = seeded.get(0).getCities().get(0).getId();
+
+        assertEquals(1, count(() -> cityRepository
+                .findByIdGreaterThanOrderByIdAsc(0, Limit.of(101))
+                .forEach(ViewUtility::toView)));
+        assertEquals(1, count(() -> cityRepository.findById(cityId)
+                .map(ViewUtility::toView)
+                .orElseThrow()));
+        assertEquals(1, count(() -> {
+            try (Stream<City> cities = cityRepository.streamAll()) {
+                cities.forEach(ViewUtility::toView);
+            }
+        }));
+    }
+
+    @ParameterizedTest
+    @ValueSource(ints = {1, 5})
+    void languageReads_singleStatement(final int countries) {
+        seed(countries);
+        Integer languageId = languageRepository.findAll().get(0).getId();
+
+        assertEquals(1, count(() -> languageRepository
+                .findByIdGreaterThanOrderByIdAsc(0, Limit.of(101))
+                .forEach(ViewUtility::toView)));
+        assertEquals(1, count(() -> languageRepository.findById(languageId)
+                .map(ViewUtility::toView)
+                .orElseThrow()));
+        assertEquals(1, count(() -> {
+            try (Stream<Language> languages = languageRepository.streamAll()) {
+                languages.forEach(ViewUtility::toView);
+            }
+        }));
+    }
+
+    /**
+     * Countries that all speak the same two languages, each with
+     * {@value #CITIES_PER_COUNTRY} cities.
+     */
+    private List<Country> seed(final int countries) {
+        Set<Language> languages = Set.of(
+                entityManager.persist(Language.builder().name("English")
+                        .code("en").countries(new HashSet<>()).build()),
+                entityManager.persist(Language.builder().name("French")
+                        .code("fr").countries(new HashSet<>()).build()));
+        List<Country> seeded = new ArrayList<>();
+        for (int i = 0; i < countries; i++) {
+            Country country = entityManager.persist(Country.builder()
+                    .name("Country " + i)
+                    .cities(new ArrayList<>())
+                    .languages(new HashSet<>(languages))
+                    .build());
+            for (int j = 0; j < CITIES_PER_COUNTRY; j++) {
+                country.getCities().add(entityManager.persist(City.builder()
+                        .name("City " + i + "." + j)
+                        .country(country)
+                        .build()));
+            }
+            seeded.add(country);
+        }
+        entityManager.flush();
+        entityManager.clear();
+        return seeded;
+    }
+
+    private long count(final Runnable read) {
+        entityManager.clear();
+        Statistics statistics = entityManager.getEntityManager()
+                .getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+        statistics.clear();
+        read.run();
+        return statistics.getPrepareStatementCount();
+    }
+
+}
@@ -0,0 +1,115 @@
+package com.example.geodata.service.impl;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.example.geodata.cache.CacheStats;
+import com.example.geodata.cache.LRUCacheCity;
+import com.example.geodata.cache.LRUCacheCountry;
+import com.example.geodata.cache.LRUCacheLanguage;
+import com.example.geodata.cache.SecondLevelCache;
+import com.example.geodata.dto.CacheInfoDTO;
+import com.example.geodata.dto.CacheRegionDTO;
+import com.example.geodata.exceptions.BadRequestException;
+import com.example.geodata.exceptions.ResourceNotFoundException;
+import java.util.List;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class CacheServiceImplTest {
+
+    @Mock
+    private LRUCacheCity cityCache;
+
+    @Mock
+    private LRUCacheCountry countryCache;
+
+    @Mock
+    private LRUCacheLanguage languageCache;
+
+    @Mock
+    private SecondLevelCache secondLevelCache;
+
+    private CacheServiceImpl cacheService;
+
+    @BeforeEach
+    void setUp() {
+        cacheService = new CacheServiceImpl(cityCache, countryCache, languageCache,
+                secondLevelCache);
+        lenient().when(cityCache.stats()).thenReturn(CacheStats.EMPTY);
+        lenient().when(countryCache.stats()).thenReturn(CacheStats.EMPTY);
+        lenient().when(languageCache.stats()).thenReturn(CacheStats.EMPTY);
+    }
+
+    @Test
+    void getAll() {
+        when(cityCache.size()).thenReturn(3);
+        when(cityCache.weightedSize()).thenReturn(600L);
+        when(cityCache.maximumWeight()).thenReturn(1_024L);
+        when(cityCache.stats()).thenReturn(CacheStats.builder()
+                .hitCount(3)
+                .missCount(1)
+                .loadCount(2)
+                .totalLoadTime(1_000)
+                .evictionCount(4)
+                .invalidationCount(5)
+                .build());
+
+        List<CacheInfoDTO> caches = cacheService.getAll();
+
+        assertEquals(3, caches.size());
+        assertEquals(new CacheInfoDTO("city", 3, 600L, 1_024L,
+                3L, 1L, 0.75, 2L, 500.0, 4L, 5L), caches.get(0));
+    }
+
+    @Test
+    void getRegions() {
+        CacheRegionStatistics region = mock(CacheRegionStatistics.class);
+        when(region.getRegionName()).thenReturn("country.languages");
+        when(region.getElementCountInMemory())
+                .thenReturn(CacheRegionStatistics.NO_EXTENDED_STAT_SUPPORT_RETURN);
+        when(region.getHitCount()).thenReturn(30L);
+        when(region.getMissCount()).thenReturn(12L);
+        when(region.getPutCount()).thenReturn(12L);
+        when(secondLevelCache.statistics()).thenReturn(List.of(region));
+
+        assertEquals(List.of(new CacheRegionDTO("country.languages",
+                null, 30L, 12L, 12L)), cacheService.getRegions());
+    }
+
+    @Test
+    void resize_existingCache()
+            throws ResourceNotFoundException {
+        when(countryCache.maximumWeight()).thenReturn(2_048L);
+
+        CacheInfoDTO info = cacheService.resize("country", 2_048L);
+
+        verify(countryCache, times(1)).setMaximumWeight(2_048L);
+        assertEquals(2_048L, info.maximumWeight());
+    }
+
+    @Test
+    void resize_unknownCache() {
+        assertThrows(ResourceNotFoundException.class,
+                () -> cacheService.resize("planet", 10L));
+    }
+
+    @Test
+    void resize_illegalArguments() {
+        assertThrows(BadRequestException.class,
+                () -> cacheService.resize("city", 0L));
+        verify(cityCache, never()).setMaximumWeight(0L);
+    }
+
+}
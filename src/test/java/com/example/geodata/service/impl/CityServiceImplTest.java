@@ -1,43 +1,74 @@
 package com.example.geodata.service.impl;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyInt;
-import static org.mockito.Mockito.anyString;
 import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.example.geodata.cache.CacheInvalidator;
+import com.example.geodata.cache.CountryNameIndex;
 import com.example.geodata.cache.LRUCacheCity;
-import com.example.geodata.cache.LRUCacheCountry;
+import com.example.geodata.cache.NegativeCacheCity;
+import com.example.geodata.config.CacheProperties;
+import com.example.geodata.dto.BulkChangeReport;
+import com.example.geodata.dto.BulkInsertReport;
+import com.example.geodata.dto.BulkUpsertReport;
 import com.example.geodata.dto.CityDTO;
+import com.example.geodata.dto.CityView;
+import com.example.geodata.dto.KeysetPage;
 import com.example.geodata.entity.City;
 import com.example.geodata.entity.Country;
 import com.example.geodata.exceptions.BadRequestException;
 import com.example.geodata.exceptions.ResourceNotFoundException;
 import com.example.geodata.repository.CityRepository;
 import com.example.geodata.repository.CountryRepository;
+import com.example.geodata.repository.IdAndCountryId;
 import com.example.geodata.service.impl.CityServiceImpl;
-import java.util.ArrayList;
+import com.example.geodata.service.ingest.BulkTable;
+import com.example.geodata.service.ingest.BulkUpserter;
+import com.example.geodata.service.ingest.ChunkedInserter;
+import com.example.geodata.service.ingest.IngestEngine;
+import com.example.geodata.service.ingest.UpsertResult;
+import com.example.geodata.service.ingest.UpsertTable;
+import com.example.geodata.service.utility.ViewUtility;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.data.domain.Limit;
 
 @ExtendWith(MockitoExtension.class)
 class CityServiceImplTest {
 
     @Mock
-    private JdbcTemplate jdbcTemplate;
+    private ChunkedInserter chunkedInserter;
+
+    @Mock
+    private BulkUpserter bulkUpserter;
 
     @Mock
     private CityRepository cityRepository;
@@ -49,21 +80,76 @@ class CityServiceImplTest {
     private LRUCacheCity cityCache;
 
     @Mock
-    private LRUCacheCountry cacheCountry;
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private CountryNameIndex countryNames;
+
+    @Spy
+    private NegativeCacheCity missingCities =
+            new NegativeCacheCity(4, new CacheProperties());
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
 
     @InjectMocks
     private CityServiceImpl cityService;
 
     @Test
-    void getAllCities() {
-        List<City> expectedCities = new ArrayList<>();
+    void getPage_fullPageCarriesCursor() {
+        when(cityRepository.findByIdGreaterThanOrderByIdAsc(10, Limit.of(3)))
+                .thenReturn(List.of(City.builder().id(11).build(),
+                        City.builder().id(12).build(),
+                        City.builder().id(15).build()));
 
-        when(cityRepository.findAll())
-                .thenReturn(expectedCities);
+        KeysetPage<CityView> page = cityService.getPage(10, 2);
 
-        List<City> actualCities = cityService.getAll();
+        assertEquals(List.of(CityView.builder().id(11).build(),
+                CityView.builder().id(12).build()), page.items());
+        assertEquals(12, page.nextCursor());
+    }
+
+    @Test
+    void export_writesOneLinePerCityAndDetachesIt() throws IOException {
+        City minsk = City.builder().id(1).name("Minsk").latitude(53.9)
+                .longitude(27.56).build();
+        City tokyo = City.builder().id(2).name("Tokyo").latitude(35.68)
+                .longitude(139.69).build();
+        when(cityRepository.streamAll()).thenReturn(Stream.of(minsk, tokyo));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        cityService.export(out);
+
+        assertEquals("""
+                {"id":1,"name":"Minsk","latitude":53.9,"longitude":27.56}
+                {"id":2,"name":"Tokyo","latitude":35.68,"longitude":139.69}
+                """, out.toString(StandardCharsets.UTF_8));
+        verify(entityManager).detach(minsk);
+        verify(entityManager).detach(tokyo);
+        verifyNoInteractions(cityCache);
+    }
+
+    @Test
+    void getPage_lastPageHasNoCursor() {
+        when(cityRepository.findByIdGreaterThanOrderByIdAsc(12, Limit.of(3)))
+                .thenReturn(List.of(City.builder().id(15).build()));
+
+        KeysetPage<CityView> page = cityService.getPage(12, 2);
+
+        assertEquals(1, page.items().size());
+        assertNull(page.nextCursor());
+    }
 
-        assertEquals(expectedCities, actualCities);
+    @Test
+    void getPage_illegalLimit() {
+        assertThrows(BadRequestException.class,
+                () -> cityService.getPage(0, 0));
+        assertThrows(BadRequestException.class,
+                () -> cityService.getPage(0, 1_001));
+        verifyNoInteractions(cityRepository);
     }
 
     @Test
@@ -95,26 +181,27 @@ class CityServiceImplTest {
     void findCityById_existingIdAndCityNotInCache()
             throws ResourceNotFoundException {
         int id = 1;
-        Optional<City> expectedCity = Optional.of(new City());
+        City city = City.builder().id(id).name("Minsk").build();
+        CityView expectedCity = CityView.builder().id(id).name("Minsk").build();
 
-        when(cityCache.get(id)).thenReturn(Optional.empty());
-        when(cityRepository.findById(id)).thenReturn(expectedCity);
+        when(cityCache.getOrLoad(eq(id), any())).thenAnswer(this::loadThrough);
+        when(cityRepository.findById(id)).thenReturn(Optional.of(city));
 
-        Optional<City> actualCity = cityService.findById(id);
-        assertEquals(expectedCity, actualCity);
+        Optional<CityView> actualCity = cityService.findById(id);
+        assertEquals(Optional.of(expectedCity), actualCity);
         verify(cityCache, times(1))
-                .put(id, expectedCity.get());
+                .put(id, expectedCity);
     }
 
     @Test
     void findCityById_existingIdAndCityInCache()
             throws ResourceNotFoundException {
         int id = 1;
-        Optional<City> expectedCity = Optional.of(new City());
+        Optional<CityView> expectedCity = Optional.of(CityView.builder().id(id).build());
 
-        when(cityCache.get(id)).thenReturn(expectedCity);
+        when(cityCache.getOrLoad(eq(id), any())).thenReturn(expectedCity);
 
-        Optional<City> actualCity = cityService.findById(id);
+        Optional<CityView> actualCity = cityService.findById(id);
 
         assertEquals(expectedCity, actualCity);
         verify(cityRepository, never()).findById(anyInt());
@@ -124,20 +211,85 @@ class CityServiceImplTest {
     void findCityById_invalidId() {
         int id = 1;
 
-        when(cityCache.get(id)).thenReturn(Optional.empty());
+        when(cityCache.getOrLoad(eq(id), any())).thenAnswer(this::loadThrough);
         when(cityRepository.findById(id)).thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
                 () -> cityService.findById(id));
     }
 
+    @Test
+    void findCityById_knownMissingIdSkipsRepository() {
+        int id = 1;
+
+        when(cityCache.getOrLoad(eq(id), any())).thenAnswer(this::loadThrough);
+        when(cityRepository.findById(id)).thenReturn(Optional.empty());
+
+        ResourceNotFoundException first = assertThrows(
+                ResourceNotFoundException.class, () -> cityService.findById(id));
+        ResourceNotFoundException second = assertThrows(
+                ResourceNotFoundException.class, () -> cityService.findById(id));
+
+        assertSame(first, second);
+        assertEquals(0, second.getStackTrace().length);
+        verify(cityRepository, times(1)).findById(id);
+    }
+
+    @Test
+    void findCityById_missReadBeforeConcurrentCreateIsNotRecorded()
+            throws ResourceNotFoundException {
+        int id = 1;
+        City city = City.builder().id(id).name("Minsk").build();
+
+        when(cityCache.getOrLoad(eq(id), any())).thenAnswer(this::loadThrough);
+        when(cityRepository.findById(id)).thenAnswer(invocation -> {
+            missingCities.invalidate(id);
+            return Optional.empty();
+        }).thenReturn(Optional.of(city));
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> cityService.findById(id));
+
+        assertEquals(Optional.of(ViewUtility.toView(city)),
+                cityService.findById(id));
+    }
+
+    @Test
+    void bulkInsert_invalidatesCountriesOfInsertedCities() {
+        CityDTO cityDTO = CityDTO.builder()
+                .name("Minsk")
+                .countryName("Belarus")
+                .build();
+        List<CityDTO> cityDTOS = List.of(cityDTO, cityDTO);
+
+        when(countryNames.findAll(List.of("Belarus", "Belarus")))
+                .thenReturn(Map.of("Belarus", 2));
+        when(chunkedInserter.insert(eq(IngestEngine.BATCH), eq(BulkTable.CITIES),
+                eq(cityDTOS), any())).thenReturn(report(2));
+
+        cityService.bulkInsert(cityDTOS, IngestEngine.BATCH);
+
+        verify(cacheInvalidator, times(1)).citiesInserted(List.of(2));
+    }
+
+    @Test
+    void bulkInsert_nothingInsertedInvalidatesNothing() {
+        List<CityDTO> cityDTOS = List.of(CityDTO.builder().name("Minsk").build());
+        when(chunkedInserter.insert(eq(IngestEngine.COPY), eq(BulkTable.CITIES),
+                eq(cityDTOS), any())).thenReturn(report(0));
+
+        cityService.bulkInsert(cityDTOS, IngestEngine.COPY);
+
+        verifyNoInteractions(cacheInvalidator);
+    }
+
     @Test
     void createCity_invalidCountryName() {
         CityDTO cityDTO = CityDTO.builder()
                 .countryName("Belarus")
                 .build();
 
-        when(countryRepository.findCountryByName(cityDTO.countryName()))
+        when(countryNames.find(cityDTO.countryName()))
                 .thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
@@ -149,15 +301,37 @@ class CityServiceImplTest {
         CityDTO cityDTO = CityDTO.builder()
                 .countryName("Belarus")
                 .build();
-        Optional<Country> country = Optional.of(new Country());
 
-        when(countryRepository.findCountryByName(cityDTO.countryName()))
-                .thenReturn(country);
+        when(countryNames.find(cityDTO.countryName()))
+                .thenReturn(Optional.of(1));
+        when(countryRepository.findById(1))
+                .thenReturn(Optional.of(Country.builder().id(1).build()));
 
         assertThrows(BadRequestException.class,
                 () -> cityService.createCity(cityDTO));
     }
 
+    @Test
+    void createCity_countryDeletedElsewhereIsNotFound() {
+        CityDTO cityDTO = CityDTO.builder()
+                .name("Tokyo")
+                .countryName("Japan")
+                .latitude(13.4543)
+                .longitude(12.4445)
+                .build();
+
+        when(countryNames.find(cityDTO.countryName()))
+                .thenReturn(Optional.of(1));
+        when(countryRepository.findById(1)).thenReturn(Optional.empty());
+        when(countryRepository.findCountryByName("Japan"))
+                .thenReturn(Optional.empty());
+
+        assertThrows(ResourceNotFoundException.class,
+                () -> cityService.createCity(cityDTO));
+        verify(countryNames).remove(1);
+        verify(cityRepository, never()).save(any());
+    }
+
     @Test
     void createCity_Success()
             throws ResourceNotFoundException {
@@ -167,13 +341,14 @@ class CityServiceImplTest {
                 .latitude(13.4543)
                 .longitude(12.4445)
                 .build();
-        Optional<Country> country = Optional.of(Country.builder()
+        Country country = Country.builder()
                 .id(1)
                 .name("Japan")
-                .build());
+                .build();
 
-        when(countryRepository.findCountryByName(cityDTO.countryName()))
-                .thenReturn(country);
+        when(countryNames.find(cityDTO.countryName()))
+                .thenReturn(Optional.of(1));
+        when(countryRepository.findById(1)).thenReturn(Optional.of(country));
 
         City createdCity = cityService.createCity(cityDTO);
 
@@ -201,7 +376,7 @@ class CityServiceImplTest {
 
         when(cityRepository.findById(cityDTO.id()))
                 .thenReturn(city);
-        when(countryRepository.findCountryByName(cityDTO.countryName()))
+        when(countryNames.find(cityDTO.countryName()))
                 .thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class, () -> cityService.replaceCountry(cityDTO));
@@ -215,21 +390,50 @@ class CityServiceImplTest {
                 .countryName("Belarus")
                 .build();
         Optional<City> city = Optional.of(new City());
-        Optional<Country> country = Optional.of(Country.builder()
+        Country country = Country.builder()
                 .id(2)
                 .name("Belarus")
-                .build());
+                .build();
 
         when(cityRepository.findById(cityDTO.id()))
                 .thenReturn(city);
-        when(countryRepository.findCountryByName(cityDTO.countryName()))
-                .thenReturn(country);
+        when(countryNames.find(cityDTO.countryName()))
+                .thenReturn(Optional.of(2));
+        when(countryRepository.findById(2)).thenReturn(Optional.of(country));
 
         City updatedCity =  cityService
                 .replaceCountry(cityDTO);
 
         assertEquals(updatedCity.getCountry().getName(), cityDTO.countryName());
+    }
+
+    @Test
+    void replaceCountry_staleIndexEntryIsLookedUpAgain()
+            throws ResourceNotFoundException {
+        CityDTO cityDTO = CityDTO.builder()
+                .id(1)
+                .countryName("Belarus")
+                .build();
+        Optional<City> city = Optional.of(new City());
+        Country country = Country.builder()
+                .id(2)
+                .name("Belarus")
+                .build();
 
+        when(cityRepository.findById(cityDTO.id()))
+                .thenReturn(city);
+        when(countryNames.find(cityDTO.countryName()))
+                .thenReturn(Optional.of(5));
+        when(countryRepository.findById(5)).thenReturn(Optional.empty());
+        when(countryRepository.findCountryByName("Belarus"))
+                .thenReturn(Optional.of(country));
+
+        City updatedCity =  cityService
+                .replaceCountry(cityDTO);
+
+        assertEquals(updatedCity.getCountry().getName(), cityDTO.countryName());
+        verify(countryNames).remove(5);
+        verify(countryNames).put(2, "Belarus");
     }
 
     @Test
@@ -254,7 +458,7 @@ class CityServiceImplTest {
         assertEquals(updatedCity.getName(), cityDTO.name());
         assertEquals(updatedCity.getLatitude(), cityDTO.latitude());
         assertEquals(updatedCity.getLongitude(), cityDTO.longitude());
-        verify(cacheCountry, times(1)).remove(anyInt());
+        verify(cacheInvalidator, times(1)).cityUpdated(2, 2);
     }
 
     @Test
@@ -286,17 +490,150 @@ class CityServiceImplTest {
         List<CityDTO> cityDTOS = Arrays
                 .asList(firstCity, secondCity);
 
-        Optional<Country> expectedCountry = Optional.of(new Country());
+        when(countryNames.findAll(List.of("Belarus", "Belarus")))
+                .thenReturn(Map.of("Belarus", 1));
 
-        when(countryRepository.findCountryByName(anyString()))
-                .thenReturn(expectedCountry);
+        when(chunkedInserter.insert(eq(IngestEngine.BATCH), eq(BulkTable.CITIES),
+                eq(cityDTOS), any())).thenReturn(report(2));
 
-        cityService.bulkInsert(cityDTOS);
+        BulkInsertReport report = cityService.bulkInsert(cityDTOS,
+                IngestEngine.BATCH);
 
-        verify(jdbcTemplate, times(1))
-                .batchUpdate(eq("INSERT into cities"
-                        + " (city_name, fk_cities_countries, latitude, longitude)"
-                        + " VALUES (?, ?, ?, ?)"), any(BatchPreparedStatementSetter.class));
+        ArgumentCaptor<Function<CityDTO, Object[]>> toRow = rowMapperCaptor();
+        verify(chunkedInserter).insert(eq(IngestEngine.BATCH),
+                eq(BulkTable.CITIES), eq(cityDTOS), toRow.capture());
+        assertEquals(2, report.inserted());
+        assertArrayEquals(new Object[] {"Minsk", 1, 32.4544, 22.2521},
+                toRow.getValue().apply(firstCity));
+        assertArrayEquals(new Object[] {"Pinsk", 1, 44.2135, 17.3630},
+                toRow.getValue().apply(secondCity));
+        verifyNoInteractions(countryRepository);
 
     }
+
+    @Test
+    void bulkInsert_rowMapperRejectsUnknownCountryAndMissingFields() {
+        List<CityDTO> cityDTOS = List.of();
+        when(countryNames.findAll(List.of())).thenReturn(Map.of("Belarus", 1));
+        when(chunkedInserter.insert(eq(IngestEngine.BATCH), eq(BulkTable.CITIES),
+                eq(cityDTOS), any())).thenReturn(report(0));
+        cityService.bulkInsert(cityDTOS, IngestEngine.BATCH);
+        ArgumentCaptor<Function<CityDTO, Object[]>> toRow = rowMapperCaptor();
+        verify(chunkedInserter).insert(eq(IngestEngine.BATCH),
+                eq(BulkTable.CITIES), eq(cityDTOS), toRow.capture());
+
+        assertThrows(BadRequestException.class, () -> toRow.getValue()
+                .apply(CityDTO.builder().name("Poseidonis").latitude(1.0)
+                        .longitude(2.0).countryName("Atlantis").build()));
+        assertThrows(BadRequestException.class, () -> toRow.getValue()
+                .apply(CityDTO.builder().name("Minsk").countryName("Belarus")
+                        .build()));
+    }
+
+    @Test
+    void bulkUpsert_evictsWrittenCitiesAndTheirCountries() {
+        List<CityDTO> cityDTOS = List.of(CityDTO.builder()
+                .name("Minsk")
+                .countryName("Belarus")
+                .latitude(53.9)
+                .longitude(27.56)
+                .build());
+        when(countryNames.findAll(List.of("Belarus")))
+                .thenReturn(Map.of("Belarus", 2));
+        when(bulkUpserter.upsert(eq(UpsertTable.CITIES), any()))
+                .thenReturn(new UpsertResult(1, List.of(
+                        new UpsertResult.Row(5, false, new Object[] {"Minsk",
+                                2, 53.9, 27.56}))));
+
+        BulkUpsertReport report = cityService.bulkUpsert(cityDTOS);
+
+        assertEquals(new BulkUpsertReport(0, 1, 0), report);
+        verify(cacheInvalidator).citiesUpserted(List.of(), List.of(5), List.of(2));
+    }
+
+    @Test
+    void bulkUpsert_unknownCountryRejectsRequest() {
+        List<CityDTO> cityDTOS = List.of(CityDTO.builder()
+                .name("Atlantis")
+                .countryName("Atlantis")
+                .build());
+
+        assertThrows(BadRequestException.class,
+                () -> cityService.bulkUpsert(cityDTOS));
+        verifyNoInteractions(bulkUpserter, cacheInvalidator);
+    }
+
+    @Test
+    void bulkDelete_reportsIdsThatMatchedNoCity() {
+        when(cityRepository.deleteByIds(new Integer[] {4, 5}))
+                .thenReturn(List.of(new Row(4, 2)));
+
+        BulkChangeReport report = cityService.bulkDelete(Arrays.asList(4, null, 5, 4));
+
+        assertEquals(new BulkChangeReport(1, List.of(5)), report);
+        verify(cacheInvalidator).citiesDeleted(List.of(4), List.of(2));
+    }
+
+    @Test
+    void bulkUpdate_appliesLastPatchPerId() {
+        List<CityDTO> patches = List.of(
+                CityDTO.builder().id(4).latitude(1.0).build(),
+                CityDTO.builder().id(4).name("Minsk").latitude(2.0).build());
+        when(cityRepository.updateAll(new Integer[] {4}, new String[] {"Minsk"},
+                new Double[] {2.0}, new Double[] {null}))
+                .thenReturn(List.of(new Row(4, 2)));
+
+        BulkChangeReport report = cityService.bulkUpdate(patches);
+
+        assertEquals(new BulkChangeReport(1, List.of()), report);
+        verify(cacheInvalidator).citiesUpserted(List.of(), List.of(4), List.of(2));
+    }
+
+    @Test
+    void bulkUpdate_patchWithoutId() {
+        List<CityDTO> patches = List.of(CityDTO.builder().name("Minsk").build());
+
+        assertThrows(BadRequestException.class,
+                () -> cityService.bulkUpdate(patches));
+        verifyNoInteractions(cacheInvalidator);
+    }
+
+    /**
+     * Stands in for a cache miss: runs the loader and caches its result.
+     */
+    private Optional<CityView> loadThrough(final InvocationOnMock invocation) {
+        Integer id = invocation.getArgument(0);
+        Function<Integer, Optional<CityView>> loader = invocation.getArgument(1);
+        Optional<CityView> city = loader.apply(id);
+        city.ifPresent(value -> cityCache.put(id, value));
+        return city;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<Function<CityDTO, Object[]>> rowMapperCaptor() {
+        return ArgumentCaptor.forClass(Function.class);
+    }
+
+    private static BulkInsertReport report(final int inserted) {
+        return BulkInsertReport.builder()
+                .inserted(inserted)
+                .chunks(List.of())
+                .rows(List.of())
+                .build();
+    }
+
+    private record Row(Integer id, Integer countryId) implements IdAndCountryId {
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        @Override
+        public Integer getCountryId() {
+            return countryId;
+        }
+
+    }
+
 }
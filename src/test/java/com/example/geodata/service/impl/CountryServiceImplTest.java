@@ -1,45 +1,75 @@
 package com.example.geodata.service.impl;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.eq;
+import static org.mockito.Mockito.inOrder;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.example.geodata.cache.CacheInvalidator;
+import com.example.geodata.cache.CountriesByLanguageCache;
+import com.example.geodata.cache.CountryNameIndex;
 import com.example.geodata.cache.LRUCacheCountry;
+import com.example.geodata.cache.LanguageNameIndex;
+import com.example.geodata.config.CacheProperties;
+import com.example.geodata.dto.BulkChangeReport;
+import com.example.geodata.dto.BulkUpsertReport;
 import com.example.geodata.dto.CountryDTO;
+import com.example.geodata.dto.CountryView;
+import com.example.geodata.dto.KeysetPage;
 import com.example.geodata.entity.Country;
 import com.example.geodata.entity.Language;
 import com.example.geodata.exceptions.BadRequestException;
 import com.example.geodata.exceptions.ResourceNotFoundException;
+import com.example.geodata.repository.CityRepository;
 import com.example.geodata.repository.CountryRepository;
+import com.example.geodata.repository.IdAndName;
 import com.example.geodata.repository.LanguageRepository;
 import com.example.geodata.service.impl.CountryServiceImpl;
+import com.example.geodata.service.ingest.BulkInserter;
+import com.example.geodata.service.ingest.BulkTable;
+import com.example.geodata.service.ingest.BulkUpserter;
+import com.example.geodata.service.ingest.IngestEngine;
+import com.example.geodata.service.ingest.UpsertResult;
+import com.example.geodata.service.ingest.UpsertTable;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
+import java.util.function.Function;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.data.domain.Limit;
 
 @ExtendWith(MockitoExtension.class)
 class CountryServiceImplTest {
 
     @Mock
-    private JdbcTemplate jdbcTemplate;
+    private BulkInserter bulkInserter;
+
+    @Mock
+    private BulkUpserter bulkUpserter;
 
     @Mock
     private LanguageRepository languageRepository;
@@ -47,30 +77,64 @@ class CountryServiceImplTest {
     @Mock
     private CountryRepository countryRepository;
 
+    @Mock
+    private CityRepository cityRepository;
+
     @Mock
     private LRUCacheCountry countryCache;
 
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private CountryNameIndex countryNames;
+
+    @Mock
+    private LanguageNameIndex languageNames;
+
+    @Spy
+    private CountriesByLanguageCache countriesByLanguage =
+            new CountriesByLanguageCache(4, new CacheProperties());
+
     @InjectMocks
     private CountryServiceImpl countryService;
 
     @Test
-    void getAllCountries() {
-        List<Country> expectedCountries = new ArrayList<>();
+    void getPage_loadsOnlyCountriesOfThePage() {
+        when(countryRepository.findIdsAfter(0, Limit.of(3)))
+                .thenReturn(List.of(1, 2, 3));
+        when(countryRepository.findWithCitiesAndLanguagesByIdIn(Set.of(1, 2)))
+                .thenReturn(List.of(Country.builder().id(2).build(),
+                        Country.builder().id(1).build()));
+
+        KeysetPage<CountryView> page = countryService.getPage(0, 2);
+
+        assertEquals(List.of(1, 2), page.items().stream()
+                .map(CountryView::id)
+                .toList());
+        assertEquals(2, page.nextCursor());
+        verifyNoInteractions(countryCache);
+    }
 
-        when(countryRepository.findAll())
-                .thenReturn(expectedCountries);
+    @Test
+    void getPage_pastLastCountry() {
+        when(countryRepository.findIdsAfter(3, Limit.of(101)))
+                .thenReturn(List.of());
 
-        List<Country> actualCountries = countryService.getAll();
+        KeysetPage<CountryView> page = countryService.getPage(3, 100);
 
-        assertEquals(expectedCountries, actualCountries);
+        assertTrue(page.items().isEmpty());
+        assertNull(page.nextCursor());
+        verify(countryRepository, never()).findWithCitiesAndLanguagesByIdIn(any());
     }
 
     @Test
     void findCountryById_invalidId() {
         int id = 1;
 
-        when(countryCache.get(id)).thenReturn(Optional.empty());
-        when(countryRepository.findById(id)).thenReturn(Optional.empty());
+        when(countryCache.getOrLoad(eq(id), any())).thenAnswer(this::loadThrough);
+        when(countryRepository.findWithCitiesAndLanguagesById(id))
+                .thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
                 () -> countryService.findById(id));
@@ -80,29 +144,36 @@ class CountryServiceImplTest {
     void findCountryById_existingIdAndCountryNotInCache()
             throws ResourceNotFoundException {
         int id = 1;
-        Optional<Country> expectedCountry = Optional.of(new Country());
+        Country country = Country.builder().id(id).name("Belarus").build();
+        CountryView expectedCountry = CountryView.builder()
+                .id(id)
+                .name("Belarus")
+                .build();
 
-        when(countryCache.get(id)).thenReturn(Optional.empty());
-        when(countryRepository.findById(id)).thenReturn(expectedCountry);
+        when(countryCache.getOrLoad(eq(id), any())).thenAnswer(this::loadThrough);
+        when(countryRepository.findWithCitiesAndLanguagesById(id))
+                .thenReturn(Optional.of(country));
 
-        Optional<Country> actualCountry = countryService.findById(id);
-        assertEquals(expectedCountry, actualCountry);
+        Optional<CountryView> actualCountry = countryService.findById(id);
+        assertEquals(Optional.of(expectedCountry), actualCountry);
         verify(countryCache, times(1))
-                .put(id, expectedCountry.get());
+                .put(id, expectedCountry);
     }
 
     @Test
     void findCountryById_existingIdAndCountryInCache()
             throws ResourceNotFoundException {
         int id = 1;
-        Optional<Country> expectedCountry = Optional.of(new Country());
+        Optional<CountryView> expectedCountry = Optional.of(CountryView.builder()
+                .id(id)
+                .build());
 
-        when(countryCache.get(id)).thenReturn(expectedCountry);
+        when(countryCache.getOrLoad(eq(id), any())).thenReturn(expectedCountry);
 
-        Optional<Country> actualCountry = countryService.findById(id);
+        Optional<CountryView> actualCountry = countryService.findById(id);
 
         assertEquals(expectedCountry, actualCountry);
-        verify(countryRepository, never()).findById(anyInt());
+        verify(countryRepository, never()).findWithCitiesAndLanguagesById(anyInt());
     }
 
     @Test
@@ -156,26 +227,37 @@ class CountryServiceImplTest {
     @Test
     void deleteCountryById_invalidId() {
         int id = 1;
+        Integer[] ids = {id};
 
-        when(countryRepository.findById(id)).thenReturn(Optional.empty());
+        when(countryRepository.deleteByIds(ids)).thenReturn(List.of());
 
         assertThrows(ResourceNotFoundException.class,
                 () -> countryService.deleteById(id));
     }
 
     @Test
-    void deleteCountryById_existingId()
+    void deleteCountryById_existingId_neverLoadsTheCountry()
             throws ResourceNotFoundException {
         int id = 1;
-        Optional<Country> expectedCountry = Optional.of(new Country());
+        Integer[] ids = {id};
 
-        when(countryRepository.findById(id))
-                .thenReturn(expectedCountry);
+        when(cityRepository.deleteByCountryIds(ids)).thenReturn(List.of(4, 5));
+        when(countryRepository.deleteLanguageLinksByCountryIds(ids))
+                .thenReturn(List.of(7));
+        when(countryRepository.deleteByIds(ids)).thenReturn(List.of(id));
+        when(languageNames.nameOf(7)).thenReturn(Optional.of("English"));
 
         countryService.deleteById(id);
 
-        verify(countryRepository, times(1))
-                .deleteById(anyInt());
+        InOrder order = inOrder(cityRepository, countryRepository);
+        order.verify(cityRepository).deleteByCountryIds(ids);
+        order.verify(countryRepository).deleteLanguageLinksByCountryIds(ids);
+        order.verify(countryRepository).deleteByIds(ids);
+        verify(countryRepository, never()).findById(anyInt());
+        verify(countryRepository, never()).deleteById(anyInt());
+        verify(cacheInvalidator).countriesDeleted(List.of(id), List.of(4, 5),
+                List.of(7), List.of("English"));
+        verify(countryNames).remove(id);
     }
 
     @Test
@@ -273,6 +355,7 @@ class CountryServiceImplTest {
                 .id(1)
                 .build();
         Optional<Country> expectedCountry = Optional.of(new Country());
+        expectedCountry.get().setId(1);
         Language language = Language.builder()
                 .id(1)
                 .name("Russian")
@@ -290,7 +373,7 @@ class CountryServiceImplTest {
                 .addLanguage(countryDTO);
 
         assertFalse(actualCountry.getLanguages().isEmpty());
-
+        verify(countryCache).remove(1);
     }
 
     @Test
@@ -368,20 +451,79 @@ class CountryServiceImplTest {
         List<CountryDTO> countryDTOS = Arrays
                 .asList(firstCountry, secondCountry);
 
-        countryService.bulkInsert(countryDTOS);
+        countryService.bulkInsert(countryDTOS, IngestEngine.COPY);
+
+        ArgumentCaptor<List<Object[]>> rows = rowsCaptor();
+        verify(bulkInserter, times(1))
+                .insert(eq(IngestEngine.COPY), eq(BulkTable.COUNTRIES), rows.capture());
+        assertArrayEquals(new Object[] {"Belarus", "Belarusian", 12.2420, 23.2412},
+                rows.getValue().get(0));
+        assertEquals(2, rows.getValue().size());
+        verify(countryNames, times(1))
+                .refresh(List.of("Belarus", "Russia"));
+    }
+
+    @Test
+    void bulkInsert_takenOrRepeatedNameRejectsRequest() {
+        CountryDTO belarus = CountryDTO.builder()
+                .name("Belarus")
+                .build();
+        CountryDTO russia = CountryDTO.builder()
+                .name("Russia")
+                .build();
+        when(countryRepository.findNamesIn(any()))
+                .thenReturn(List.of("Russia"));
+
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> countryService.bulkInsert(List.of(belarus, russia, belarus),
+                        IngestEngine.COPY));
 
-        verify(jdbcTemplate, times(1))
-                .batchUpdate(eq("INSERT into countries"
-                        + " (country_name, nationality, latitude, longitude)"
-                        + " VALUES (?, ?, ?, ?)"),
-                        any(BatchPreparedStatementSetter.class));
+        assertTrue(e.getMessage().endsWith("Belarus, Russia"));
+        verifyNoInteractions(bulkInserter);
+    }
+
+    @Test
+    void bulkUpsert_indexesInsertedAndEvictsUpdatedCountries() {
+        CountryDTO belarus = CountryDTO.builder()
+                .name("Belarus")
+                .nationality("Belarusian")
+                .latitude(53.9)
+                .longitude(27.56)
+                .build();
+        when(bulkUpserter.upsert(eq(UpsertTable.COUNTRIES), any()))
+                .thenReturn(new UpsertResult(3, List.of(
+                        new UpsertResult.Row(7, true, new Object[] {"Chile",
+                                "Chilean", 1.0, 2.0}),
+                        new UpsertResult.Row(2, false, new Object[] {"Belarus",
+                                "Belarusian", 53.9, 27.56}))));
+
+        BulkUpsertReport report = countryService.bulkUpsert(List.of(belarus));
+
+        ArgumentCaptor<List<Object[]>> rows = rowsCaptor();
+        verify(bulkUpserter).upsert(eq(UpsertTable.COUNTRIES), rows.capture());
+        assertArrayEquals(new Object[] {"Belarus", "Belarusian", 53.9, 27.56},
+                rows.getValue().get(0));
+        assertEquals(new BulkUpsertReport(1, 1, 1), report);
+        verify(countryNames).put(7, "Chile");
+        verify(cacheInvalidator).countriesUpdated(List.of(2));
+    }
+
+    @Test
+    void bulkUpsert_incompleteCountry() {
+        List<CountryDTO> countryDTOS = List.of(CountryDTO.builder()
+                .name("Belarus")
+                .build());
+
+        assertThrows(BadRequestException.class,
+                () -> countryService.bulkUpsert(countryDTOS));
+        verifyNoInteractions(bulkUpserter, cacheInvalidator);
     }
 
     @Test
     void findCountriesWithSpecLanguage_invalidNameLanguage() {
         String expectedLanguage = "Russian";
-        when(languageRepository.existsByName(expectedLanguage))
-                .thenReturn(false);
+        when(languageNames.find(expectedLanguage))
+                .thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
                 () -> countryService
@@ -392,18 +534,138 @@ class CountryServiceImplTest {
     void findCountriesWithSpecLanguage_success()
             throws ResourceNotFoundException {
         String name = "Russian";
-        List<Country> expectedCountries = new ArrayList<>();
+        CountryView russia = CountryView.builder().id(1).name("Russia").build();
+        CountryView belarus = CountryView.builder().id(2).name("Belarus").build();
+        Map<Integer, CountryView> cached = new LinkedHashMap<>();
+        cached.put(1, russia);
+        cached.put(2, belarus);
 
-        when(languageRepository.existsByName(name))
-                .thenReturn(true);
+        when(languageNames.find(name)).thenReturn(Optional.of(5));
         when(countryRepository
-                .findAllCountriesContainingSpecifiedLanguage(name))
-                .thenReturn(expectedCountries);
+                .findCountryIdsContainingSpecifiedLanguage(name))
+                .thenReturn(List.of(1, 2));
+        when(countryCache.getAll(eq(List.of(1, 2)), any()))
+                .thenReturn(cached);
 
-        List<Country> actualCountries = countryService
+        List<CountryView> actualCountries = countryService
                 .findCountriesWithSpecifiedLanguage(name);
 
-        assertEquals(expectedCountries, actualCountries);
+        assertEquals(List.of(russia, belarus), actualCountries);
+    }
+
+    @Test
+    void findCountriesWithSpecLanguage_repeatedLookupServedFromCache()
+            throws ResourceNotFoundException {
+        String name = "English";
+
+        when(languageNames.find(name)).thenReturn(Optional.of(5));
+        when(countryRepository
+                .findCountryIdsContainingSpecifiedLanguage(name))
+                .thenReturn(List.of(1));
+        when(countryCache.getAll(eq(List.of(1)), any()))
+                .thenReturn(Map.of(1, CountryView.builder().id(1).build()));
+
+        countryService.findCountriesWithSpecifiedLanguage(name);
+        countryService.findCountriesWithSpecifiedLanguage(name);
+
+        verify(countryRepository, times(1))
+                .findCountryIdsContainingSpecifiedLanguage(name);
+        verify(languageNames, times(1)).find(name);
+    }
+
+    @Test
+    void findCountriesWithSpecLanguage_unspokenLanguageCachedAsEmpty()
+            throws ResourceNotFoundException {
+        String name = "Esperanto";
+
+        when(languageNames.find(name)).thenReturn(Optional.of(5));
+
+        assertTrue(countryService.findCountriesWithSpecifiedLanguage(name)
+                .isEmpty());
+        assertTrue(countryService.findCountriesWithSpecifiedLanguage(name)
+                .isEmpty());
+        verify(countryRepository, times(1))
+                .findCountryIdsContainingSpecifiedLanguage(name);
+    }
+
+    @Test
+    void bulkDelete_removesCitiesAndLanguageLinksFirst() {
+        Integer[] ids = {2, 3};
+        when(cityRepository.deleteByCountryIds(ids)).thenReturn(List.of(4));
+        when(countryRepository.deleteLanguageLinksByCountryIds(ids))
+                .thenReturn(List.of(7, 7));
+        when(countryRepository.deleteByIds(ids)).thenReturn(List.of(2));
+        when(languageNames.nameOf(7)).thenReturn(Optional.of("English"));
+
+        BulkChangeReport report = countryService.bulkDelete(List.of(2, 3));
+
+        assertEquals(new BulkChangeReport(1, List.of(3)), report);
+        verify(cacheInvalidator).countriesDeleted(List.of(2), List.of(4),
+                List.of(7), List.of("English"));
+        verify(countryNames).remove(2);
+    }
+
+    @Test
+    void bulkUpdate_renamesCountriesInIndex() {
+        CountryDTO patch = CountryDTO.builder()
+                .id(2)
+                .name("Belarus Republic")
+                .build();
+        when(countryRepository.updateAll(new Integer[] {2},
+                new String[] {"Belarus Republic"}, new String[] {null},
+                new Double[] {null}, new Double[] {null}))
+                .thenReturn(List.of(new Row(2, "Belarus Republic")));
+
+        BulkChangeReport report = countryService.bulkUpdate(List.of(patch));
+
+        assertEquals(new BulkChangeReport(1, List.of()), report);
+        verify(countryNames).put(2, "Belarus Republic");
+        verify(cacheInvalidator).countriesUpdated(List.of(2));
+    }
+
+    @Test
+    void bulkUpdate_nameOfAnotherCountry() {
+        List<CountryDTO> patches = List.of(CountryDTO.builder()
+                .id(2)
+                .name("Japan")
+                .build());
+        when(countryRepository.findIdsAndNamesByNames(Set.of("Japan")))
+                .thenReturn(List.of(new Row(3, "Japan")));
+
+        assertThrows(BadRequestException.class,
+                () -> countryService.bulkUpdate(patches));
+        verify(countryRepository, never()).updateAll(any(), any(), any(),
+                any(), any());
+    }
+
+    /**
+     * Stands in for a cache miss: runs the loader and caches its result.
+     */
+    private Optional<CountryView> loadThrough(final InvocationOnMock invocation) {
+        Integer id = invocation.getArgument(0);
+        Function<Integer, Optional<CountryView>> loader = invocation.getArgument(1);
+        Optional<CountryView> country = loader.apply(id);
+        country.ifPresent(value -> countryCache.put(id, value));
+        return country;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<Object[]>> rowsCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    private record Row(Integer id, String name) implements IdAndName {
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
     }
 
-}
\ No newline at end of file
+}
@@ -1,6 +1,8 @@
 package com.example.geodata.service.impl;
 
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.Mockito.any;
 import static org.mockito.Mockito.anyInt;
@@ -8,32 +10,63 @@ import static org.mockito.Mockito.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 
+import com.example.geodata.cache.CacheInvalidator;
 import com.example.geodata.cache.LRUCacheLanguage;
+import com.example.geodata.cache.LanguageNameIndex;
+import com.example.geodata.cache.NegativeCacheLanguage;
+import com.example.geodata.config.CacheProperties;
+import com.example.geodata.dto.BulkChangeReport;
+import com.example.geodata.dto.BulkUpsertReport;
+import com.example.geodata.dto.KeysetPage;
 import com.example.geodata.dto.LanguageDTO;
+import com.example.geodata.dto.LanguageView;
 import com.example.geodata.entity.Language;
 import com.example.geodata.exceptions.BadRequestException;
 import com.example.geodata.exceptions.ResourceNotFoundException;
+import com.example.geodata.repository.CountryRepository;
+import com.example.geodata.repository.IdAndName;
 import com.example.geodata.repository.LanguageRepository;
 import com.example.geodata.service.impl.LanguageServiceImpl;
-import java.util.ArrayList;
+import com.example.geodata.service.ingest.BulkInserter;
+import com.example.geodata.service.ingest.BulkTable;
+import com.example.geodata.service.ingest.BulkUpserter;
+import com.example.geodata.service.ingest.IngestEngine;
+import com.example.geodata.service.ingest.UpsertResult;
+import com.example.geodata.service.ingest.UpsertTable;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Function;
+import java.util.stream.Stream;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.invocation.InvocationOnMock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.jdbc.core.BatchPreparedStatementSetter;
-import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.data.domain.Limit;
 
 @ExtendWith(MockitoExtension.class)
 class LanguageServiceImplTest {
 
     @Mock
-    private JdbcTemplate jdbcTemplate;
+    private BulkInserter bulkInserter;
+
+    @Mock
+    private BulkUpserter bulkUpserter;
+
+    @Mock
+    private CountryRepository countryRepository;
 
     @Mock
     private LanguageRepository languageRepository;
@@ -41,19 +74,55 @@ class LanguageServiceImplTest {
     @Mock
     private LRUCacheLanguage languageCache;
 
+    @Mock
+    private CacheInvalidator cacheInvalidator;
+
+    @Mock
+    private LanguageNameIndex languageNames;
+
+    @Spy
+    private NegativeCacheLanguage missingLanguages =
+            new NegativeCacheLanguage(4, new CacheProperties());
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper();
+
     @InjectMocks
     private LanguageServiceImpl languageService;
 
     @Test
-    void findAllLanguages() {
-        List<Language> expectedLanguages = new ArrayList<>();
+    void getPage() {
+        when(languageRepository.findByIdGreaterThanOrderByIdAsc(0, Limit.of(2)))
+                .thenReturn(List.of(Language.builder().id(1).code("ENG").build()));
 
-        when(languageRepository.findAll())
-                .thenReturn(expectedLanguages);
+        KeysetPage<LanguageView> page = languageService.getPage(0, 1);
 
-        List<Language> actualLanguages = languageService.findAll();
+        assertEquals(List.of(LanguageView.builder().id(1).code("ENG").build()),
+                page.items());
+        assertNull(page.nextCursor());
+    }
 
-        assertEquals(expectedLanguages, actualLanguages);
+    @Test
+    void export_writesOneLinePerLanguageAndDetachesIt() throws IOException {
+        Language english = Language.builder().id(1).name("English")
+                .code("en").build();
+        Language russian = Language.builder().id(2).name("Russian")
+                .code("ru").build();
+        when(languageRepository.streamAll()).thenReturn(Stream.of(english, russian));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        languageService.export(out);
+
+        assertEquals("""
+                {"id":1,"name":"English","code":"en"}
+                {"id":2,"name":"Russian","code":"ru"}
+                """, out.toString(StandardCharsets.UTF_8));
+        verify(entityManager).detach(english);
+        verify(entityManager).detach(russian);
+        verifyNoInteractions(languageCache);
     }
 
     @Test
@@ -119,6 +188,7 @@ class LanguageServiceImplTest {
     void deleteLanguageById_invalidId() {
         int id = 1;
 
+        when(languageCache.getOrLoad(eq(id), any())).thenAnswer(this::loadThrough);
         when(languageRepository.findById(id))
                 .thenReturn(Optional.empty());
 
@@ -144,25 +214,28 @@ class LanguageServiceImplTest {
     void findLanguageById_invalidId() {
         int id = 1;
 
-        when(languageCache.get(id))
-                .thenReturn(Optional.empty());
+        when(languageCache.getOrLoad(eq(id), any())).thenAnswer(this::loadThrough);
         when(languageRepository.findById(id))
                 .thenReturn(Optional.empty());
 
         assertThrows(ResourceNotFoundException.class,
                 () -> languageService.findById(id));
+        assertThrows(ResourceNotFoundException.class,
+                () -> languageService.findById(id));
+        verify(languageRepository, times(1)).findById(id);
     }
 
     @Test
     void findLanguageById_existingIdAndLanguageInCache()
             throws ResourceNotFoundException {
         int id = 1;
-        Optional<Language> expectedLanguage = Optional.of(new Language());
+        Optional<LanguageView> expectedLanguage = Optional.of(LanguageView.builder()
+                .id(id)
+                .build());
 
-        when(languageCache.get(id))
-                .thenReturn(expectedLanguage);
+        when(languageCache.getOrLoad(eq(id), any())).thenReturn(expectedLanguage);
 
-        Optional<Language> actualLanguage = languageService
+        Optional<LanguageView> actualLanguage = languageService
                 .findById(id);
 
         assertEquals(expectedLanguage, actualLanguage);
@@ -174,19 +247,22 @@ class LanguageServiceImplTest {
     void findLanguageById_existingIdAndLanguageNotInCache()
             throws ResourceNotFoundException {
         int id = 1;
-        Optional<Language> expectedLanguage = Optional.of(new Language());
+        Language language = Language.builder().id(id).name("Belarusian").build();
+        LanguageView expectedLanguage = LanguageView.builder()
+                .id(id)
+                .name("Belarusian")
+                .build();
 
-        when(languageCache.get(id))
-                .thenReturn(Optional.empty());
+        when(languageCache.getOrLoad(eq(id), any())).thenAnswer(this::loadThrough);
         when(languageRepository.findById(id))
-                .thenReturn(expectedLanguage);
+                .thenReturn(Optional.of(language));
 
-        Optional<Language> actualLanguage = languageService
+        Optional<LanguageView> actualLanguage = languageService
                 .findById(id);
 
-        assertEquals(expectedLanguage, actualLanguage);
+        assertEquals(Optional.of(expectedLanguage), actualLanguage);
         verify(languageCache, times(1))
-                .put(anyInt(), any(Language.class));
+                .put(id, expectedLanguage);
     }
 
     @Test
@@ -202,11 +278,131 @@ class LanguageServiceImplTest {
         List<LanguageDTO> languageDTOS = Arrays
                 .asList(firstLanguage, secondLanguage);
 
-        languageService.bulkInsert(languageDTOS);
+        languageService.bulkInsert(languageDTOS, IngestEngine.REWRITTEN);
+
+        ArgumentCaptor<List<Object[]>> rows = rowsCaptor();
+        verify(bulkInserter, times(1))
+                .insert(eq(IngestEngine.REWRITTEN), eq(BulkTable.LANGUAGES),
+                        rows.capture());
+        assertArrayEquals(new Object[] {"Russian", "RUS"}, rows.getValue().get(0));
+        assertArrayEquals(new Object[] {"English", "ENG"}, rows.getValue().get(1));
+    }
+
+    @Test
+    void bulkInsert_takenCodeRejectsRequest() {
+        List<LanguageDTO> languageDTOS = List.of(
+                LanguageDTO.builder().name("Russian").code("RUS").build(),
+                LanguageDTO.builder().name("Unknown").build(),
+                LanguageDTO.builder().name("Unnamed").build());
+        when(languageRepository.findCodesIn(new String[] {"RUS"}))
+                .thenReturn(List.of("RUS"));
+
+        assertThrows(BadRequestException.class,
+                () -> languageService.bulkInsert(languageDTOS, IngestEngine.BATCH));
+
+        verifyNoInteractions(bulkInserter);
+    }
+
+    /**
+     * Stands in for a cache miss: runs the loader and caches its result.
+     */
+    private Optional<LanguageView> loadThrough(final InvocationOnMock invocation) {
+        Integer id = invocation.getArgument(0);
+        Function<Integer, Optional<LanguageView>> loader = invocation.getArgument(1);
+        Optional<LanguageView> language = loader.apply(id);
+        language.ifPresent(value -> languageCache.put(id, value));
+        return language;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ArgumentCaptor<List<Object[]>> rowsCaptor() {
+        return ArgumentCaptor.forClass(List.class);
+    }
+
+    @Test
+    void bulkUpsert_evictsPreviousAndNewNameOfRenamedLanguage() {
+        when(bulkUpserter.upsert(eq(UpsertTable.LANGUAGES), any()))
+                .thenReturn(new UpsertResult(2, List.of(
+                        new UpsertResult.Row(7, false,
+                                new Object[] {"Englisch", "en"}),
+                        new UpsertResult.Row(9, true,
+                                new Object[] {"German", "de"}))));
+        when(languageNames.nameOf(7)).thenReturn(Optional.of("English"));
+        when(countryRepository.findCountryIdsByLanguageIds(List.of(7)))
+                .thenReturn(List.of(2, 3));
+
+        BulkUpsertReport report = languageService.bulkUpsert(List.of(
+                LanguageDTO.builder().name("Englisch").code("en").build(),
+                LanguageDTO.builder().name("German").code("de").build()));
+
+        assertEquals(new BulkUpsertReport(1, 1, 0), report);
+        verify(languageNames).put(7, "Englisch");
+        verify(languageNames).put(9, "German");
+        verify(cacheInvalidator).languagesUpserted(List.of(9), List.of(7),
+                List.of("English", "Englisch"), List.of(2, 3));
+    }
+
+    @Test
+    void bulkUpsert_nothingRewritten() {
+        when(bulkUpserter.upsert(eq(UpsertTable.LANGUAGES), any()))
+                .thenReturn(new UpsertResult(1, List.of()));
+
+        BulkUpsertReport report = languageService.bulkUpsert(List.of(
+                LanguageDTO.builder().name("English").code("en").build()));
 
-        verify(jdbcTemplate, times(1))
-                .batchUpdate(eq("INSERT into languages"
-                        + " (language_name, language_code)"
-                        + " VALUES (?, ?)"), any(BatchPreparedStatementSetter.class));
+        assertEquals(new BulkUpsertReport(0, 0, 1), report);
+        verify(countryRepository, never()).findCountryIdsByLanguageIds(any());
+        verify(cacheInvalidator).languagesUpserted(List.of(), List.of(),
+                List.of(), List.of());
     }
-}
\ No newline at end of file
+
+    @Test
+    void bulkDelete_evictsCountriesThatSpokeTheLanguages() {
+        Integer[] ids = {7};
+        when(languageRepository.deleteCountryLinksByLanguageIds(ids))
+                .thenReturn(List.of(2, 3, 2));
+        when(languageRepository.deleteByIds(ids))
+                .thenReturn(List.of(new Row(7, "English")));
+
+        BulkChangeReport report = languageService.bulkDelete(List.of(7));
+
+        assertEquals(new BulkChangeReport(1, List.of()), report);
+        verify(cacheInvalidator).languagesDeleted(List.of(7), List.of("English"),
+                List.of(2, 3));
+        verify(languageNames).remove(7);
+    }
+
+    @Test
+    void bulkUpdate_evictsPreviousAndNewName() {
+        when(languageRepository.updateAll(new Integer[] {7, 8},
+                new String[] {"Englisch", null}, new String[] {null, "xx"}))
+                .thenReturn(List.of(new Row(7, "Englisch")));
+        when(languageNames.nameOf(7)).thenReturn(Optional.of("English"));
+        when(countryRepository.findCountryIdsByLanguageIds(List.of(7)))
+                .thenReturn(List.of(2));
+
+        BulkChangeReport report = languageService.bulkUpdate(List.of(
+                LanguageDTO.builder().id(7).name("Englisch").build(),
+                LanguageDTO.builder().id(8).code("xx").build()));
+
+        assertEquals(new BulkChangeReport(1, List.of(8)), report);
+        verify(languageNames).put(7, "Englisch");
+        verify(cacheInvalidator).languagesUpserted(List.of(), List.of(7),
+                List.of("English", "Englisch"), List.of(2));
+    }
+
+    private record Row(Integer id, String name) implements IdAndName {
+
+        @Override
+        public Integer getId() {
+            return id;
+        }
+
+        @Override
+        public String getName() {
+            return name;
+        }
+
+    }
+
+}
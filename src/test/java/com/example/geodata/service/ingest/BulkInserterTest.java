@@ -0,0 +1,167 @@
+package com.example.geodata.service.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.postgresql.PGConnection;
+import org.postgresql.copy.CopyIn;
+import org.postgresql.copy.CopyManager;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+
+@ExtendWith(MockitoExtension.class)
+class BulkInserterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PreparedStatement preparedStatement;
+
+    @InjectMocks
+    private BulkInserter bulkInserter;
+
+    @Test
+    void batch_sendsOneSingleRowInsertPerRow() throws SQLException {
+        bulkInserter.insert(IngestEngine.BATCH, BulkTable.CITIES, List.of(
+                new Object[] {"Minsk", 1, 53.9, 27.56},
+                new Object[] {"Pinsk", 1, 52.11, 26.1}));
+
+        ArgumentCaptor<BatchPreparedStatementSetter> setter =
+                ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(eq("INSERT into cities"
+                + " (city_name, fk_cities_countries, latitude, longitude)"
+                + " VALUES (?, ?, ?, ?)"), setter.capture());
+        assertEquals(2, setter.getValue().getBatchSize());
+
+        setter.getValue().setValues(preparedStatement, 1);
+
+        verify(preparedStatement).setObject(1, "Pinsk");
+        verify(preparedStatement).setObject(4, 26.1);
+    }
+
+    @Test
+    void rewritten_foldsRowsIntoMultiRowStatements() throws SQLException {
+        List<Object[]> rows = languages(2_500);
+
+        bulkInserter.insert(IngestEngine.REWRITTEN, BulkTable.LANGUAGES, rows);
+
+        ArgumentCaptor<BatchPreparedStatementSetter> setter =
+                ArgumentCaptor.forClass(BatchPreparedStatementSetter.class);
+        verify(jdbcTemplate).batchUpdate(
+                eq(BulkTable.LANGUAGES.insertSql(BulkInserter.ROWS_PER_STATEMENT)),
+                setter.capture());
+        assertEquals(2, setter.getValue().getBatchSize());
+        ArgumentCaptor<PreparedStatementSetter> rest =
+                ArgumentCaptor.forClass(PreparedStatementSetter.class);
+        verify(jdbcTemplate).update(eq(BulkTable.LANGUAGES.insertSql(500)),
+                rest.capture());
+
+        setter.getValue().setValues(preparedStatement, 1);
+        rest.getValue().setValues(preparedStatement);
+
+        verify(preparedStatement).setObject(1, "language 1000");
+        verify(preparedStatement).setObject(1, "language 2000");
+        verify(preparedStatement).setObject(1_000, "code 2499");
+    }
+
+    @Test
+    void rewritten_staysUnderTheParameterLimit() {
+        List<String> columns = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            columns.add("c" + i);
+        }
+        BulkTable wide = new BulkTable("wide", columns);
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 900; i++) {
+            rows.add(new Object[columns.size()]);
+        }
+
+        bulkInserter.insert(IngestEngine.REWRITTEN, wide, rows);
+
+        int perStatement = BulkInserter.MAX_PARAMETERS / columns.size();
+        verify(jdbcTemplate).batchUpdate(eq(wide.insertSql(perStatement)),
+                any(BatchPreparedStatementSetter.class));
+        verify(jdbcTemplate).update(eq(wide.insertSql(900 - perStatement)),
+                any(PreparedStatementSetter.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void copy_streamsCsvThroughCopyIn() throws SQLException {
+        Connection connection = mock(Connection.class);
+        PGConnection pgConnection = mock(PGConnection.class);
+        CopyManager copyManager = mock(CopyManager.class);
+        CopyIn copyIn = mock(CopyIn.class);
+        when(connection.unwrap(PGConnection.class)).thenReturn(pgConnection);
+        when(pgConnection.getCopyAPI()).thenReturn(copyManager);
+        when(copyManager.copyIn(BulkTable.COUNTRIES.copySql())).thenReturn(copyIn);
+        ByteArrayOutputStream written = new ByteArrayOutputStream();
+        doAnswer(invocation -> {
+            written.write(invocation.getArgument(0), invocation.getArgument(1),
+                    invocation.getArgument(2));
+            return null;
+        }).when(copyIn).writeToCopy(any(byte[].class), anyInt(), anyInt());
+
+        bulkInserter.insert(IngestEngine.COPY, BulkTable.COUNTRIES, List.of(
+                new Object[] {"Côte d'Ivoire", "Ivorian", 7.54, -5.55},
+                new Object[] {"The \"Gambia\"", null, 13.44, -15.31}));
+
+        ArgumentCaptor<ConnectionCallback<Long>> callback =
+                ArgumentCaptor.forClass(ConnectionCallback.class);
+        verify(jdbcTemplate).execute(callback.capture());
+        callback.getValue().doInConnection(connection);
+
+        assertEquals("\"Côte d'Ivoire\",\"Ivorian\",7.54,-5.55\n"
+                + "\"The \"\"Gambia\"\"\",,13.44,-15.31\n",
+                written.toString(StandardCharsets.UTF_8));
+        verify(copyIn).endCopy();
+    }
+
+    @Test
+    void noRows_noStatements() {
+        bulkInserter.insert(IngestEngine.COPY, BulkTable.CITIES, List.of());
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void copySql_namesColumnsInRowOrder() {
+        assertEquals("COPY languages (language_name, language_code)"
+                + " FROM STDIN (FORMAT csv)", BulkTable.LANGUAGES.copySql());
+        assertEquals("INSERT into languages (language_name, language_code)"
+                + " VALUES (?, ?), (?, ?)", BulkTable.LANGUAGES.insertSql(2));
+    }
+
+    private static List<Object[]> languages(final int count) {
+        Object[][] rows = new Object[count][];
+        for (int i = 0; i < count; i++) {
+            rows[i] = new Object[] {"language " + i, "code " + i};
+        }
+        return Arrays.asList(rows);
+    }
+
+}
@@ -0,0 +1,236 @@
+package com.example.geodata.service.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.example.geodata.config.UniqueKeyCheck;
+import com.example.geodata.dto.BulkUpsertReport;
+import com.example.geodata.exceptions.BadRequestException;
+import com.example.geodata.exceptions.ServiceUnavailableException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementCreator;
+import org.springframework.jdbc.core.RowMapper;
+
+@ExtendWith(MockitoExtension.class)
+class BulkUpserterTest {
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private Connection connection;
+
+    @Mock
+    private PreparedStatement preparedStatement;
+
+    @Mock
+    private ResultSet resultSet;
+
+    @Mock
+    private UniqueKeyCheck uniqueKeys;
+
+    @InjectMocks
+    private BulkUpserter bulkUpserter;
+
+    @Test
+    void upsert_bindsOneArrayPerColumnWithRepeatedKeysMerged() throws SQLException {
+        UpsertResult.Row english = new UpsertResult.Row(7, false,
+                new Object[] {"Englisch", "en"});
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class),
+                any(RowMapper.class))).thenReturn(List.of(english));
+
+        UpsertResult result = bulkUpserter.upsert(UpsertTable.LANGUAGES, List.of(
+                new Object[] {"English", "en"},
+                new Object[] {"Russian", "ru"},
+                new Object[] {"Englisch", "en"}));
+
+        ArgumentCaptor<PreparedStatementCreator> creator =
+                ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate).query(creator.capture(), any(RowMapper.class));
+        when(connection.prepareStatement(UpsertTable.LANGUAGES.upsertSql()))
+                .thenReturn(preparedStatement);
+        creator.getValue().createPreparedStatement(connection);
+        verify(connection).createArrayOf("varchar",
+                new Object[] {"Englisch", "Russian"});
+        verify(connection).createArrayOf("varchar", new Object[] {"en", "ru"});
+        assertEquals(2, result.rows());
+        assertEquals(List.of(english), result.changed());
+    }
+
+    @Test
+    void upsert_splitsLargeInputIntoStatements() {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i <= BulkUpserter.ROWS_PER_STATEMENT; i++) {
+            rows.add(new Object[] {"language " + i, "code " + i});
+        }
+
+        UpsertResult result = bulkUpserter.upsert(UpsertTable.LANGUAGES, rows);
+
+        verify(jdbcTemplate, times(2)).query(any(PreparedStatementCreator.class),
+                any(RowMapper.class));
+        assertEquals(BulkUpserter.ROWS_PER_STATEMENT + 1, result.rows());
+    }
+
+    @Test
+    void upsert_readsIdFlagAndColumnsOfWrittenRows() throws SQLException {
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class),
+                any(RowMapper.class))).thenReturn(List.of());
+        bulkUpserter.upsert(UpsertTable.LANGUAGES,
+                List.<Object[]>of(new Object[] {"German", "de"}));
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<RowMapper<UpsertResult.Row>> mapper =
+                ArgumentCaptor.forClass(RowMapper.class);
+        verify(jdbcTemplate).query(any(PreparedStatementCreator.class),
+                mapper.capture());
+        when(resultSet.getInt(1)).thenReturn(9);
+        when(resultSet.getBoolean(2)).thenReturn(true);
+        when(resultSet.getObject(3)).thenReturn("German");
+        when(resultSet.getObject(4)).thenReturn("de");
+
+        UpsertResult.Row row = mapper.getValue().mapRow(resultSet, 0);
+
+        assertEquals(9, row.id());
+        assertTrue(row.inserted());
+        assertArrayEquals(new Object[] {"German", "de"}, row.values());
+    }
+
+    @Test
+    void report_countsRowsMissingFromTheResultAsUnchanged() {
+        UpsertResult result = new UpsertResult(5, List.of(
+                new UpsertResult.Row(1, true, new Object[0]),
+                new UpsertResult.Row(2, false, new Object[0])));
+
+        assertEquals(new BulkUpsertReport(1, 1, 3), result.report());
+        assertEquals(List.of(1), result.ids(true));
+        assertEquals(List.of(2), result.ids(false));
+    }
+
+    @Test
+    void upsert_rejectsCityNameSharedWithinACountry() throws SQLException {
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class),
+                any(RowMapper.class))).thenReturn(List.of("(Springfield, 3)"));
+
+        BadRequestException e = assertThrows(BadRequestException.class,
+                () -> bulkUpserter.upsert(UpsertTable.CITIES, List.<Object[]>of(
+                        new Object[] {"Springfield", 3, 39.8, -89.6},
+                        new Object[] {"Chicago", 3, 41.9, -87.6})));
+
+        verify(jdbcTemplate).queryForList("SELECT pg_advisory_xact_lock(hashtext(?))",
+                "cities");
+        ArgumentCaptor<PreparedStatementCreator> creator =
+                ArgumentCaptor.forClass(PreparedStatementCreator.class);
+        verify(jdbcTemplate).query(creator.capture(), any(RowMapper.class));
+        when(connection.prepareStatement(UpsertTable.CITIES.ambiguousKeysSql()))
+                .thenReturn(preparedStatement);
+        creator.getValue().createPreparedStatement(connection);
+        verify(connection).createArrayOf("varchar",
+                new Object[] {"Springfield", "Chicago"});
+        assertTrue(e.getMessage().contains("(Springfield, 3)"));
+    }
+
+    @Test
+    void upsert_writesCitiesOnceNoKeyIsAmbiguous() {
+        UpsertResult.Row springfield = new UpsertResult.Row(4, true,
+                new Object[] {"Springfield", 3, 39.8, -89.6});
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class),
+                any(RowMapper.class))).thenReturn(List.of(), List.of(springfield));
+
+        UpsertResult result = bulkUpserter.upsert(UpsertTable.CITIES,
+                List.<Object[]>of(new Object[] {"Springfield", 3, 39.8, -89.6}));
+
+        verify(jdbcTemplate, times(2)).query(any(PreparedStatementCreator.class),
+                any(RowMapper.class));
+        assertEquals(List.of(springfield), result.changed());
+    }
+
+    @Test
+    void upsert_locksOnlyTablesWithoutUniqueKey() {
+        when(jdbcTemplate.query(any(PreparedStatementCreator.class),
+                any(RowMapper.class))).thenReturn(List.of());
+
+        bulkUpserter.upsert(UpsertTable.LANGUAGES,
+                List.<Object[]>of(new Object[] {"German", "de"}));
+
+        verify(jdbcTemplate, never()).queryForList(anyString(), any(Object[].class));
+    }
+
+    @Test
+    void upsert_missingUniqueKeyRejectsBeforeWriting() {
+        doThrow(new ServiceUnavailableException("no key"))
+                .when(uniqueKeys).require(UpsertTable.COUNTRIES);
+
+        assertThrows(ServiceUnavailableException.class,
+                () -> bulkUpserter.upsert(UpsertTable.COUNTRIES, List.<Object[]>of(
+                        new Object[] {"Japan", "Japanese", 36.2, 138.3})));
+
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    void upsertSql_rewritesOnlyRowsWithDifferentValues() {
+        assertEquals("INSERT INTO countries AS t (country_name, nationality,"
+                + " latitude, longitude) SELECT * FROM unnest(?::varchar[],"
+                + " ?::varchar[], ?::float8[], ?::float8[])"
+                + " ON CONFLICT (country_name) DO UPDATE SET"
+                + " nationality = EXCLUDED.nationality,"
+                + " latitude = EXCLUDED.latitude, longitude = EXCLUDED.longitude"
+                + " WHERE (t.nationality, t.latitude, t.longitude) IS DISTINCT FROM"
+                + " (EXCLUDED.nationality, EXCLUDED.latitude, EXCLUDED.longitude)"
+                + " RETURNING t.id, t.xmax = 0, t.country_name,"
+                + " t.nationality, t.latitude, t.longitude",
+                UpsertTable.COUNTRIES.upsertSql());
+    }
+
+    @Test
+    void upsertSql_matchesCitiesWithoutUniqueKey() {
+        assertEquals("WITH i AS (SELECT * FROM unnest(?::varchar[], ?::int4[],"
+                + " ?::float8[], ?::float8[]) AS i (city_name, fk_cities_countries,"
+                + " latitude, longitude)), updated AS (UPDATE cities AS t SET"
+                + " latitude = i.latitude, longitude = i.longitude FROM i"
+                + " WHERE (t.city_name, t.fk_cities_countries)"
+                + " = (i.city_name, i.fk_cities_countries)"
+                + " AND (t.latitude, t.longitude) IS DISTINCT FROM"
+                + " (i.latitude, i.longitude) RETURNING t.id, false, t.city_name,"
+                + " t.fk_cities_countries, t.latitude, t.longitude),"
+                + " inserted AS (INSERT INTO cities AS t (city_name,"
+                + " fk_cities_countries, latitude, longitude) SELECT * FROM i"
+                + " WHERE NOT EXISTS (SELECT 1 FROM cities e"
+                + " WHERE (e.city_name, e.fk_cities_countries)"
+                + " = (i.city_name, i.fk_cities_countries))"
+                + " RETURNING t.id, true, t.city_name, t.fk_cities_countries,"
+                + " t.latitude, t.longitude)"
+                + " SELECT * FROM updated UNION ALL SELECT * FROM inserted",
+                UpsertTable.CITIES.upsertSql());
+        assertEquals("SELECT t.city_name, t.fk_cities_countries FROM cities t"
+                + " JOIN unnest(?::varchar[], ?::int4[], ?::float8[], ?::float8[])"
+                + " AS i (city_name, fk_cities_countries, latitude, longitude)"
+                + " ON (t.city_name, t.fk_cities_countries)"
+                + " = (i.city_name, i.fk_cities_countries)"
+                + " GROUP BY t.city_name, t.fk_cities_countries HAVING count(*) > 1",
+                UpsertTable.CITIES.ambiguousKeysSql());
+        assertArrayEquals(new int[] {0, 1}, UpsertTable.CITIES.keyIndexes());
+    }
+
+}
@@ -0,0 +1,230 @@
+package com.example.geodata.service.ingest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+import com.example.geodata.config.IngestProperties;
+import com.example.geodata.dto.BulkInsertReport;
+import com.example.geodata.dto.ChunkReport;
+import com.example.geodata.dto.RowReport;
+import com.example.geodata.exceptions.BadRequestException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+@ExtendWith(MockitoExtension.class)
+class ChunkedInserterTest {
+
+    private static final BulkTable TABLE = BulkTable.LANGUAGES;
+
+    @Mock
+    private BulkInserter bulkInserter;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus status;
+
+    private ChunkedInserter chunkedInserter;
+
+    @BeforeEach
+    void setUp() {
+        IngestProperties properties = new IngestProperties();
+        properties.setChunkSize(2);
+        properties.setMaxAttempts(3);
+        chunkedInserter = new ChunkedInserter(bulkInserter,
+                new TransactionTemplate(transactionManager), Runnable::run,
+                properties);
+    }
+
+    @Test
+    void insert_writesEveryChunkInItsOwnTransaction() {
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+
+        BulkInsertReport report = chunkedInserter.insert(IngestEngine.COPY, TABLE,
+                List.of("a", "b", "c", "d", "e"), ChunkedInserterTest::toRow);
+
+        verify(bulkInserter, times(3)).insert(eq(IngestEngine.COPY), eq(TABLE),
+                anyList());
+        verify(transactionManager, times(3)).commit(status);
+        assertEquals(5, report.inserted());
+        assertEquals(List.of(0, 2, 4), report.chunks().stream()
+                .map(ChunkReport::firstRow).toList());
+        assertEquals(List.of(2, 2, 1), report.chunks().stream()
+                .map(ChunkReport::rows).toList());
+        assertEquals(List.of(), report.rows());
+    }
+
+    @Test
+    void insert_skipsRowsTheMapperRejects() {
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+
+        BulkInsertReport report = chunkedInserter.insert(IngestEngine.BATCH, TABLE,
+                List.of("a", "skip", "skip"), ChunkedInserterTest::toRow);
+
+        assertEquals(1, report.inserted());
+        assertEquals(2, report.skipped());
+        assertEquals(List.of(
+                new RowReport(1, RowReport.Outcome.SKIPPED, "no language"),
+                new RowReport(2, RowReport.Outcome.SKIPPED, "no language")),
+                report.rows());
+        verify(bulkInserter).insert(eq(IngestEngine.BATCH), eq(TABLE),
+                argThat(rows -> rows.size() == 1));
+    }
+
+    @Test
+    void insert_retriesTransientFailures() {
+        when(transactionManager.getTransaction(any()))
+                .thenThrow(new CannotCreateTransactionException("pool exhausted"))
+                .thenReturn(status);
+        doThrow(new CannotAcquireLockException("deadlock"))
+                .doNothing()
+                .when(bulkInserter).insert(eq(IngestEngine.BATCH), eq(TABLE), anyList());
+
+        BulkInsertReport report = chunkedInserter.insert(IngestEngine.BATCH, TABLE,
+                List.of("a", "b"), ChunkedInserterTest::toRow);
+
+        assertEquals(2, report.inserted());
+        assertEquals(3, report.chunks().get(0).attempts());
+    }
+
+    @Test
+    void insert_rejectedChunkIsWrittenRowByRow() {
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        when(status.createSavepoint()).thenReturn("first", "second");
+        doAnswer(invocation -> {
+            List<Object[]> rows = invocation.getArgument(2);
+            if (rows.stream().anyMatch(row -> "b".equals(row[0]))) {
+                throw new DataIntegrityViolationException("duplicate name");
+            }
+            return null;
+        }).when(bulkInserter).insert(any(), eq(TABLE), anyList());
+
+        BulkInsertReport report = chunkedInserter.insert(IngestEngine.COPY, TABLE,
+                List.of("a", "b", "c"), ChunkedInserterTest::toRow);
+
+        assertEquals(2, report.inserted());
+        assertEquals(1, report.failed());
+        assertEquals(List.of(
+                new RowReport(1, RowReport.Outcome.FAILED, "duplicate name")),
+                report.rows());
+        assertEquals(1, report.chunks().get(0).attempts());
+        verify(status).releaseSavepoint("first");
+        verify(status).rollbackToSavepoint("second");
+    }
+
+    @Test
+    void insert_chunkThatKeepsFailingTransientlyFailsAsAWhole() {
+        when(transactionManager.getTransaction(any()))
+                .thenThrow(new CannotCreateTransactionException("database down"));
+
+        BulkInsertReport report = chunkedInserter.insert(IngestEngine.BATCH, TABLE,
+                List.of("a", "skip", "c"), ChunkedInserterTest::toRow);
+
+        assertEquals(0, report.inserted());
+        assertEquals(1, report.skipped());
+        assertEquals(2, report.failed());
+        assertEquals(List.of(
+                new RowReport(0, RowReport.Outcome.FAILED, "database down"),
+                new RowReport(1, RowReport.Outcome.SKIPPED, "no language"),
+                new RowReport(2, RowReport.Outcome.FAILED, "database down")),
+                report.rows().stream()
+                        .sorted(Comparator.comparingInt(RowReport::row))
+                        .toList());
+        assertEquals(List.of("database down", "database down"), report.chunks()
+                .stream()
+                .map(ChunkReport::reason)
+                .toList());
+        verify(transactionManager, times(6)).getTransaction(any());
+        verifyNoInteractions(bulkInserter, status);
+    }
+
+    @Test
+    void insert_chunkWhoseRowByRowWriteFailsFailsAsAWhole() {
+        when(transactionManager.getTransaction(any())).thenReturn(status)
+                .thenThrow(new CannotCreateTransactionException("database down"));
+        doThrow(new DataIntegrityViolationException("duplicate name"))
+                .when(bulkInserter).insert(any(), eq(TABLE), anyList());
+
+        BulkInsertReport report = chunkedInserter.insert(IngestEngine.COPY, TABLE,
+                List.of("a", "b"), ChunkedInserterTest::toRow);
+
+        assertEquals(0, report.inserted());
+        assertEquals(2, report.failed());
+        assertEquals(List.of(
+                new RowReport(0, RowReport.Outcome.FAILED, "database down"),
+                new RowReport(1, RowReport.Outcome.FAILED, "database down")),
+                report.rows());
+        assertEquals("database down", report.chunks().get(0).reason());
+    }
+
+    @Test
+    void insert_unexpectedChunkFailureStillReportsEveryChunk() {
+        when(transactionManager.getTransaction(any())).thenReturn(status);
+        doAnswer(invocation -> null)
+                .doThrow(new IllegalStateException("engine broke"))
+                .when(bulkInserter).insert(any(), eq(TABLE), anyList());
+
+        BulkInsertReport report = chunkedInserter.insert(IngestEngine.COPY, TABLE,
+                List.of("a", "b", "c"), ChunkedInserterTest::toRow);
+
+        assertEquals(2, report.inserted());
+        assertEquals(1, report.failed());
+        assertEquals(List.of(
+                new RowReport(2, RowReport.Outcome.FAILED, "engine broke")),
+                report.rows());
+        assertEquals("engine broke", report.chunks().get(1).reason());
+    }
+
+    @Test
+    void insert_chunkTheExecutorRejectsFailsAsAWhole() {
+        IngestProperties properties = new IngestProperties();
+        properties.setChunkSize(2);
+        ChunkedInserter saturated = new ChunkedInserter(bulkInserter,
+                new TransactionTemplate(transactionManager), task -> {
+                    throw new RejectedExecutionException("queue full");
+                }, properties);
+
+        BulkInsertReport report = saturated.insert(IngestEngine.COPY, TABLE,
+                List.of("a", "b", "c"), ChunkedInserterTest::toRow);
+
+        assertEquals(0, report.inserted());
+        assertEquals(3, report.failed());
+        assertEquals(List.of(0, 1, 2), report.rows().stream()
+                .map(RowReport::row)
+                .toList());
+        assertEquals(List.of("queue full", "queue full"), report.chunks().stream()
+                .map(ChunkReport::reason)
+                .toList());
+        verifyNoInteractions(bulkInserter, transactionManager);
+    }
+
+    private static Object[] toRow(final String name) {
+        if ("skip".equals(name)) {
+            throw new BadRequestException("no language");
+        }
+        return new Object[] {name, name};
+    }
+
+}